@@ -0,0 +1,31 @@
+package io.appform.opentracing.benchmarks;
+
+import io.appform.opentracing.TracingAnnotation;
+
+/**
+ * Traced through its type annotation. All public methods are woven; {@link #hashCode()} is classified as excluded at
+ * runtime, and the package private {@link #plain()} is not woven at all.
+ */
+@TracingAnnotation
+public class AnnotatedService {
+
+    private int counter;
+
+    int plain() {
+        return ++counter;
+    }
+
+    public int traced() {
+        return ++counter;
+    }
+
+    @Override
+    public int hashCode() {
+        return ++counter;
+    }
+
+    @Override
+    public boolean equals(final Object other) {
+        return this == other;
+    }
+}
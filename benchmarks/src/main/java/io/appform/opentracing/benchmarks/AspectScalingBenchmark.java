@@ -0,0 +1,70 @@
+package io.appform.opentracing.benchmarks;
+
+import io.appform.opentracing.TracingManager;
+import io.appform.opentracing.TracingOptions;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of traced calls as threads are added. Shared aspect state is read-only after the first call, so with a
+ * tracer that does not synchronise itself the per thread throughput should stay flat up to the core count.
+ * <p>
+ * Sweep 1 to 64 threads with {@code TracingBenchmarkRunner AspectScalingBenchmark 64}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+@State(Scope.Benchmark)
+public class AspectScalingBenchmark {
+
+    @Param({"NOOP", "RECORDING"})
+    public BenchmarkTracers tracer;
+
+    @Param({"false", "true"})
+    public boolean parameterCaptureEnabled;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        BenchmarkTracers.install(tracer.create());
+        TracingManager.initialize(new TracingOptions.TracingOptionsBuilder()
+                .parameterCaptureEnabled(parameterCaptureEnabled)
+                .build());
+    }
+
+    @Benchmark
+    public int baseline(final ThreadService state) {
+        return state.service.plain();
+    }
+
+    @Benchmark
+    public int noArgs(final ThreadService state) {
+        return state.service.noArgs();
+    }
+
+    @Benchmark
+    public int withParameters(final ThreadService state) {
+        return state.service.withParameters("tenant_a", "checkout");
+    }
+
+    /**
+     * Service instance per thread, so that its counter field is not shared between cores
+     */
+    @State(Scope.Thread)
+    public static class ThreadService {
+        final TracedService service = new TracedService();
+    }
+}
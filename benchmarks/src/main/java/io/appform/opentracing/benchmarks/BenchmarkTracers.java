@@ -0,0 +1,73 @@
+package io.appform.opentracing.benchmarks;
+
+import brave.Tracing;
+import brave.opentracing.BraveTracer;
+import io.appform.opentracing.recorder.RecordingTracer;
+import io.opentracing.Tracer;
+import io.opentracing.mock.MockTracer;
+import io.opentracing.noop.NoopTracerFactory;
+import io.opentracing.util.GlobalTracer;
+
+import java.lang.reflect.Field;
+
+/**
+ * Tracers the benchmarks can run against. {@link GlobalTracer} only allows a single registration per JVM, so the
+ * tracer is swapped in through reflection the same way the aspect tests do it.
+ */
+public enum BenchmarkTracers {
+    NOOP {
+        @Override
+        Tracer create() {
+            return NoopTracerFactory.create();
+        }
+    },
+    MOCK {
+        @Override
+        Tracer create() {
+            return new MockTracer();
+        }
+    },
+    BRAVE {
+        @Override
+        Tracer create() {
+            return BraveTracer.create(Tracing.newBuilder().build());
+        }
+    },
+    RECORDING {
+        @Override
+        Tracer create() {
+            return RecordingTracer.builder()
+                    .sink((buffer, offset, length) -> { })
+                    .build();
+        }
+    };
+
+    private static volatile Tracer installed;
+
+    abstract Tracer create();
+
+    static void install(final Tracer tracer) {
+        try {
+            setStatic("tracer", tracer);
+            setStatic("isRegistered", true);
+            installed = tracer;
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Could not install tracer for benchmark", e);
+        }
+    }
+
+    /**
+     * {@link MockTracer} keeps every finished span; clear them periodically so the heap does not dominate results.
+     */
+    static void reset() {
+        if (installed instanceof MockTracer) {
+            ((MockTracer) installed).reset();
+        }
+    }
+
+    private static void setStatic(final String name, final Object value) throws ReflectiveOperationException {
+        final Field field = GlobalTracer.class.getDeclaredField(name);
+        field.setAccessible(true);
+        field.set(null, value);
+    }
+}
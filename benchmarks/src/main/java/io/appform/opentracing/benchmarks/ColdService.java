@@ -0,0 +1,27 @@
+package io.appform.opentracing.benchmarks;
+
+import io.appform.opentracing.TracingAnnotation;
+import io.appform.opentracing.TracingParameter;
+
+/**
+ * Traced methods that are only loaded by {@link FirstCallBenchmark}, so that every fork sees their first call
+ */
+public class ColdService {
+
+    @TracingAnnotation
+    public int lookup(@TracingParameter final String tenant) {
+        return tenant.length();
+    }
+
+    @TracingAnnotation(className = "ColdCheckout", method = "checkout")
+    public int checkout(@TracingParameter final String tenant,
+                        final int items,
+                        @TracingParameter final String operation) {
+        return tenant.length() + items + operation.length();
+    }
+
+    @TracingAnnotation
+    public int noArgs() {
+        return 1;
+    }
+}
@@ -0,0 +1,13 @@
+package io.appform.opentracing.benchmarks;
+
+/**
+ * Stands in for a third party type that is not woven itself; its calls are traced by {@link ExternalClientTracing}
+ */
+public class ExternalClient {
+
+    private int counter;
+
+    public int fetch() {
+        return ++counter;
+    }
+}
@@ -0,0 +1,18 @@
+package io.appform.opentracing.benchmarks;
+
+import io.appform.opentracing.CallSiteTracingAspect;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.annotation.Pointcut;
+
+/**
+ * Call site tracing of {@link ExternalClient}
+ */
+@Aspect
+public class ExternalClientTracing extends CallSiteTracingAspect {
+
+    @Override
+    @Pointcut("call(public * io.appform.opentracing.benchmarks.ExternalClient.*(..))")
+    public void tracedCall() {
+        //Empty as required
+    }
+}
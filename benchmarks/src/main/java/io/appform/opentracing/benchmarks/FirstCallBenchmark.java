@@ -0,0 +1,53 @@
+package io.appform.opentracing.benchmarks;
+
+import io.appform.opentracing.TracingManager;
+import io.appform.opentracing.TracingOptions;
+import io.appform.opentracing.WarmUpReport;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency of the first calls to freshly loaded traced methods, with and without {@link TracingManager#warmUp}
+ * having run at startup. Every fork is a new JVM, so increase {@code -f} for a stable distribution.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+@Fork(20)
+@State(Scope.Benchmark)
+public class FirstCallBenchmark {
+
+    @Param({"true", "false"})
+    public boolean warmUp;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        BenchmarkTracers.install(BenchmarkTracers.BRAVE.create());
+        TracingManager.initialize(new TracingOptions.TracingOptionsBuilder()
+                .parameterCaptureEnabled(true)
+                .build());
+        if (warmUp) {
+            final WarmUpReport report = TracingManager.warmUp(ColdService.class);
+            System.out.println("Warm up: " + report);
+        }
+    }
+
+    @Benchmark
+    public int firstCalls() {
+        final ColdService service = new ColdService();
+        return service.lookup("tenant_a") + service.checkout("tenant_a", 3, "checkout") + service.noArgs();
+    }
+}
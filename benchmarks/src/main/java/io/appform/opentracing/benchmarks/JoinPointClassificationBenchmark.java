@@ -0,0 +1,70 @@
+package io.appform.opentracing.benchmarks;
+
+import io.appform.opentracing.TracingManager;
+import io.appform.opentracing.TracingOptions;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Overhead per woven join point of a type level {@link io.appform.opentracing.TracingAnnotation}: a traced method,
+ * a method matched by the pointcut but excluded by its cached classification, and a call traced at the call site,
+ * against a method that is not woven.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+@State(Scope.Thread)
+public class JoinPointClassificationBenchmark {
+
+    @Param({"NOOP", "RECORDING"})
+    public BenchmarkTracers tracer;
+
+    private final AnnotatedService service = new AnnotatedService();
+    private final ExternalClient client = new ExternalClient();
+
+    @Setup(Level.Trial)
+    public void setup() {
+        BenchmarkTracers.install(tracer.create());
+        TracingManager.initialize(new TracingOptions.TracingOptionsBuilder().build());
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() {
+        BenchmarkTracers.reset();
+    }
+
+    @Benchmark
+    public int baseline() {
+        return service.plain();
+    }
+
+    @Benchmark
+    public int traced() {
+        return service.traced();
+    }
+
+    @Benchmark
+    public int excluded() {
+        return service.hashCode();
+    }
+
+    @Benchmark
+    public int callSite() {
+        return client.fetch();
+    }
+}
@@ -0,0 +1,69 @@
+package io.appform.opentracing.benchmarks;
+
+import io.appform.opentracing.util.TracerUtil;
+import io.opentracing.Span;
+import io.opentracing.Tracer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * MDC work of a nested traced call on a trace already in MDC: populate the ids of the child span and restore the
+ * parent ids afterwards, as the aspect does with eager MDC. Run with {@code -prof gc} to see the allocation per call.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+@State(Scope.Thread)
+public class MDCPopulationBenchmark {
+
+    @Param({"BRAVE", "MOCK"})
+    public BenchmarkTracers tracer;
+
+    @Param({"false", "true"})
+    public boolean combinedMDCKey;
+
+    private Span parent;
+    private Span child;
+    private String parentTraceId;
+    private String parentSpanId;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        final Tracer created = tracer.create();
+        parent = created.buildSpan("parent").start();
+        child = created.buildSpan("child").asChildOf(parent).start();
+        TracerUtil.populateMDCTracing(parent, combinedMDCKey);
+        parentTraceId = combinedMDCKey ? TracerUtil.getMDCTraceContext() : TracerUtil.getMDCTraceId();
+        parentSpanId = TracerUtil.getMDCSpanId();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        TracerUtil.destroyTracingForCurrentThread();
+    }
+
+    @Benchmark
+    public void nestedCall() {
+        TracerUtil.populateMDCTracing(child, combinedMDCKey);
+        if (combinedMDCKey) {
+            TracerUtil.restoreMDCTraceContext(parentTraceId);
+        } else {
+            TracerUtil.restoreMDCTracing(parentTraceId, parentSpanId);
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package io.appform.opentracing.benchmarks;
+
+import org.aspectj.lang.JoinPoint;
+import org.aspectj.runtime.reflect.Factory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.reflect.Modifier;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cache lookup keyed on {@code Signature.toLongString()} (the old aspect cache) against a lookup keyed on the
+ * {@link JoinPoint.StaticPart} instance, with {@code computeIfAbsent} on every hit and with a plain {@code get}
+ * before computing (the current aspect cache). Run with {@code -t} to see contention on hits.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+@State(Scope.Benchmark)
+public class MetadataLookupBenchmark {
+
+    private final Map<String, Object> signatureKeyedCache = new ConcurrentHashMap<>();
+    private final Map<JoinPoint.StaticPart, Object> staticPartKeyedCache = new ConcurrentHashMap<>();
+    private JoinPoint.StaticPart staticPart;
+
+    @Setup
+    public void setup() {
+        final Factory factory = new Factory("TracedService.java", TracedService.class);
+        staticPart = factory.makeSJP(JoinPoint.METHOD_EXECUTION,
+                factory.makeMethodSig(Modifier.PUBLIC, "withParameters", TracedService.class,
+                        new Class[]{String.class, String.class}, new String[]{"tenant", "operation"},
+                        new Class[0], int.class),
+                1);
+        signatureKeyedCache.put(staticPart.getSignature().toLongString(), new Object());
+        staticPartKeyedCache.put(staticPart, new Object());
+    }
+
+    @Benchmark
+    public Object signatureStringKey() {
+        return signatureKeyedCache.computeIfAbsent(staticPart.getSignature().toLongString(), key -> new Object());
+    }
+
+    @Benchmark
+    public Object staticPartKey() {
+        return staticPartKeyedCache.computeIfAbsent(staticPart, key -> new Object());
+    }
+
+    @Benchmark
+    public Object staticPartKeyGetFirst() {
+        final Object value = staticPartKeyedCache.get(staticPart);
+        return value != null ? value : staticPartKeyedCache.computeIfAbsent(staticPart, key -> new Object());
+    }
+}
@@ -0,0 +1,57 @@
+package io.appform.opentracing.benchmarks;
+
+import io.appform.opentracing.TracingManager;
+import io.appform.opentracing.TracingMode;
+import io.appform.opentracing.TracingOptions;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per call cost of each {@link TracingMode}. METRICS against {@code TracingAspectBenchmark.baseline} is the cost of
+ * the tracing-free metrics mode.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+@State(Scope.Benchmark)
+public class MetricsModeBenchmark {
+
+    @Param({"SPANS", "METRICS", "SPANS_AND_METRICS"})
+    public TracingMode mode;
+
+    @Param({"NOOP", "BRAVE"})
+    public BenchmarkTracers tracer;
+
+    private final TracedService service = new TracedService();
+
+    @Setup
+    public void setup() {
+        BenchmarkTracers.install(tracer.create());
+        TracingManager.initialize(new TracingOptions.TracingOptionsBuilder()
+                .mode(mode)
+                .build());
+    }
+
+    @Benchmark
+    public int baseline() {
+        return service.plain();
+    }
+
+    @Benchmark
+    public int noArgs() {
+        return service.noArgs();
+    }
+}
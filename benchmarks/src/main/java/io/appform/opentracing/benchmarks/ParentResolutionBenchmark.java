@@ -0,0 +1,92 @@
+package io.appform.opentracing.benchmarks;
+
+import io.appform.opentracing.Constants;
+import io.appform.opentracing.util.TracerUtil;
+import io.opentracing.Scope;
+import io.opentracing.Span;
+import io.opentracing.SpanContext;
+import io.opentracing.Tracer;
+import io.opentracing.propagation.Format;
+import io.opentracing.propagation.TextMapAdapter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.MDC;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parent span context resolution for a new span: the previous header-map based extraction against the current
+ * {@link TracerUtil#buildSpanFromHeaders(Tracer)}, with a parent available as active span or only through MDC.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+@State(Scope.Thread)
+public class ParentResolutionBenchmark {
+
+    public enum ParentSource {
+        ACTIVE_SPAN,
+        MDC_ONLY
+    }
+
+    @Param({"ACTIVE_SPAN", "MDC_ONLY"})
+    public ParentSource parentSource;
+
+    private Tracer tracer;
+    private Span parent;
+    private Scope scope;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        BenchmarkTracers.install(BenchmarkTracers.BRAVE.create());
+        tracer = TracerUtil.getTracer();
+        parent = tracer.buildSpan("parent").start();
+        if (parentSource == ParentSource.ACTIVE_SPAN) {
+            scope = tracer.activateSpan(parent);
+        }
+        MDC.put(Constants.TRACE_ID, parent.context().toTraceId());
+        MDC.put(Constants.SPAN_ID, parent.context().toSpanId());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        if (scope != null) {
+            scope.close();
+        }
+        parent.finish();
+        MDC.clear();
+    }
+
+    @Benchmark
+    public SpanContext current() {
+        return TracerUtil.buildSpanFromHeaders(tracer);
+    }
+
+    @Benchmark
+    public SpanContext headerMapExtraction() {
+        if (TracerUtil.isTracerEnabled() && TracerUtil.getMDCTraceId() != null && !TracerUtil.getMDCTraceId().isEmpty()
+                && TracerUtil.getMDCSpanId() != null && !TracerUtil.getMDCSpanId().isEmpty()) {
+            Map<String, String> headers = new HashMap<>();
+            headers.put(Constants.X_B3_TRACE_ID.toLowerCase(), TracerUtil.getMDCTraceId());
+            headers.put(Constants.X_B3_SPAN_ID.toLowerCase(), TracerUtil.getMDCSpanId());
+            headers.put(Constants.X_B3_PARENT_SPAN_ID.toLowerCase(), TracerUtil.getMDCSpanId());
+            return tracer.extract(Format.Builtin.TEXT_MAP, new TextMapAdapter(headers));
+        }
+        return null;
+    }
+}
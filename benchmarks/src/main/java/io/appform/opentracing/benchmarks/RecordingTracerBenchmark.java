@@ -0,0 +1,57 @@
+package io.appform.opentracing.benchmarks;
+
+import io.appform.opentracing.MDCMode;
+import io.appform.opentracing.TracingManager;
+import io.appform.opentracing.TracingOptions;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Traced call cost with the recording tracer compared with Brave and the no-op tracer. Run with {@code -prof gc}:
+ * with lazy MDC, {@code gc.alloc.rate.norm} of RECORDING should match NOOP, i.e. the tracer itself adds no
+ * allocation; what remains is the join point the woven advice creates.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+@State(Scope.Benchmark)
+public class RecordingTracerBenchmark {
+
+    @Param({"NOOP", "BRAVE", "RECORDING"})
+    public BenchmarkTracers tracer;
+
+    @Param({"EAGER", "LAZY"})
+    public MDCMode mdcMode;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        BenchmarkTracers.install(tracer.create());
+        TracingManager.initialize(new TracingOptions.TracingOptionsBuilder()
+                .mdcMode(mdcMode)
+                .build());
+    }
+
+    @State(Scope.Thread)
+    public static class Service {
+        private final TracedService service = new TracedService();
+    }
+
+    @Benchmark
+    public int noArgs(final Service service) {
+        return service.service.noArgs();
+    }
+}
@@ -0,0 +1,77 @@
+package io.appform.opentracing.benchmarks;
+
+import io.appform.opentracing.TracingManager;
+import io.appform.opentracing.TracingOptions;
+import io.appform.opentracing.sampling.ParentBasedSampler;
+import io.appform.opentracing.sampling.ProbabilisticSampler;
+import io.appform.opentracing.sampling.RateLimitingSampler;
+import io.appform.opentracing.sampling.TracingSampler;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of an annotated call under the different head samplers. DROP_ALL is the cost of a call that is not sampled.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+@State(Scope.Benchmark)
+public class SamplingBenchmark {
+
+    public enum SamplerType {
+        NONE,
+        DROP_ALL,
+        PROBABILISTIC_1_PERCENT,
+        RATE_LIMITED_100_PER_SECOND,
+        PARENT_BASED_DROP_ALL
+    }
+
+    @Param({"NOOP", "BRAVE"})
+    public BenchmarkTracers tracer;
+
+    @Param({"NONE", "DROP_ALL", "PROBABILISTIC_1_PERCENT", "RATE_LIMITED_100_PER_SECOND", "PARENT_BASED_DROP_ALL"})
+    public SamplerType sampler;
+
+    private final TracedService service = new TracedService();
+
+    @Setup
+    public void setup() {
+        BenchmarkTracers.install(tracer.create());
+        TracingManager.initialize(new TracingOptions.TracingOptionsBuilder()
+                .sampler(createSampler())
+                .build());
+    }
+
+    @Benchmark
+    public int noArgs() {
+        return service.noArgs();
+    }
+
+    private TracingSampler createSampler() {
+        switch (sampler) {
+            case DROP_ALL:
+                return new ProbabilisticSampler(0);
+            case PROBABILISTIC_1_PERCENT:
+                return new ProbabilisticSampler(0.01);
+            case RATE_LIMITED_100_PER_SECOND:
+                return new RateLimitingSampler(100);
+            case PARENT_BASED_DROP_ALL:
+                return new ParentBasedSampler(new ProbabilisticSampler(0));
+            default:
+                return null;
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package io.appform.opentracing.benchmarks;
+
+import brave.Tags;
+import brave.Tracing;
+import brave.handler.MutableSpan;
+import brave.handler.MutableSpanBytesEncoder;
+import brave.handler.SpanHandler;
+import brave.opentracing.BraveTracer;
+import brave.propagation.TraceContext;
+import io.appform.opentracing.reporting.SpanBatchingHandler;
+import io.appform.opentracing.reporting.SpanSink;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Traced call throughput with 32 producer threads finishing spans into different Brave reporters.
+ * {@code SYNCHRONOUS} encodes and writes every span under a lock on the calling thread, {@code BATCHING} hands spans
+ * to {@link SpanBatchingHandler}. The sink discards bytes, so only the hand-off and encoding costs are measured.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+@Threads(32)
+@State(Scope.Benchmark)
+public class SpanReportingBenchmark {
+
+    public enum Reporter {
+        NONE,
+        SYNCHRONOUS,
+        BATCHING
+    }
+
+    @Param({"NONE", "SYNCHRONOUS", "BATCHING"})
+    public Reporter reporter;
+
+    private Tracing tracing;
+    private SpanBatchingHandler batchingHandler;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        final Tracing.Builder builder = Tracing.newBuilder();
+        switch (reporter) {
+            case SYNCHRONOUS:
+                builder.addSpanHandler(new SynchronousHandler(new DiscardingSink()));
+                break;
+            case BATCHING:
+                batchingHandler = SpanBatchingHandler.builder()
+                        .sink(new DiscardingSink())
+                        .queueCapacity(1 << 16)
+                        .build();
+                builder.addSpanHandler(batchingHandler);
+                break;
+            default:
+                break;
+        }
+        tracing = builder.build();
+        BenchmarkTracers.install(BraveTracer.create(tracing));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        if (batchingHandler != null) {
+            batchingHandler.close();
+            System.out.printf("%nSpans accepted: %d, dropped: %d, reported: %d%n", batchingHandler.getAcceptedSpans(),
+                    batchingHandler.getDroppedSpans(), batchingHandler.getReportedSpans());
+        }
+        tracing.close();
+    }
+
+    @State(Scope.Thread)
+    public static class Service {
+        private final TracedService service = new TracedService();
+    }
+
+    @Benchmark
+    public int tracedCall(final Service service) {
+        return service.service.noArgs();
+    }
+
+    private static class DiscardingSink implements SpanSink {
+        @Override
+        public void write(byte[] encodedSpans, int spanCount) {
+            Blackhole.consumeCPU(spanCount);
+        }
+    }
+
+    /**
+     * Per span reporting on the traced thread, the pattern the batching handler replaces
+     */
+    private static class SynchronousHandler extends SpanHandler {
+        private final MutableSpanBytesEncoder encoder = MutableSpanBytesEncoder.zipkinJsonV2(Tags.ERROR);
+        private final SpanSink sink;
+
+        private SynchronousHandler(final SpanSink sink) {
+            this.sink = sink;
+        }
+
+        @Override
+        public boolean end(TraceContext context, MutableSpan span, Cause cause) {
+            final byte[] encoded = encoder.encode(span);
+            synchronized (this) {
+                try {
+                    sink.write(encoded, 1);
+                } catch (Exception e) {
+                    return true;
+                }
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package io.appform.opentracing.benchmarks;
+
+import brave.Span;
+import brave.Tracer;
+import brave.Tracing;
+import brave.handler.MutableSpan;
+import brave.handler.SpanHandler;
+import brave.propagation.TraceContext;
+import io.appform.opentracing.FunctionData;
+import io.appform.opentracing.TracingConstants;
+import io.appform.opentracing.reporting.TailSamplingSpanHandler;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Span throughput of {@link TailSamplingSpanHandler} with 8 threads finishing traces of a root and
+ * {@value #CHILDREN} children; about one trace in a hundred has a failed or slow span and is kept. Results are in
+ * spans per second and should stay well above the target of 100k spans per second. The eviction counters printed
+ * at the end show whether the buffer cap was reached.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+@Threads(8)
+@State(Scope.Benchmark)
+public class TailSamplingBenchmark {
+    private static final int CHILDREN = 7;
+
+    private TailSamplingSpanHandler handler;
+    private Tracing tracing;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        handler = TailSamplingSpanHandler.builder()
+                .delegate(new DiscardingHandler())
+                .maxBufferedBytes(16L * 1024 * 1024)
+                .latencyThreshold(new FunctionData("Repository", "load"), 50, TimeUnit.MILLISECONDS)
+                .defaultLatencyThreshold(1, TimeUnit.SECONDS)
+                .build();
+        tracing = Tracing.newBuilder().addSpanHandler(handler).build();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        tracing.close();
+        System.out.printf("%nTraces kept: %d, dropped: %d, evicted: %d%n", handler.getKeptTraces(),
+                handler.getDroppedTraces(), handler.getEvictedTraces());
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(CHILDREN + 1)
+    public void finishTrace() {
+        final Tracer tracer = tracing.tracer();
+        final long start = TimeUnit.MILLISECONDS.toMicros(System.currentTimeMillis());
+        final boolean sampled = ThreadLocalRandom.current().nextInt(100) == 0;
+        final Span root = tracer.newTrace().name("method:handle").start(start);
+        for (int i = 0; i < CHILDREN; i++) {
+            final Span child = tracer.newChild(root.context()).name("method:load").start(start);
+            child.tag(TracingConstants.CLASS_NAME_TAG, "Repository");
+            child.tag(TracingConstants.METHOD_NAME_TAG, "load");
+            child.tag(TracingConstants.METHOD_STATUS_TAG, TracingConstants.STATUS_SUCCESS);
+            child.finish(start + (sampled && i == 0 ? 60_000 : 100));
+        }
+        root.finish(start + 1_000);
+    }
+
+    private static class DiscardingHandler extends SpanHandler {
+        @Override
+        public boolean end(TraceContext context, MutableSpan span, Cause cause) {
+            Blackhole.consumeCPU(1);
+            return true;
+        }
+    }
+}
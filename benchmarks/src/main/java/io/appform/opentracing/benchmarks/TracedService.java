@@ -0,0 +1,27 @@
+package io.appform.opentracing.benchmarks;
+
+import io.appform.opentracing.TracingAnnotation;
+import io.appform.opentracing.TracingParameter;
+
+/**
+ * Methods woven with the tracing aspect, plus an un-advised baseline
+ */
+public class TracedService {
+
+    private int counter;
+
+    public int plain() {
+        return ++counter;
+    }
+
+    @TracingAnnotation
+    public int noArgs() {
+        return ++counter;
+    }
+
+    @TracingAnnotation
+    public int withParameters(@TracingParameter final String tenant,
+                              @TracingParameter final String operation) {
+        return ++counter + tenant.length() + operation.length();
+    }
+}
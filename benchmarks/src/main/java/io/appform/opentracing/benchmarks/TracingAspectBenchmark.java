@@ -0,0 +1,93 @@
+package io.appform.opentracing.benchmarks;
+
+import io.appform.opentracing.TracingManager;
+import io.appform.opentracing.TracingOptions;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of a call through the tracing aspect compared with the same call without advice.
+ * <p>
+ * Thread count is controlled with the JMH {@code -t} option, or through {@link TracingBenchmarkRunner}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+@State(Scope.Benchmark)
+public class TracingAspectBenchmark {
+
+    @Param({"NOOP", "MOCK", "BRAVE", "RECORDING"})
+    public BenchmarkTracers tracer;
+
+    @Param({"true", "false"})
+    public boolean cacheEnabled;
+
+    @Param({"true", "false"})
+    public boolean parameterCaptureEnabled;
+
+    private final TracedService service = new TracedService();
+
+    @Setup(Level.Trial)
+    public void setup() {
+        BenchmarkTracers.install(tracer.create());
+        TracingManager.initialize(new TracingOptions.TracingOptionsBuilder()
+                .parameterCaptureEnabled(parameterCaptureEnabled)
+                .disableCacheOptimisation(!cacheEnabled)
+                .build());
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() {
+        BenchmarkTracers.reset();
+    }
+
+    @Benchmark
+    public int baseline(final CallCounter counter) {
+        counter.tick();
+        return service.plain();
+    }
+
+    @Benchmark
+    public int noArgs(final CallCounter counter) {
+        counter.tick();
+        return service.noArgs();
+    }
+
+    @Benchmark
+    public int withParameters(final CallCounter counter) {
+        counter.tick();
+        return service.withParameters("tenant_a", "checkout");
+    }
+
+    /**
+     * Clears recorded spans every few thousand calls so that MockTracer runs do not measure heap growth
+     */
+    @State(Scope.Thread)
+    public static class CallCounter {
+        private static final int RESET_INTERVAL = 1 << 16;
+
+        private int calls;
+
+        void tick() {
+            if (++calls == RESET_INTERVAL) {
+                calls = 0;
+                BenchmarkTracers.reset();
+            }
+        }
+    }
+}
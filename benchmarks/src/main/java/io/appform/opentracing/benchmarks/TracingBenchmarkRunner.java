@@ -0,0 +1,37 @@
+package io.appform.opentracing.benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the selected benchmarks with 1, 2, 4 ... N threads and the GC profiler attached, writing one JSON result
+ * file per thread count.
+ * <p>
+ * Usage: {@code java -cp target/benchmarks.jar io.appform.opentracing.benchmarks.TracingBenchmarkRunner [regex] [maxThreads]}
+ */
+public class TracingBenchmarkRunner {
+
+    private TracingBenchmarkRunner() {
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        final String include = args.length > 0 ? args[0] : TracingAspectBenchmark.class.getSimpleName();
+        final int maxThreads = args.length > 1
+                ? Integer.parseInt(args[1])
+                : Runtime.getRuntime().availableProcessors();
+        for (int threads = 1; threads <= maxThreads; threads *= 2) {
+            final Options options = new OptionsBuilder()
+                    .include(include)
+                    .threads(threads)
+                    .addProfiler(GCProfiler.class)
+                    .resultFormat(ResultFormatType.JSON)
+                    .result("jmh-result-t" + threads + ".json")
+                    .build();
+            new Runner(options).run();
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package io.appform.opentracing.benchmarks;
+
+import io.appform.opentracing.concurrent.TracingExecutors;
+import io.appform.opentracing.util.TracerUtil;
+import io.opentracing.Scope;
+import io.opentracing.Span;
+import io.opentracing.Tracer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Task hand-off cost through plain and tracing wrapped executors. Every invocation submits a batch of tasks from a
+ * thread with an active span and waits for all of them; run with {@code -t} to raise the submission rate.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+@State(Scope.Benchmark)
+public class TracingExecutorsBenchmark {
+    private static final int BATCH_SIZE = 256;
+
+    public enum PoolType {
+        FORK_JOIN,
+        FIXED
+    }
+
+    @Param({"FORK_JOIN", "FIXED"})
+    public PoolType pool;
+
+    @Param({"true", "false"})
+    public boolean tracing;
+
+    private ExecutorService executorService;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        BenchmarkTracers.install(BenchmarkTracers.BRAVE.create());
+        final ExecutorService raw = pool == PoolType.FORK_JOIN
+                ? new ForkJoinPool(Runtime.getRuntime().availableProcessors())
+                : Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+        executorService = tracing ? TracingExecutors.wrap(raw) : raw;
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        executorService.shutdownNow();
+    }
+
+    @State(Scope.Thread)
+    public static class ActiveSpan {
+        private Span span;
+        private Scope scope;
+
+        @Setup(Level.Trial)
+        public void setup() {
+            final Tracer tracer = TracerUtil.getTracer();
+            span = tracer.buildSpan("submitter").start();
+            scope = tracer.activateSpan(span);
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            scope.close();
+            span.finish();
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public void submitBatch(final ActiveSpan activeSpan) throws InterruptedException {
+        final CountDownLatch latch = new CountDownLatch(BATCH_SIZE);
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            executorService.execute(latch::countDown);
+        }
+        latch.await();
+    }
+}
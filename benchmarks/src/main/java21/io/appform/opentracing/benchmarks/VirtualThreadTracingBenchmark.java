@@ -0,0 +1,63 @@
+package io.appform.opentracing.benchmarks;
+
+import io.appform.opentracing.MDCMode;
+import io.appform.opentracing.TracingManager;
+import io.appform.opentracing.TracingOptions;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Spawns one million virtual threads, each running an annotated method that calls a nested annotated method.
+ * With {@code -prof gc}, {@code gc.alloc.rate.norm} is the allocation per virtual thread for each MDC mode.
+ * Only built with the jdk21 profile.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class VirtualThreadTracingBenchmark {
+    private static final int VIRTUAL_THREADS = 1_000_000;
+
+    @Param({"EAGER", "LAZY"})
+    public MDCMode mdcMode;
+
+    @Param({"NOOP", "BRAVE"})
+    public BenchmarkTracers tracer;
+
+    private final TracedService service = new TracedService();
+
+    @Setup
+    public void setup() {
+        BenchmarkTracers.install(tracer.create());
+        TracingManager.initialize(new TracingOptions.TracingOptionsBuilder()
+                .mdcMode(mdcMode)
+                .parameterCaptureEnabled(true)
+                .build());
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(VIRTUAL_THREADS)
+    public void spawnTracedVirtualThreads() {
+        try (ExecutorService executorService = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < VIRTUAL_THREADS; i++) {
+                executorService.execute(() -> service.withParameters("tenant_a", "checkout"));
+            }
+        }
+    }
+}
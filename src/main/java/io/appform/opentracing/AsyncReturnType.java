@@ -0,0 +1,51 @@
+package io.appform.opentracing;
+
+import java.util.concurrent.CompletionStage;
+
+/**
+ * Return types for which a traced call completes after the method returns. Reactor types are detected by name so
+ * that reactor-core stays an optional dependency. Only methods declared to return exactly Mono or Flux are traced
+ * per subscription, as the deferred publisher replacing the result would not fit a subtype such as
+ * {@code ConnectableFlux}; calls returning subtypes are traced like synchronous calls.
+ */
+enum AsyncReturnType {
+    NONE,
+    COMPLETION_STAGE,
+    MONO,
+    FLUX;
+
+    private static final Class<?> MONO_CLASS = loadOptional("reactor.core.publisher.Mono");
+    private static final Class<?> FLUX_CLASS = loadOptional("reactor.core.publisher.Flux");
+
+    static AsyncReturnType of(final Class<?> returnType) {
+        if (CompletionStage.class.isAssignableFrom(returnType)) {
+            return COMPLETION_STAGE;
+        }
+        if (MONO_CLASS != null && MONO_CLASS == returnType) {
+            return MONO;
+        }
+        if (FLUX_CLASS != null && FLUX_CLASS == returnType) {
+            return FLUX;
+        }
+        return NONE;
+    }
+
+    boolean isAsync() {
+        return this != NONE;
+    }
+
+    /**
+     * @return True for publishers, which do nothing until subscribed and may be subscribed to more than once
+     */
+    boolean isReactive() {
+        return this == MONO || this == FLUX;
+    }
+
+    private static Class<?> loadOptional(final String className) {
+        try {
+            return Class.forName(className, false, AsyncReturnType.class.getClassLoader());
+        } catch (ClassNotFoundException | LinkageError e) {
+            return null;
+        }
+    }
+}
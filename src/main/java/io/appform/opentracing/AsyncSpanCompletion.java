@@ -0,0 +1,110 @@
+package io.appform.opentracing;
+
+import io.appform.opentracing.metrics.MethodMetrics;
+import io.opentracing.Span;
+
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.function.BiConsumer;
+import java.util.function.Supplier;
+
+/**
+ * Finishes the span, and records the metrics, of a call returning an asynchronous result once that result completes.
+ * Completion callbacks run on the thread completing the result; nothing blocks and no threads are added. A completion
+ * stage is completed once; a reactive publisher gets a completion, and span, per subscription. Span and metrics are
+ * both optional.
+ */
+final class AsyncSpanCompletion implements BiConsumer<Object, Throwable> {
+    private static final AtomicIntegerFieldUpdater<AsyncSpanCompletion> FINISHED
+            = AtomicIntegerFieldUpdater.newUpdater(AsyncSpanCompletion.class, "finished");
+
+    private final Span span;
+    private final MethodMetrics metrics;
+    private final long startNanos;
+    private volatile int finished;
+
+    private AsyncSpanCompletion(final Span span,
+                                final MethodMetrics metrics,
+                                final long startNanos) {
+        this.span = span;
+        this.metrics = metrics;
+        this.startNanos = startNanos;
+    }
+
+    /**
+     * Completes the call when a completion stage completes, other results complete it right away. Reactive
+     * publishers go through {@link #attachPerSubscription}.
+     *
+     * @return The result to hand back to the caller
+     */
+    static Object attach(final AsyncReturnType returnType,
+                         final Object result,
+                         final Span span,
+                         final MethodMetrics metrics,
+                         final long startNanos) {
+        final AsyncSpanCompletion completion = new AsyncSpanCompletion(span, metrics, startNanos);
+        if (returnType == AsyncReturnType.COMPLETION_STAGE) {
+            ((CompletionStage<?>) result).whenComplete(completion);
+        } else {
+            completion.onSuccess();
+        }
+        return result;
+    }
+
+    /**
+     * Publishers do nothing until subscribed, and may be subscribed to several times or never. Spans are therefore
+     * started by {@code spanStarter} when a subscription starts and finished when it terminates; a publisher that is
+     * never subscribed to leaves no span open, and each subscription is timed on its own.
+     *
+     * @return The decorated publisher to hand back to the caller
+     */
+    static Object attachPerSubscription(final AsyncReturnType returnType,
+                                        final Object publisher,
+                                        final Supplier<Span> spanStarter,
+                                        final MethodMetrics metrics) {
+        final Supplier<AsyncSpanCompletion> completions
+                = () -> new AsyncSpanCompletion(spanStarter.get(), metrics, System.nanoTime());
+        return returnType == AsyncReturnType.MONO
+                ? ReactorSupport.decorateMono(publisher, completions)
+                : ReactorSupport.decorateFlux(publisher, completions);
+    }
+
+    @Override
+    public void accept(Object result, Throwable error) {
+        if (error == null) {
+            onSuccess();
+        } else {
+            onError(error instanceof CompletionException && error.getCause() != null ? error.getCause() : error);
+        }
+    }
+
+    void onSuccess() {
+        if (FINISHED.compareAndSet(this, 0, 1)) {
+            if (metrics != null) {
+                metrics.recordSuccess(System.nanoTime() - startNanos);
+            }
+            TracingHandler.addSuccessTagToSpan(span);
+            TracingHandler.finishSpan(span);
+        }
+    }
+
+    void onError(final Throwable error) {
+        if (FINISHED.compareAndSet(this, 0, 1)) {
+            if (metrics != null) {
+                metrics.recordFailure(System.nanoTime() - startNanos);
+            }
+            TracingHandler.addErrorTagToSpan(span, error);
+            TracingHandler.finishSpan(span);
+        }
+    }
+
+    /**
+     * Cancelled before completing; the span is finished without a status and no latency is recorded
+     */
+    void onCancel() {
+        if (FINISHED.compareAndSet(this, 0, 1)) {
+            TracingHandler.finishSpan(span);
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package io.appform.opentracing;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.annotation.Pointcut;
+
+/**
+ * Traces method calls at the call site, for methods that cannot be woven themselves, e.g. of third party types or
+ * interface methods. Only the calling code is woven. Not active by default: extend it with the calls to trace, or
+ * declare it as a concrete aspect in {@code aop.xml}:
+ * <pre>
+ * &#64;Aspect
+ * public class PaymentClientTracing extends CallSiteTracingAspect {
+ *     &#64;Override
+ *     &#64;Pointcut("call(public * com.example.payments.PaymentClient.*(..))")
+ *     public void tracedCall() {
+ *     }
+ * }
+ * </pre>
+ * Calls are traced with the {@link TracingAnnotation} of the called method or its declared type if there is one,
+ * with the declared type and method name otherwise. Methods also woven by {@link TracingAspect} should not be
+ * selected, or each call produces two spans.
+ */
+@Aspect
+public abstract class CallSiteTracingAspect {
+
+    @Pointcut
+    public abstract void tracedCall();
+
+    @Around("tracedCall() && call(* *(..))")
+    public Object around(ProceedingJoinPoint joinPoint) throws Throwable {
+        return TracingAspect.trace(joinPoint);
+    }
+}
@@ -7,6 +7,8 @@ public interface Constants {
 
     public static final String TRACE_ID = "trace_id";
     public static final String SPAN_ID = "span_id";
+    /** Single MDC key holding {@code traceId-spanId}, written instead of the separate keys when enabled */
+    public static final String TRACE_CONTEXT = "trace_context";
     public static final String X_B3_TRACE_ID = "X-B3-TraceId";
     public static final String X_B3_SPAN_ID = "X-B3-SpanId";
     public static final String X_B3_PARENT_SPAN_ID = "X-B3-ParentSpanId";
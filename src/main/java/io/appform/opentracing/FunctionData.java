@@ -16,16 +16,23 @@
 
 package io.appform.opentracing;
 
+import java.util.Objects;
+
 /**
- *
+ * Identity of a traced method and the operation name of its spans. Names are interned so that tracers can compare
+ * them by reference.
  */
 public class FunctionData {
     private final String className;
     private final String methodName;
+    private final String operationName;
+    private final int hash;
 
     public FunctionData(String className, String methodName) {
-        this.className = className;
-        this.methodName = methodName;
+        this.className = className == null ? null : className.intern();
+        this.methodName = methodName == null ? null : methodName.intern();
+        this.operationName = (TracingConstants.OPERATION_NAME_PREFIX + methodName).intern();
+        this.hash = Objects.hash(className, methodName);
     }
 
     public String getClassName() {
@@ -35,5 +42,32 @@ public class FunctionData {
     public String getMethodName() {
         return methodName;
     }
-}
 
+    public String getOperationName() {
+        return operationName;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof FunctionData)) {
+            return false;
+        }
+        final FunctionData that = (FunctionData) o;
+        return hash == that.hash
+                && Objects.equals(className, that.className)
+                && Objects.equals(methodName, that.methodName);
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        return className + "." + methodName;
+    }
+}
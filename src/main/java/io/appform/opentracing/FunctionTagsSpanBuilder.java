@@ -0,0 +1,16 @@
+package io.appform.opentracing;
+
+import io.opentracing.Tracer;
+
+/**
+ * Implemented by span builders that can take the class and method name tags of a {@link FunctionData} in a single
+ * call, instead of one {@link Tracer.SpanBuilder#withTag(String, String)} call per tag. Builders of other tracers get
+ * the tags one by one.
+ */
+public interface FunctionTagsSpanBuilder extends Tracer.SpanBuilder {
+
+    /**
+     * Applies the {@link TracingConstants#CLASS_NAME_TAG} and {@link TracingConstants#METHOD_NAME_TAG} tags
+     */
+    Tracer.SpanBuilder withFunctionTags(FunctionData functionData);
+}
@@ -0,0 +1,17 @@
+package io.appform.opentracing;
+
+/**
+ * How trace ids of traced calls are made available in slf4j MDC
+ */
+public enum MDCMode {
+    /**
+     * Trace and span ids are written to MDC on entry of every traced call and restored on exit
+     */
+    EAGER,
+    /**
+     * Traced calls do not touch MDC. Ids are written only while a log line is emitted through a logger obtained
+     * from {@link io.appform.opentracing.logging.TracingLoggerFactory}. Keeps per thread state to the tracer's scope,
+     * which matters when running millions of virtual threads.
+     */
+    LAZY
+}
@@ -0,0 +1,241 @@
+package io.appform.opentracing;
+
+import com.google.common.base.Strings;
+import io.appform.opentracing.control.MethodTracingControl;
+import io.appform.opentracing.control.TracingControls;
+import io.appform.opentracing.metrics.MethodMetrics;
+import io.appform.opentracing.metrics.MethodMetricsRegistry;
+import io.appform.opentracing.sampling.SamplingCounters;
+import io.appform.opentracing.sampling.SamplingStatistics;
+import org.aspectj.lang.JoinPoint;
+import org.aspectj.lang.Signature;
+import org.aspectj.lang.reflect.MethodSignature;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.Arrays;
+
+/**
+ * Immutable tracing metadata of an advised method. Resolved once per join point so that the advice does not need
+ * any reflection or string building on subsequent calls. Methods found in the build time generated
+ * {@link TracingMetadataRegistry} are resolved without reflection. Join points the pointcut matches but which are
+ * not traced, e.g. {@code toString} of an annotated type, resolve to {@link #EXCLUDED}.
+ */
+final class MethodMetadata {
+    private static final int[] NO_INDEXES = new int[0];
+
+    static final MethodMetadata EXCLUDED = new MethodMetadata();
+
+    /**
+     * Whether a type declares methods with {@link TracingAnnotation#aggregate()}. Resolving any traced method of such a
+     * type activates the {@link SpanAggregator}, so that the first call of a method calling an aggregated method of
+     * its own type already pushes a frame for it.
+     */
+    private static final ClassValue<Boolean> DECLARES_AGGREGATED_METHODS = new ClassValue<Boolean>() {
+        @Override
+        protected Boolean computeValue(final Class<?> type) {
+            final TracingAnnotation typeAnnotation = type.getAnnotation(TracingAnnotation.class);
+            if (typeAnnotation != null && typeAnnotation.aggregate()) {
+                return true;
+            }
+            for (Method method : type.getDeclaredMethods()) {
+                final TracingAnnotation annotation = method.getAnnotation(TracingAnnotation.class);
+                if (annotation != null && annotation.aggregate()) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    };
+
+    private final FunctionData functionData;
+    private final int parameterCount;
+    private final int[] tracedParameterIndexes;
+    private final AsyncReturnType asyncReturnType;
+    private final SamplingCounters samplingCounters;
+    private final MethodMetrics methodMetrics;
+    private final MethodTracingControl tracingControl;
+    private final boolean aggregated;
+
+    private MethodMetadata(final FunctionData functionData,
+                           final int parameterCount,
+                           final int[] tracedParameterIndexes,
+                           final AsyncReturnType asyncReturnType,
+                           final boolean aggregated) {
+        this.functionData = functionData;
+        this.parameterCount = parameterCount;
+        this.tracedParameterIndexes = tracedParameterIndexes;
+        this.asyncReturnType = asyncReturnType;
+        this.samplingCounters = SamplingStatistics.countersFor(functionData);
+        this.methodMetrics = MethodMetricsRegistry.metricsFor(functionData);
+        this.tracingControl = TracingControls.controlFor(functionData);
+        this.aggregated = aggregated;
+        if (aggregated) {
+            SpanAggregator.activate();
+        }
+    }
+
+    private MethodMetadata() {
+        this.functionData = null;
+        this.parameterCount = 0;
+        this.tracedParameterIndexes = NO_INDEXES;
+        this.asyncReturnType = null;
+        this.samplingCounters = null;
+        this.methodMetrics = null;
+        this.tracingControl = null;
+        this.aggregated = false;
+    }
+
+    static MethodMetadata resolve(final JoinPoint.StaticPart staticPart,
+                                  final TracingMetadataRegistry registry) {
+        final MethodSignature signature = (MethodSignature) staticPart.getSignature();
+        final TracingMetadataRegistry.Entry entry = registry.find(signature);
+        if (entry == null) {
+            return resolve(staticPart);
+        }
+        return new MethodMetadata(entry.getFunctionData(), signature.getParameterTypes().length,
+                entry.getTracedParameterIndexes(), AsyncReturnType.of(signature.getReturnType()),
+                entry.isAggregated());
+    }
+
+    static MethodMetadata resolve(final JoinPoint.StaticPart staticPart) {
+        final MethodSignature callSignature = (MethodSignature) staticPart.getSignature();
+        final Method method = callSignature.getMethod();
+        final TracingAnnotation methodAnnotation = method == null
+                ? null
+                : method.getAnnotation(TracingAnnotation.class);
+        final Class<?> declaringType = callSignature.getDeclaringType();
+        final TracingAnnotation typeAnnotation = declaringType.getAnnotation(TracingAnnotation.class);
+        if (methodAnnotation == null && !isTracedWithoutAnnotation(staticPart, typeAnnotation, method)) {
+            return EXCLUDED;
+        }
+        final FunctionData functionData = new FunctionData(
+                getClassName(methodAnnotation, typeAnnotation, callSignature),
+                getMethodName(methodAnnotation, callSignature));
+        final boolean aggregated = (methodAnnotation != null && methodAnnotation.aggregate())
+                || (typeAnnotation != null && typeAnnotation.aggregate());
+        if (!aggregated && DECLARES_AGGREGATED_METHODS.get(declaringType)) {
+            SpanAggregator.activate();
+        }
+        if (method == null) {
+            return new MethodMetadata(functionData, callSignature.getParameterTypes().length, NO_INDEXES,
+                    AsyncReturnType.of(callSignature.getReturnType()), aggregated);
+        }
+        return new MethodMetadata(functionData, method.getParameterCount(), getTracedParameterIndexes(method),
+                AsyncReturnType.of(method.getReturnType()), aggregated);
+    }
+
+    /**
+     * Public methods declared by a {@link TracingAnnotation} type are traced, except the {@link Object} methods it
+     * overrides
+     */
+    static boolean isTracedByType(final Method method) {
+        return Modifier.isPublic(method.getModifiers())
+                && !method.isSynthetic()
+                && !method.isBridge()
+                && !isObjectMethod(method);
+    }
+
+    boolean isTraced() {
+        return this != EXCLUDED;
+    }
+
+    /**
+     * @return True if calls are merged into summary spans, by annotation or options. Calls returning asynchronous
+     * results are never aggregated, as they may complete after their parent.
+     */
+    boolean isAggregated(final TracingOptions options) {
+        return !asyncReturnType.isAsync() && (aggregated || options.isAggregated(functionData));
+    }
+
+    FunctionData getFunctionData() {
+        return functionData;
+    }
+
+    int getParameterCount() {
+        return parameterCount;
+    }
+
+    /**
+     * @return Indexes of parameters annotated with {@link TracingParameter}, in declaration order. Must not be modified.
+     */
+    int[] getTracedParameterIndexes() {
+        return tracedParameterIndexes;
+    }
+
+    AsyncReturnType getAsyncReturnType() {
+        return asyncReturnType;
+    }
+
+    SamplingCounters getSamplingCounters() {
+        return samplingCounters;
+    }
+
+    MethodMetrics getMethodMetrics() {
+        return methodMetrics;
+    }
+
+    MethodTracingControl getTracingControl() {
+        return tracingControl;
+    }
+
+    /**
+     * Without an annotation of its own, a method is traced if its type is annotated, or if it was selected by a call
+     * site pointcut, e.g. of a {@link CallSiteTracingAspect} for methods of third party types
+     */
+    private static boolean isTracedWithoutAnnotation(final JoinPoint.StaticPart staticPart,
+                                                     final TracingAnnotation typeAnnotation,
+                                                     final Method method) {
+        if (typeAnnotation != null) {
+            return method != null && isTracedByType(method);
+        }
+        return JoinPoint.METHOD_CALL.equals(staticPart.getKind());
+    }
+
+    private static boolean isObjectMethod(final Method method) {
+        switch (method.getName()) {
+            case "equals":
+                return method.getParameterCount() == 1 && method.getParameterTypes()[0] == Object.class;
+            case "hashCode":
+            case "toString":
+                return method.getParameterCount() == 0;
+            default:
+                return false;
+        }
+    }
+
+    private static String getClassName(final TracingAnnotation methodAnnotation,
+                                       final TracingAnnotation typeAnnotation,
+                                       final Signature callSignature) {
+        if (methodAnnotation != null && !Strings.isNullOrEmpty(methodAnnotation.className())) {
+            return methodAnnotation.className();
+        }
+        if (typeAnnotation != null && !Strings.isNullOrEmpty(typeAnnotation.className())) {
+            return typeAnnotation.className();
+        }
+        return callSignature.getDeclaringType().getSimpleName();
+    }
+
+    private static String getMethodName(final TracingAnnotation methodAnnotation,
+                                        final Signature callSignature) {
+        return methodAnnotation == null || Strings.isNullOrEmpty(methodAnnotation.method())
+                ? callSignature.getName()
+                : methodAnnotation.method();
+    }
+
+    private static int[] getTracedParameterIndexes(final Method method) {
+        final Annotation[][] parameterAnnotations = method.getParameterAnnotations();
+        final int[] indexes = new int[parameterAnnotations.length];
+        int count = 0;
+        for (int i = 0; i < parameterAnnotations.length; i++) {
+            for (Annotation annotation : parameterAnnotations[i]) {
+                if (annotation instanceof TracingParameter) {
+                    indexes[count++] = i;
+                    break;
+                }
+            }
+        }
+        return count == 0 ? NO_INDEXES : Arrays.copyOf(indexes, count);
+    }
+}
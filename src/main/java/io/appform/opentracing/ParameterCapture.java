@@ -0,0 +1,114 @@
+package io.appform.opentracing;
+
+import io.appform.opentracing.util.VirtualThreads;
+
+/**
+ * Builds the parameter string of a traced call from the values of {@link TracingParameter} annotated arguments.
+ * Values are appended to a reused per-thread buffer so that the only allocation per call is the resulting string.
+ * Virtual threads get a short lived buffer instead, so that they do not each retain one, and so does a capture
+ * nested in another on the same thread, e.g. by a converter calling a traced method.
+ */
+final class ParameterCapture {
+    private static final int MAX_RETAINED_BUFFER_CAPACITY = 1024;
+
+    private static final ThreadLocal<CaptureBuffer> BUFFER = ThreadLocal.withInitial(CaptureBuffer::new);
+
+    private ParameterCapture() {
+    }
+
+    /**
+     * @return Converted parameter values joined with {@link TracingConstants#PARAMETER_DELIMITER}, or null if there
+     * are none
+     */
+    static String capture(final MethodMetadata metadata,
+                          final Object[] args,
+                          final TracingOptions options) {
+        final CaptureBuffer retained = VirtualThreads.isCurrentThreadVirtual() ? null : BUFFER.get();
+        if (retained == null || retained.inUse) {
+            return capture(metadata, args, options, new StringBuilder(64));
+        }
+        retained.inUse = true;
+        try {
+            return capture(metadata, args, options, retained.reset());
+        } finally {
+            retained.inUse = false;
+        }
+    }
+
+    private static String capture(final MethodMetadata metadata,
+                                  final Object[] args,
+                                  final TracingOptions options,
+                                  final StringBuilder buffer) {
+        final ParameterConverterRegistry converters = options.getParameterConverters();
+        for (int index : metadata.getTracedParameterIndexes()) {
+            final Object value = args[index];
+            if (value == null) {
+                continue;
+            }
+            final TracingParameterConverter<Object> converter = converterFor(converters, value);
+            if (converter == null) {
+                continue;
+            }
+            final int mark = buffer.length();
+            if (mark > 0) {
+                buffer.append(TracingConstants.PARAMETER_DELIMITER);
+            }
+            final int valueStart = buffer.length();
+            if (!converter.write(value, buffer) || buffer.length() == valueStart) {
+                buffer.setLength(mark);
+                continue;
+            }
+            final int maxLength = converter.maxLength() == TracingParameterConverter.DEFAULT_MAX_LENGTH
+                    ? options.getMaxParameterLength()
+                    : converter.maxLength();
+            if (maxLength >= 0 && buffer.length() - valueStart > maxLength) {
+                buffer.setLength(maxLength == 0 ? mark : valueStart + maxLength);
+            }
+        }
+        return buffer.length() == 0 ? null : buffer.toString();
+    }
+
+    /**
+     * Equivalent of matching {@code ^[a-zA-Z_][a-zA-Z_0-9]*$} against the given region
+     */
+    static boolean isValidIdentifier(final CharSequence value,
+                                     final int start,
+                                     final int end) {
+        if (start >= end || !isIdentifierStart(value.charAt(start))) {
+            return false;
+        }
+        for (int i = start + 1; i < end; i++) {
+            final char c = value.charAt(i);
+            if (!isIdentifierStart(c) && (c < '0' || c > '9')) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isIdentifierStart(final char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || c == '_';
+    }
+
+    @SuppressWarnings("unchecked")
+    private static TracingParameterConverter<Object> converterFor(final ParameterConverterRegistry converters,
+                                                                  final Object value) {
+        return (TracingParameterConverter<Object>) converters.converterFor(value.getClass());
+    }
+
+    /**
+     * Buffer retained per platform thread, taken by one capture at a time
+     */
+    private static final class CaptureBuffer {
+        private StringBuilder builder = new StringBuilder(128);
+        private boolean inUse;
+
+        private StringBuilder reset() {
+            if (builder.capacity() > MAX_RETAINED_BUFFER_CAPACITY) {
+                builder = new StringBuilder(128);
+            }
+            builder.setLength(0);
+            return builder;
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package io.appform.opentracing;
+
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Immutable set of {@link TracingParameterConverter}s keyed by type. The converter for a runtime type is looked up
+ * through its class hierarchy once and cached.
+ */
+public final class ParameterConverterRegistry {
+
+    public static final ParameterConverterRegistry DEFAULT = new ParameterConverterRegistry(Collections.emptyMap());
+
+    private final Map<Class<?>, TracingParameterConverter<?>> customConverters;
+    private final Map<Class<?>, TracingParameterConverter<?>> converters;
+    private final ClassValue<TracingParameterConverter<?>> resolved = new ClassValue<TracingParameterConverter<?>>() {
+        @Override
+        protected TracingParameterConverter<?> computeValue(Class<?> type) {
+            return lookup(type);
+        }
+    };
+
+    ParameterConverterRegistry(final Map<Class<?>, TracingParameterConverter<?>> customConverters) {
+        this.customConverters = Collections.unmodifiableMap(new LinkedHashMap<>(customConverters));
+        final Map<Class<?>, TracingParameterConverter<?>> all = new LinkedHashMap<>();
+        all.put(String.class, TracingParameterConverters.IDENTIFIER);
+        all.put(Enum.class, TracingParameterConverters.ENUM_NAME);
+        all.put(Integer.class, TracingParameterConverters.INT);
+        all.put(Long.class, TracingParameterConverters.LONG);
+        all.put(Boolean.class, TracingParameterConverters.BOOLEAN);
+        all.put(UUID.class, TracingParameterConverters.UUID_STRING);
+        all.putAll(customConverters);
+        this.converters = Collections.unmodifiableMap(all);
+    }
+
+    /**
+     * @return Converter registered for the type or its closest super type, null if values of the type are not captured
+     */
+    @SuppressWarnings("unchecked")
+    public <T> TracingParameterConverter<? super T> converterFor(final Class<T> type) {
+        return (TracingParameterConverter<? super T>) resolved.get(type);
+    }
+
+    /**
+     * @return Converters registered on top of the built-in ones, in registration order
+     */
+    Map<Class<?>, TracingParameterConverter<?>> getCustomConverters() {
+        return customConverters;
+    }
+
+    private TracingParameterConverter<?> lookup(final Class<?> type) {
+        for (Class<?> current = type; current != null; current = current.getSuperclass()) {
+            final TracingParameterConverter<?> converter = converters.get(current);
+            if (converter != null) {
+                return converter;
+            }
+        }
+        final Deque<Class<?>> pending = new ArrayDeque<>();
+        final Set<Class<?>> visited = new HashSet<>();
+        for (Class<?> current = type; current != null; current = current.getSuperclass()) {
+            Collections.addAll(pending, current.getInterfaces());
+        }
+        while (!pending.isEmpty()) {
+            final Class<?> candidate = pending.poll();
+            if (!visited.add(candidate)) {
+                continue;
+            }
+            final TracingParameterConverter<?> converter = converters.get(candidate);
+            if (converter != null) {
+                return converter;
+            }
+            Collections.addAll(pending, candidate.getInterfaces());
+        }
+        return null;
+    }
+}
@@ -0,0 +1,58 @@
+package io.appform.opentracing;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+import java.util.function.Supplier;
+
+/**
+ * Reactor integration. Only loaded when an advised method returns a Mono or Flux, so reactor-core is optional.
+ */
+final class ReactorSupport {
+
+    private ReactorSupport() {
+    }
+
+    static Object decorateMono(final Object result,
+                               final Supplier<AsyncSpanCompletion> completions) {
+        return deferMono((Mono<?>) result, completions);
+    }
+
+    static Object decorateFlux(final Object result,
+                               final Supplier<AsyncSpanCompletion> completions) {
+        return deferFlux((Flux<?>) result, completions);
+    }
+
+    /**
+     * Defers to subscription time, so that every subscription is completed on its own
+     */
+    private static <T> Mono<T> deferMono(final Mono<T> mono,
+                                         final Supplier<AsyncSpanCompletion> completions) {
+        return Mono.defer(() -> {
+            final AsyncSpanCompletion completion = completions.get();
+            return mono
+                    .doOnSuccess(value -> completion.onSuccess())
+                    .doOnError(error -> completion.onError(error))
+                    .doFinally(signal -> onFinally(signal, completion));
+        });
+    }
+
+    private static <T> Flux<T> deferFlux(final Flux<T> flux,
+                                         final Supplier<AsyncSpanCompletion> completions) {
+        return Flux.defer(() -> {
+            final AsyncSpanCompletion completion = completions.get();
+            return flux
+                    .doOnComplete(completion::onSuccess)
+                    .doOnError(error -> completion.onError(error))
+                    .doFinally(signal -> onFinally(signal, completion));
+        });
+    }
+
+    private static void onFinally(final SignalType signal,
+                                  final AsyncSpanCompletion completion) {
+        if (signal == SignalType.CANCEL) {
+            completion.onCancel();
+        }
+    }
+}
@@ -0,0 +1,170 @@
+package io.appform.opentracing;
+
+import io.opentracing.Span;
+import io.opentracing.Tracer;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Merges repeated calls of aggregated methods into one summary span per method and parent span. Traced calls push a
+ * frame for their span on a per thread stack; aggregated calls are folded into the innermost frame, and the frame's
+ * summaries are emitted as children of its span when the traced call returns. Traced calls that get no span, e.g.
+ * because they were sampled out, push a frame without span, so that aggregated calls within them are dropped with
+ * them instead of being folded into an enclosing span. Until aggregation is configured for some method, traced calls
+ * do not touch the stack.
+ */
+final class SpanAggregator {
+    private static final ThreadLocal<SpanAggregator> AGGREGATORS = ThreadLocal.withInitial(SpanAggregator::new);
+
+    private static volatile boolean active;
+
+    private Frame[] frames = new Frame[8];
+    private int depth;
+
+    private SpanAggregator() {
+    }
+
+    static void activate() {
+        active = true;
+    }
+
+    static boolean isActive() {
+        return active;
+    }
+
+    static SpanAggregator current() {
+        return AGGREGATORS.get();
+    }
+
+    /**
+     * @param span Span of the traced call, null if the call has none
+     */
+    void push(final Span span) {
+        if (depth == frames.length) {
+            frames = Arrays.copyOf(frames, depth * 2);
+        }
+        Frame frame = frames[depth];
+        if (frame == null) {
+            frame = new Frame();
+            frames[depth] = frame;
+        }
+        frame.span = span;
+        depth++;
+    }
+
+    /**
+     * @return Frame of the innermost traced call on this thread, null if there is none
+     */
+    Frame peek() {
+        return depth == 0 ? null : frames[depth - 1];
+    }
+
+    /**
+     * Removes the innermost frame and emits its summaries as children of its span. Frames without span have none.
+     */
+    void pop(final Tracer tracer) {
+        final Frame frame = frames[--depth];
+        try {
+            frame.emit(tracer);
+        } finally {
+            frame.clear();
+        }
+    }
+
+    static final class Frame {
+        private final Map<FunctionData, Summary> summaries = new HashMap<>();
+        private Span span;
+
+        /**
+         * @return False if the traced call of the frame has no span, and calls within it are not recorded
+         */
+        boolean hasSpan() {
+            return span != null;
+        }
+
+        void record(final FunctionData functionData,
+                    final long startNanos,
+                    final long durationNanos,
+                    final boolean failed) {
+            Summary summary = summaries.get(functionData);
+            if (summary == null) {
+                summary = new Summary(startNanos);
+                summaries.put(functionData, summary);
+            }
+            summary.record(startNanos + durationNanos, durationNanos, failed);
+        }
+
+        private void emit(final Tracer tracer) {
+            if (summaries.isEmpty()) {
+                return;
+            }
+            summaries.forEach((functionData, summary) -> emit(tracer, functionData, summary));
+        }
+
+        private void emit(final Tracer tracer,
+                          final FunctionData functionData,
+                          final Summary summary) {
+            try {
+                final Tracer.SpanBuilder spanBuilder = tracer.buildSpan(functionData.getOperationName())
+                        .asChildOf(span)
+                        .withStartTimestamp(summary.startMicros);
+                final Span summarySpan = TracingHandler.withFunctionTags(spanBuilder, functionData)
+                        .withTag(TracingConstants.AGGREGATE_COUNT_TAG, summary.count)
+                        .withTag(TracingConstants.AGGREGATE_FAILURES_TAG, summary.failures)
+                        .withTag(TracingConstants.AGGREGATE_MIN_TAG, TimeUnit.NANOSECONDS.toMicros(summary.minNanos))
+                        .withTag(TracingConstants.AGGREGATE_MAX_TAG, TimeUnit.NANOSECONDS.toMicros(summary.maxNanos))
+                        .withTag(TracingConstants.AGGREGATE_TOTAL_TAG,
+                                TimeUnit.NANOSECONDS.toMicros(summary.totalNanos))
+                        .withTag(TracingConstants.METHOD_STATUS_TAG, summary.failures == 0
+                                ? TracingConstants.STATUS_SUCCESS
+                                : TracingConstants.STATUS_FAILURE)
+                        .start();
+                summarySpan.finish(summary.startMicros
+                        + TimeUnit.NANOSECONDS.toMicros(summary.lastEndNanos - summary.firstStartNanos));
+            } catch (Exception e) {
+                TracingErrors.report(TracingErrors.Operation.EMIT_SUMMARY_SPAN, e);
+            }
+        }
+
+        private void clear() {
+            summaries.clear();
+            span = null;
+        }
+    }
+
+    /**
+     * Calls of one method within one parent span; the summary span covers the first call's start to the last call's end
+     */
+    private static final class Summary {
+        private final long startMicros;
+        private final long firstStartNanos;
+        private long lastEndNanos;
+        private long count;
+        private long failures;
+        private long minNanos = Long.MAX_VALUE;
+        private long maxNanos;
+        private long totalNanos;
+
+        private Summary(final long firstStartNanos) {
+            this.startMicros = TimeUnit.MILLISECONDS.toMicros(System.currentTimeMillis())
+                    - TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - firstStartNanos);
+            this.firstStartNanos = firstStartNanos;
+        }
+
+        private void record(final long endNanos,
+                            final long durationNanos,
+                            final boolean failed) {
+            lastEndNanos = endNanos;
+            count++;
+            if (failed) {
+                failures++;
+            }
+            minNanos = Math.min(minNanos, durationNanos);
+            maxNanos = Math.max(maxNanos, durationNanos);
+            totalNanos += durationNanos;
+        }
+    }
+}
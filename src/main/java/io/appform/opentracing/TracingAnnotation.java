@@ -6,22 +6,33 @@ import java.lang.annotation.RetentionPolicy;
 import java.lang.annotation.Target;
 
 /**
- * Annotation to be added on methods to trace method calls
+ * Annotation to be added on methods to trace method calls. On a type, all public methods declared by the type are
+ * traced, except {@code equals}, {@code hashCode} and {@code toString}; annotations on methods take precedence.
  */
 @Retention(RetentionPolicy.RUNTIME)
-@Target(ElementType.METHOD)
+@Target({ElementType.METHOD, ElementType.TYPE})
 public @interface TracingAnnotation {
 
     /**
-     * Override the classname being pushed into spans.
+     * Override the classname being pushed into spans. On a method, defaults to the class name set on its type.
      * @return Class name if provided otherwise the actual class name is used.
      */
     String className() default "";
 
     /**
-     * Override the method name being pushed into spans.
+     * Override the method name being pushed into spans. Ignored on types.
      * @return Method name if provided, otherwise actual method name is used.
      */
     String method() default "";
 
+    /**
+     * Merge repeated calls within the same parent span into one summary span per parent, see
+     * {@link TracingOptions.TracingOptionsBuilder#aggregatedMethods(String...)}. Aggregation starts once a method of
+     * the declaring type is resolved; warm up with {@link TracingManager#warmUp} or generate the metadata with the
+     * {@link io.appform.opentracing.processor.TracingMetadataProcessor} so that parents in other types aggregate from
+     * their first call.
+     * @return True to aggregate calls instead of creating a span per call.
+     */
+    boolean aggregate() default false;
+
 }
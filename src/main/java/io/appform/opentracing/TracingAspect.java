@@ -1,37 +1,38 @@
 package io.appform.opentracing;
 
-import com.google.common.base.Joiner;
-import com.google.common.base.Strings;
+import io.appform.opentracing.control.MethodTracingState;
+import io.appform.opentracing.metrics.MethodMetrics;
+import io.appform.opentracing.sampling.TracingSampler;
+import io.appform.opentracing.sampling.UnsampledTrace;
 import io.appform.opentracing.util.TracerUtil;
 import io.opentracing.Scope;
 import io.opentracing.Span;
+import io.opentracing.SpanContext;
 import io.opentracing.Tracer;
 import org.aspectj.lang.JoinPoint;
-import org.aspectj.lang.Signature;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
 import org.aspectj.lang.annotation.Aspect;
-import org.aspectj.lang.annotation.Before;
 import org.aspectj.lang.annotation.Pointcut;
-import org.aspectj.lang.reflect.MethodSignature;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.List;
 import java.util.Map;
-import java.util.Objects;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.stream.Collectors;
-import java.util.stream.IntStream;
-
-import static io.appform.opentracing.TracingConstants.VALID_PARAM_VALUE_PATTERN;
 
 /**
- * Only methods annotated with {@link TracingAnnotation} are traced
+ * Only methods annotated with {@link TracingAnnotation}, and public methods of annotated types, are traced. Spans of
+ * methods returning a {@link java.util.concurrent.CompletionStage} are finished when the result completes; methods
+ * returning a Reactor Mono/Flux get a span per subscription, from subscribe to termination. Depending on
+ * {@link TracingMode}, calls produce spans, per method metrics, or both. Tracing of individual methods can be
+ * switched at runtime through {@link io.appform.opentracing.control.TracingControls}.
+ * Calls of aggregated methods are merged into one summary span per enclosing traced call, see {@link SpanAggregator}.
  */
 @Aspect
 public class TracingAspect {
     private static final Logger log = LoggerFactory.getLogger(TracingAspect.class.getSimpleName());
-
-    private final Map<String, FunctionData> paramCache = new ConcurrentHashMap<>();
+    private static final TracingMetadataRegistry METADATA_REGISTRY = TracingMetadataRegistry.load();
+    private static final Map<JoinPoint.StaticPart, MethodMetadata> METADATA_CACHE = new ConcurrentHashMap<>();
 
 
     @Pointcut("@annotation(io.appform.opentracing.TracingAnnotation)")
@@ -44,107 +45,327 @@ public class TracingAspect {
         //Empty as required
     }
 
-    @Before("tracingAnnotationCalled() && anyFunctionCalled()")
-    public void before(JoinPoint joinPoint) throws Throwable {
-        final Signature callSignature = joinPoint.getSignature();
-        final TracingOptions options = TracingManager.getTracingOptions();
-        final MethodSignature methodSignature = (MethodSignature) callSignature;
+    @Pointcut("@within(io.appform.opentracing.TracingAnnotation) && execution(public * *(..))")
+    public void annotatedTypeFunctionCalled() {
+        //Empty as required
+    }
+
+    @Around("(tracingAnnotationCalled() && anyFunctionCalled()) || annotatedTypeFunctionCalled()")
+    public Object around(ProceedingJoinPoint joinPoint) throws Throwable {
+        return trace(joinPoint);
+    }
+
+    /**
+     * Advice shared with {@link CallSiteTracingAspect}. Join points are classified once, so matched but excluded
+     * methods cost a cache lookup per call.
+     */
+    static Object trace(final ProceedingJoinPoint joinPoint) throws Throwable {
+        final TracingOptions options = TracingManager.getActiveOptions();
+        final MethodMetadata metadata = getMethodMetadata(options, joinPoint.getStaticPart());
+        if (!metadata.isTraced()) {
+            return joinPoint.proceed();
+        }
+        final MethodTracingState state = metadata.getTracingControl().getState();
+        if (!state.isEnabled()) {
+            return proceedWithoutSpan(joinPoint, metadata, null);
+        }
+        final MethodMetrics metrics = options.recordsMetrics() ? metadata.getMethodMetrics() : null;
+        if (options.recordsSpans() && SpanAggregator.isActive() && metadata.isAggregated(options)) {
+            final SpanAggregator.Frame frame = SpanAggregator.current().peek();
+            if (frame != null) {
+                return frame.hasSpan()
+                        ? proceedAggregated(joinPoint, metadata, metrics, frame)
+                        : proceedWithoutSpan(joinPoint, metadata, metrics);
+            }
+        }
+        if (!options.recordsSpans() || TracingErrors.isTracingSuspended() || UnsampledTrace.isActive()) {
+            return proceedWithoutSpan(joinPoint, metadata, metrics);
+        }
+        if (!isSampled(options, state, metadata)) {
+            return proceedUnsampled(joinPoint, metadata, metrics);
+        }
+        if (metadata.getAsyncReturnType().isReactive()) {
+            return proceedReactive(joinPoint, options, state, metadata, metrics);
+        }
+        return proceedWithSpan(joinPoint, options, state, metadata, metrics);
+    }
+
+    /**
+     * Runs a call dropped by the sampler. The decision holds for the traced calls nested in it, so that a dropped
+     * trace does not surface as fragments sampled on their own.
+     */
+    private static Object proceedUnsampled(final ProceedingJoinPoint joinPoint,
+                                           final MethodMetadata metadata,
+                                           final MethodMetrics metrics) throws Throwable {
+        final boolean previous = UnsampledTrace.enter();
+        try {
+            return proceedWithoutSpan(joinPoint, metadata, metrics);
+        } finally {
+            UnsampledTrace.exit(previous);
+        }
+    }
 
-        final FunctionData functionData = cacheDisabled(options)
-                ? getFunctionData(callSignature, methodSignature)
-                : paramCache.computeIfAbsent(callSignature.toLongString(), key -> getFunctionData(callSignature, methodSignature));
+    /**
+     * Runs a traced call that gets no span. While aggregation is active, the call pushes a frame without span, so that
+     * aggregated calls within it are not folded into the summaries of an enclosing span.
+     */
+    private static Object proceedWithoutSpan(final ProceedingJoinPoint joinPoint,
+                                             final MethodMetadata metadata,
+                                             final MethodMetrics metrics) throws Throwable {
+        final SpanAggregator aggregator = SpanAggregator.isActive() ? SpanAggregator.current() : null;
+        if (aggregator == null) {
+            return metrics == null ? joinPoint.proceed() : proceedWithMetrics(joinPoint, metadata, metrics);
+        }
+        aggregator.push(null);
+        try {
+            return metrics == null ? joinPoint.proceed() : proceedWithMetrics(joinPoint, metadata, metrics);
+        } finally {
+            aggregator.pop(null);
+        }
+    }
 
-        final String parameterString = getParameterString(options, methodSignature, joinPoint,
-                functionData.getClassName(), functionData.getMethodName());
+    private static Object proceedWithSpan(final ProceedingJoinPoint joinPoint,
+                                          final TracingOptions options,
+                                          final MethodTracingState state,
+                                          final MethodMetadata metadata,
+                                          final MethodMetrics metrics) throws Throwable {
+        final FunctionData functionData = metadata.getFunctionData();
+        final String parameterString = getParameterString(options, state, metadata, joinPoint);
 
-        Span span = null;
-        Scope scope = null;
+        final boolean eagerMDC = options.isEagerMDC();
+        final boolean combinedMDCKey = options.isCombinedMDCKey();
+        final String previousTraceId = eagerMDC ? getMDCTraceId(combinedMDCKey) : null;
+        final String previousSpanId = eagerMDC && !combinedMDCKey ? TracerUtil.getMDCSpanId() : null;
+        final Tracer tracer = TracingHandler.getTracer();
+        final Span span = TracingHandler.startSpan(tracer, functionData, parameterString);
+        final Scope scope = TracingHandler.startScope(tracer, span);
+        if (eagerMDC) {
+            TracerUtil.populateMDCTracing(span, combinedMDCKey);
+        }
+        final long startNanos = metrics == null ? 0 : System.nanoTime();
+        final SpanAggregator aggregator = SpanAggregator.isActive() ? SpanAggregator.current() : null;
+        if (aggregator != null) {
+            aggregator.push(span);
+        }
+        boolean completesAsync = false;
         try {
-            final Tracer tracer = TracingHandler.getTracer();
-            span = TracingHandler.startSpan(tracer, functionData, parameterString);
-            scope = TracingHandler.startScope(tracer, span);
+            final Object response = joinPoint.proceed();
+            if (response != null && (span != null || metrics != null) && metadata.getAsyncReturnType().isAsync()) {
+                final Object tracedResponse = AsyncSpanCompletion.attach(metadata.getAsyncReturnType(), response, span,
+                        metrics, startNanos);
+                completesAsync = true;
+                return tracedResponse;
+            }
+            if (metrics != null) {
+                metrics.recordSuccess(System.nanoTime() - startNanos);
+            }
             TracingHandler.addSuccessTagToSpan(span);
+            return response;
         } catch (Throwable t) {
-            TracingHandler.addErrorTagToSpan(span);
+            if (metrics != null) {
+                metrics.recordFailure(System.nanoTime() - startNanos);
+            }
+            TracingHandler.addErrorTagToSpan(span, t);
             throw t;
         } finally {
-            TracingHandler.closeSpanAndScope(span, scope);
-            TracerUtil.populateMDCTracing(span);
+            TracingHandler.closeScope(scope);
+            if (aggregator != null) {
+                aggregator.pop(tracer);
+            }
+            if (!completesAsync) {
+                TracingHandler.finishSpan(span);
+            }
+            if (eagerMDC) {
+                restoreMDCTracing(combinedMDCKey, previousTraceId, previousSpanId);
+            }
         }
     }
 
-    private FunctionData getFunctionData(final Signature callSignature,
-                                         final MethodSignature methodSignature) {
-        final TracingAnnotation tracingAnnotation = methodSignature.getMethod().getAnnotation(TracingAnnotation.class);
-        final String className = getClassName(tracingAnnotation, callSignature);
-        final String methodName = getMethodName(tracingAnnotation, callSignature);
-        return new FunctionData(className, methodName);
+    /**
+     * Calls returning a Mono or Flux only assemble the publisher, the work runs when it is subscribed to. The parent
+     * is resolved on the calling thread, the span is started when a subscription starts and finished when it
+     * terminates. A call failing before it returns a publisher gets a failed span right away. Aggregated calls made
+     * while the publisher is assembled have no span to be folded into and are dropped.
+     */
+    private static Object proceedReactive(final ProceedingJoinPoint joinPoint,
+                                          final TracingOptions options,
+                                          final MethodTracingState state,
+                                          final MethodMetadata metadata,
+                                          final MethodMetrics metrics) throws Throwable {
+        final FunctionData functionData = metadata.getFunctionData();
+        final String parameterString = getParameterString(options, state, metadata, joinPoint);
+        final Tracer tracer = TracingHandler.getTracer();
+        final SpanContext parentSpanContext = TracingHandler.getParentContext(tracer);
+        final SpanAggregator aggregator = SpanAggregator.isActive() ? SpanAggregator.current() : null;
+        if (aggregator != null) {
+            aggregator.push(null);
+        }
+        final long startNanos = System.nanoTime();
+        final Object response;
+        try {
+            response = joinPoint.proceed();
+        } catch (Throwable t) {
+            if (metrics != null) {
+                metrics.recordFailure(System.nanoTime() - startNanos);
+            }
+            final Span span = TracingHandler.startSpan(tracer, functionData, parameterString, parentSpanContext);
+            TracingHandler.addErrorTagToSpan(span, t);
+            TracingHandler.finishSpan(span);
+            throw t;
+        } finally {
+            if (aggregator != null) {
+                aggregator.pop(tracer);
+            }
+        }
+        if (response == null) {
+            if (metrics != null) {
+                metrics.recordSuccess(System.nanoTime() - startNanos);
+            }
+            final Span span = TracingHandler.startSpan(tracer, functionData, parameterString, parentSpanContext);
+            TracingHandler.addSuccessTagToSpan(span);
+            TracingHandler.finishSpan(span);
+            return null;
+        }
+        return AsyncSpanCompletion.attachPerSubscription(metadata.getAsyncReturnType(), response,
+                () -> TracingHandler.startSpan(tracer, functionData, parameterString, parentSpanContext), metrics);
     }
 
-    private String getClassName(final TracingAnnotation tracingAnnotation,
-                                final Signature callSignature) {
-        return Strings.isNullOrEmpty(tracingAnnotation.className())
-                ? callSignature.getDeclaringType().getSimpleName()
-                : tracingAnnotation.className();
+    /**
+     * @return Trace id in MDC, or the whole combined trace context if that is in use
+     */
+    private static String getMDCTraceId(final boolean combinedMDCKey) {
+        return combinedMDCKey ? TracerUtil.getMDCTraceContext() : TracerUtil.getMDCTraceId();
     }
 
-    private String getMethodName(final TracingAnnotation tracingAnnotation,
-                                 final Signature callSignature) {
-        return Strings.isNullOrEmpty(tracingAnnotation.method())
-                ? callSignature.getName()
-                : tracingAnnotation.method();
+    private static void restoreMDCTracing(final boolean combinedMDCKey,
+                                          final String previousTraceId,
+                                          final String previousSpanId) {
+        if (combinedMDCKey) {
+            TracerUtil.restoreMDCTraceContext(previousTraceId);
+        } else {
+            TracerUtil.restoreMDCTracing(previousTraceId, previousSpanId);
+        }
     }
 
-    private String getParameterString(final TracingOptions tracingOptions,
-                                      final MethodSignature methodSignature,
-                                      final JoinPoint joinPoint,
-                                      final String className,
-                                      final String methodName) {
-        if (tracingOptions == null || !tracingOptions.isParameterCaptureEnabled()) {
-            return null;
+    /**
+     * Folds the call into the summary of its method in the frame of the enclosing traced call, no span is created
+     */
+    private static Object proceedAggregated(final ProceedingJoinPoint joinPoint,
+                                            final MethodMetadata metadata,
+                                            final MethodMetrics metrics,
+                                            final SpanAggregator.Frame frame) throws Throwable {
+        final long startNanos = System.nanoTime();
+        final Object response;
+        try {
+            response = joinPoint.proceed();
+        } catch (Throwable t) {
+            final long durationNanos = System.nanoTime() - startNanos;
+            frame.record(metadata.getFunctionData(), startNanos, durationNanos, true);
+            if (metrics != null) {
+                metrics.recordFailure(durationNanos);
+            }
+            throw t;
         }
+        final long durationNanos = System.nanoTime() - startNanos;
+        frame.record(metadata.getFunctionData(), startNanos, durationNanos, false);
+        if (metrics != null) {
+            metrics.recordSuccess(durationNanos);
+        }
+        return response;
+    }
 
-        if (methodSignature.getMethod().getParameterCount() != joinPoint.getArgs().length) {
-            log.warn("Number of parameters does not match with args [class = {}, method = {}]", className, methodName);
-            return null;
+    private static Object proceedWithMetrics(final ProceedingJoinPoint joinPoint,
+                                             final MethodMetadata metadata,
+                                             final MethodMetrics metrics) throws Throwable {
+        final long startNanos = System.nanoTime();
+        final Object response;
+        try {
+            response = joinPoint.proceed();
+        } catch (Throwable t) {
+            metrics.recordFailure(System.nanoTime() - startNanos);
+            throw t;
+        }
+        if (response != null && metadata.getAsyncReturnType().isReactive()) {
+            return AsyncSpanCompletion.attachPerSubscription(metadata.getAsyncReturnType(), response, () -> null,
+                    metrics);
+        }
+        if (response != null && metadata.getAsyncReturnType().isAsync()) {
+            return AsyncSpanCompletion.attach(metadata.getAsyncReturnType(), response, null, metrics, startNanos);
         }
+        metrics.recordSuccess(System.nanoTime() - startNanos);
+        return response;
+    }
 
-        final List<String> paramValues
-                = IntStream.range(0, methodSignature.getMethod().getParameterCount())
-                .mapToObj(i -> {
-                    final TracingParameter tracingParameter = methodSignature.getMethod()
-                            .getParameters()[i].getAnnotation(TracingParameter.class);
-                    if (tracingParameter == null) {
-                        return null;
-                    }
-                    final String paramValueStr = convertToString(joinPoint.getArgs()[i]).trim();
-                    boolean matches = VALID_PARAM_VALUE_PATTERN.matcher(paramValueStr).matches();
-                    return matches ? paramValueStr : "";
-                })
-                .filter(Objects::nonNull)
-                .filter(value -> !Strings.isNullOrEmpty(value))
-                .collect(Collectors.toList());
+    private static MethodMetadata getMethodMetadata(final TracingOptions options,
+                                                    final JoinPoint.StaticPart staticPart) {
+        if (!options.isCacheEnabled()) {
+            return resolve(staticPart);
+        }
+        final MethodMetadata metadata = METADATA_CACHE.get(staticPart);
+        return metadata != null ? metadata : cache(staticPart);
+    }
 
-        if (!paramValues.isEmpty()) {
-            return Joiner.on(TracingConstants.PARAMETER_DELIMITER).join(paramValues);
+    /**
+     * Resolves and caches the metadata of a join point ahead of its first call
+     */
+    static void preload(final JoinPoint.StaticPart staticPart) {
+        if (!METADATA_CACHE.containsKey(staticPart)) {
+            cache(staticPart);
         }
+    }
 
-        return null;
+    /**
+     * Resolves outside of any map lock, so that threads racing on the first call of a method do not block each other
+     * or calls of other methods hashed to the same bin. The first stored instance wins; a discarded one has no lasting
+     * effect, since its counters, metrics and controls are shared per method and activating the aggregator is
+     * idempotent.
+     */
+    private static MethodMetadata cache(final JoinPoint.StaticPart staticPart) {
+        final MethodMetadata resolved = resolve(staticPart);
+        final MethodMetadata existing = METADATA_CACHE.putIfAbsent(staticPart, resolved);
+        return existing == null ? resolved : existing;
     }
 
-    private String convertToString(Object obj) {
-        if (obj == null) {
-            return "";
+    private static MethodMetadata resolve(final JoinPoint.StaticPart staticPart) {
+        return MethodMetadata.resolve(staticPart, METADATA_REGISTRY);
+    }
+
+    private static boolean isSampled(final TracingOptions options,
+                                     final MethodTracingState state,
+                                     final MethodMetadata metadata) {
+        final TracingSampler sampler = state.getSampler() == null ? options.getSampler() : state.getSampler();
+        if (sampler == null) {
+            return true;
         }
-        if (obj instanceof String) {
-            return (String) obj;
-        } else if (obj instanceof Enum) {
-            return ((Enum) obj).name();
+        if (sampler.isSampled(metadata.getFunctionData())) {
+            metadata.getSamplingCounters().recordSampled();
+            return true;
         }
-        return "";
+        metadata.getSamplingCounters().recordDropped();
+        return false;
     }
 
-    private boolean cacheDisabled(final TracingOptions options) {
-        return options != null && options.isDisableCacheOptimisation();
+    private static String getParameterString(final TracingOptions tracingOptions,
+                                             final MethodTracingState state,
+                                             final MethodMetadata metadata,
+                                             final JoinPoint joinPoint) {
+        if (!state.isParameterCaptureEnabled(tracingOptions.isParameterCaptureEnabled())) {
+            return null;
+        }
+
+        final int[] tracedParameterIndexes = metadata.getTracedParameterIndexes();
+        if (tracedParameterIndexes.length == 0) {
+            return null;
+        }
+
+        final Object[] args = joinPoint.getArgs();
+        if (metadata.getParameterCount() != args.length) {
+            final FunctionData functionData = metadata.getFunctionData();
+            log.warn("Number of parameters does not match with args [class = {}, method = {}]",
+                    functionData.getClassName(), functionData.getMethodName());
+            return null;
+        }
+
+        return ParameterCapture.capture(metadata, args, tracingOptions);
     }
 }
@@ -1,15 +1,24 @@
 package io.appform.opentracing;
 
-import java.util.regex.Pattern;
-
 /**
  *
  */
 public class TracingConstants {
-    static final Pattern VALID_PARAM_VALUE_PATTERN = Pattern.compile("^[a-zA-Z_][a-zA-Z_0-9]*$");
-    static final String PARAMETER_DELIMITER = ".";
-    static final String METHOD_NAME_TAG = "method.name";
-    static final String CLASS_NAME_TAG = "class.name";
-    static final String PARAMETER_STRING_TAG = "method.parameters";
-    static final String METHOD_STATUS_TAG = "method.status";
+    static final char PARAMETER_DELIMITER = '.';
+    static final String OPERATION_NAME_PREFIX = "method:";
+    static final int DEFAULT_MAX_PARAMETER_LENGTH = 256;
+    static final int MAX_ERROR_MESSAGE_LENGTH = 256;
+    public static final String METHOD_NAME_TAG = "method.name";
+    public static final String CLASS_NAME_TAG = "class.name";
+    public static final String PARAMETER_STRING_TAG = "method.parameters";
+    public static final String METHOD_STATUS_TAG = "method.status";
+    public static final String STATUS_SUCCESS = "SUCCESS";
+    public static final String STATUS_FAILURE = "FAILURE";
+    public static final String ERROR_KIND_TAG = "error.kind";
+    public static final String ERROR_MESSAGE_TAG = "error.message";
+    public static final String AGGREGATE_COUNT_TAG = "aggregate.count";
+    public static final String AGGREGATE_FAILURES_TAG = "aggregate.failures";
+    public static final String AGGREGATE_MIN_TAG = "aggregate.min_us";
+    public static final String AGGREGATE_MAX_TAG = "aggregate.max_us";
+    public static final String AGGREGATE_TOTAL_TAG = "aggregate.total_us";
 }
@@ -0,0 +1,206 @@
+package io.appform.opentracing;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Internal errors raised by the tracer while a traced method runs. Errors are counted per operation and exception
+ * type; the first one of each kind is logged with its stack trace, repeats at most once per minute with the number
+ * suppressed in between. When the tracer fails repeatedly, tracing is suspended for a cooldown window and traced
+ * methods run without spans, so a misbehaving tracer does not turn into a logging storm or slow down every call.
+ */
+public final class TracingErrors {
+    private static final Logger log = LoggerFactory.getLogger(TracingErrors.class.getSimpleName());
+
+    static final long LOG_INTERVAL_NANOS = TimeUnit.MINUTES.toNanos(1);
+    static final int FAILURE_THRESHOLD = 50;
+    static final long FAILURE_WINDOW_NANOS = TimeUnit.SECONDS.toNanos(1);
+    static final long COOLDOWN_NANOS = TimeUnit.SECONDS.toNanos(30);
+
+    private static final Map<Operation, ConcurrentHashMap<Class<?>, ErrorCounter>> COUNTERS
+            = new EnumMap<>(Operation.class);
+    private static final CircuitBreaker CIRCUIT_BREAKER
+            = new CircuitBreaker(FAILURE_THRESHOLD, FAILURE_WINDOW_NANOS, COOLDOWN_NANOS);
+
+    static {
+        for (Operation operation : Operation.values()) {
+            COUNTERS.put(operation, new ConcurrentHashMap<>());
+        }
+    }
+
+    private TracingErrors() {
+    }
+
+    enum Operation {
+        GET_TRACER("getting tracer"),
+        START_SPAN("starting span"),
+        START_SCOPE("starting scope"),
+        TAG_SPAN("tagging span"),
+        CLOSE_SPAN_AND_SCOPE("closing span/scope"),
+        CLOSE_SCOPE("closing scope"),
+        FINISH_SPAN("finishing span"),
+        EMIT_SUMMARY_SPAN("emitting summary span");
+
+        private final String description;
+
+        Operation(final String description) {
+            this.description = description;
+        }
+    }
+
+    static void report(final Operation operation,
+                       final Exception error) {
+        final ConcurrentHashMap<Class<?>, ErrorCounter> counters = COUNTERS.get(operation);
+        ErrorCounter counter = counters.get(error.getClass());
+        if (counter == null) {
+            final ErrorCounter created = new ErrorCounter();
+            counter = counters.putIfAbsent(error.getClass(), created);
+            if (counter == null) {
+                created.errors.increment();
+                log.error("Error while " + operation.description, error);
+                CIRCUIT_BREAKER.recordFailure();
+                return;
+            }
+        }
+        counter.errors.increment();
+        final long suppressed = counter.suppressRepeat();
+        if (suppressed >= 0) {
+            log.warn("Error while {}: {} ({} similar errors suppressed)", operation.description, error, suppressed);
+        }
+        CIRCUIT_BREAKER.recordFailure();
+    }
+
+    /**
+     * @return True while tracing is suspended after repeated tracer failures
+     */
+    public static boolean isTracingSuspended() {
+        return CIRCUIT_BREAKER.isOpen();
+    }
+
+    /**
+     * @return Number of times tracing was suspended
+     */
+    public static long getSuspensionCount() {
+        return CIRCUIT_BREAKER.getOpenCount();
+    }
+
+    /**
+     * @return Total number of internal tracer errors
+     */
+    public static long getErrorCount() {
+        long count = 0;
+        for (ConcurrentHashMap<Class<?>, ErrorCounter> counters : COUNTERS.values()) {
+            for (ErrorCounter counter : counters.values()) {
+                count += counter.errors.sum();
+            }
+        }
+        return count;
+    }
+
+    /**
+     * @return Number of internal tracer errors, keyed by {@code operation: exception class}
+     */
+    public static Map<String, Long> getErrorCounts() {
+        final Map<String, Long> errorCounts = new TreeMap<>();
+        COUNTERS.forEach((operation, counters) -> counters.forEach((type, counter) ->
+                errorCounts.put(operation.description + ": " + type.getName(), counter.errors.sum())));
+        return errorCounts;
+    }
+
+    /**
+     * Clears the error counters and resumes tracing if it was suspended
+     */
+    public static void reset() {
+        COUNTERS.values().forEach(Map::clear);
+        CIRCUIT_BREAKER.reset();
+    }
+
+    private static final class ErrorCounter {
+        private final LongAdder errors = new LongAdder();
+        private final LongAdder suppressed = new LongAdder();
+        private final AtomicLong lastLoggedNanos = new AtomicLong(System.nanoTime());
+
+        /**
+         * @return Number of repeats suppressed since the last log if this repeat is due to be logged, -1 otherwise
+         */
+        private long suppressRepeat() {
+            final long now = System.nanoTime();
+            final long lastLogged = lastLoggedNanos.get();
+            if (now - lastLogged < LOG_INTERVAL_NANOS || !lastLoggedNanos.compareAndSet(lastLogged, now)) {
+                suppressed.increment();
+                return -1;
+            }
+            return suppressed.sumThenReset();
+        }
+    }
+
+    /**
+     * Opens after {@code threshold} failures within {@code windowNanos} and stays open for {@code cooldownNanos}.
+     * The closed state costs a single volatile read; nothing is written on successful calls.
+     */
+    static final class CircuitBreaker {
+        private final int threshold;
+        private final long windowNanos;
+        private final long cooldownNanos;
+        private final AtomicInteger windowFailures = new AtomicInteger();
+        private final AtomicLong windowStartNanos = new AtomicLong(System.nanoTime());
+        private final LongAdder openCount = new LongAdder();
+        private volatile long openUntilNanos;
+        private volatile boolean open;
+
+        CircuitBreaker(final int threshold,
+                       final long windowNanos,
+                       final long cooldownNanos) {
+            this.threshold = threshold;
+            this.windowNanos = windowNanos;
+            this.cooldownNanos = cooldownNanos;
+        }
+
+        boolean isOpen() {
+            if (!open) {
+                return false;
+            }
+            if (System.nanoTime() - openUntilNanos < 0) {
+                return true;
+            }
+            open = false;
+            return false;
+        }
+
+        void recordFailure() {
+            final long now = System.nanoTime();
+            final long windowStart = windowStartNanos.get();
+            if (now - windowStart > windowNanos && windowStartNanos.compareAndSet(windowStart, now)) {
+                windowFailures.set(0);
+            }
+            if (windowFailures.incrementAndGet() == threshold && !open) {
+                openUntilNanos = now + cooldownNanos;
+                open = true;
+                openCount.increment();
+                log.warn("Tracing suspended for {}ms after {} tracer errors within {}ms",
+                        TimeUnit.NANOSECONDS.toMillis(cooldownNanos), threshold,
+                        TimeUnit.NANOSECONDS.toMillis(windowNanos));
+            }
+        }
+
+        long getOpenCount() {
+            return openCount.sum();
+        }
+
+        void reset() {
+            open = false;
+            openCount.reset();
+            windowFailures.set(0);
+            windowStartNanos.set(System.nanoTime());
+        }
+    }
+}
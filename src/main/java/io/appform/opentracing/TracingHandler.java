@@ -6,21 +6,18 @@ import io.opentracing.Scope;
 import io.opentracing.Span;
 import io.opentracing.SpanContext;
 import io.opentracing.Tracer;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
+import io.opentracing.tag.Tags;
 
 /**
  * Utility class that handles all span and scope related operations
  */
 public class TracingHandler {
 
-    private static final Logger log = LoggerFactory.getLogger(TracingHandler.class.getSimpleName());
-
     static Tracer getTracer() {
         try {
             return TracerUtil.getTracer();
         } catch (Exception e) {
-            log.error("Error while getting tracer", e);
+            TracingErrors.report(TracingErrors.Operation.GET_TRACER, e);
             return null;
         }
     }
@@ -28,22 +25,44 @@ public class TracingHandler {
     public static Span startSpan(final Tracer tracer,
                           final FunctionData functionData,
                           final String parameterString) {
+        if (tracer == null || TracingErrors.isTracingSuspended()) {
+            return null;
+        }
+        return startSpan(tracer, functionData, parameterString, getParentContext(tracer));
+    }
+
+    /**
+     * Starts a span under a parent resolved earlier, e.g. on the thread that made the call
+     */
+    static Span startSpan(final Tracer tracer,
+                          final FunctionData functionData,
+                          final String parameterString,
+                          final SpanContext parentSpanContext) {
         try {
-            if (tracer == null) {
+            if (tracer == null || TracingErrors.isTracingSuspended()) {
                 return null;
             }
-            SpanContext parentSpanContext = TracerUtil.buildSpanFromHeaders(tracer);
-            Span span = tracer.buildSpan("method:" + functionData.getMethodName())
-                    .asChildOf(parentSpanContext)
-                    .withTag(TracingConstants.CLASS_NAME_TAG, functionData.getClassName())
-                    .withTag(TracingConstants.METHOD_NAME_TAG, functionData.getMethodName())
-                    .start();
+            final Tracer.SpanBuilder spanBuilder = tracer.buildSpan(functionData.getOperationName())
+                    .asChildOf(parentSpanContext);
+            Span span = withFunctionTags(spanBuilder, functionData).start();
             if (!Strings.isNullOrEmpty(parameterString)) {
                 span.setTag(TracingConstants.PARAMETER_STRING_TAG, parameterString);
             }
             return span;
         } catch (Exception e) {
-            log.error("Error while starting span", e);
+            TracingErrors.report(TracingErrors.Operation.START_SPAN, e);
+            return null;
+        }
+    }
+
+    /**
+     * @return Context of the active span, or of the trace ids in MDC
+     */
+    static SpanContext getParentContext(final Tracer tracer) {
+        try {
+            return tracer == null ? null : TracerUtil.buildSpanFromHeaders(tracer);
+        } catch (Exception e) {
+            TracingErrors.report(TracingErrors.Operation.START_SPAN, e);
             return null;
         }
     }
@@ -56,7 +75,7 @@ public class TracingHandler {
             }
             return tracer.activateSpan(span);
         } catch (Exception e) {
-            log.error("Error while starting scope", e);
+            TracingErrors.report(TracingErrors.Operation.START_SCOPE, e);
             return null;
         }
     }
@@ -66,9 +85,9 @@ public class TracingHandler {
             if (span == null) {
                 return;
             }
-            addStatusTag("SUCCESS", span);
+            addStatusTag(TracingConstants.STATUS_SUCCESS, span);
         } catch (Exception e) {
-            log.error("Error while adding success tag to span", e);
+            TracingErrors.report(TracingErrors.Operation.TAG_SPAN, e);
         }
     }
 
@@ -78,9 +97,34 @@ public class TracingHandler {
             if (span == null) {
                 return;
             }
-            addStatusTag("FAILURE", span);
+            addStatusTag(TracingConstants.STATUS_FAILURE, span);
+        } catch (Exception e) {
+            TracingErrors.report(TracingErrors.Operation.TAG_SPAN, e);
+        }
+    }
+
+    /**
+     * Marks the span failed and tags it with {@code error}, {@code error.kind} and the error message, truncated to
+     * {@value TracingConstants#MAX_ERROR_MESSAGE_LENGTH} characters. The stack trace is not touched.
+     */
+    static void addErrorTagToSpan(final Span span,
+                                  final Throwable error) {
+        try {
+            if (span == null) {
+                return;
+            }
+            addStatusTag(TracingConstants.STATUS_FAILURE, span);
+            if (error == null) {
+                return;
+            }
+            Tags.ERROR.set(span, true);
+            span.setTag(TracingConstants.ERROR_KIND_TAG, error.getClass().getName());
+            final String message = error.getMessage();
+            if (message != null) {
+                span.setTag(TracingConstants.ERROR_MESSAGE_TAG, truncate(message));
+            }
         } catch (Exception e) {
-            log.error("Error while adding failure tag to span", e);
+            TracingErrors.report(TracingErrors.Operation.TAG_SPAN, e);
         }
     }
 
@@ -94,10 +138,46 @@ public class TracingHandler {
                 span.finish();
             }
         } catch (Exception e) {
-            log.error("Error while closing span/scope", e);
+            TracingErrors.report(TracingErrors.Operation.CLOSE_SPAN_AND_SCOPE, e);
+        }
+    }
+
+    static void closeScope(final Scope scope) {
+        try {
+            if (scope != null) {
+                scope.close();
+            }
+        } catch (Exception e) {
+            TracingErrors.report(TracingErrors.Operation.CLOSE_SCOPE, e);
+        }
+    }
+
+    static void finishSpan(final Span span) {
+        try {
+            if (span != null) {
+                span.finish();
+            }
+        } catch (Exception e) {
+            TracingErrors.report(TracingErrors.Operation.FINISH_SPAN, e);
         }
     }
 
+    static Tracer.SpanBuilder withFunctionTags(final Tracer.SpanBuilder spanBuilder,
+                                               final FunctionData functionData) {
+        if (spanBuilder instanceof FunctionTagsSpanBuilder) {
+            return ((FunctionTagsSpanBuilder) spanBuilder).withFunctionTags(functionData);
+        }
+        return spanBuilder
+                .withTag(TracingConstants.CLASS_NAME_TAG, functionData.getClassName())
+                .withTag(TracingConstants.METHOD_NAME_TAG, functionData.getMethodName());
+    }
+
+    private static String truncate(final String message) {
+        return message.length() > TracingConstants.MAX_ERROR_MESSAGE_LENGTH
+                ? message.substring(0, TracingConstants.MAX_ERROR_MESSAGE_LENGTH)
+                : message;
+    }
+
     private static void addStatusTag(final String status,
                                      final Span span) {
         span.setTag(TracingConstants.METHOD_STATUS_TAG, status);
@@ -1,20 +1,83 @@
 package io.appform.opentracing;
 
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.function.UnaryOperator;
+
 /**
- * Tracing manager that needs to be initialized at the start
+ * Tracing manager that needs to be initialized at the start. Options are immutable snapshots published through a
+ * volatile field; they can be replaced at any time, calls in flight complete with the options they started with.
  */
 public class TracingManager {
 
-    private static TracingOptions tracingOptions;
+    private static volatile TracingOptions tracingOptions;
+    private static volatile TracingOptions activeOptions = TracingOptions.DEFAULT;
 
     private TracingManager() {
     }
 
-    public static void initialize(final TracingOptions tracingOptions) {
+    public static synchronized void initialize(final TracingOptions tracingOptions) {
         TracingManager.tracingOptions = tracingOptions;
+        TracingManager.activeOptions = tracingOptions == null ? TracingOptions.DEFAULT : tracingOptions.snapshot();
+        if (tracingOptions != null && tracingOptions.hasAggregatedMethods()) {
+            SpanAggregator.activate();
+        }
+    }
+
+    /**
+     * Atomically replaces the options with the result of the update, e.g.
+     * {@code reload(options -> options.toBuilder().parameterCaptureEnabled(false).build())}
+     *
+     * @param update Receives the current options, the defaults if not initialized
+     * @return Options now in effect
+     */
+    public static synchronized TracingOptions reload(final UnaryOperator<TracingOptions> update) {
+        final TracingOptions current = tracingOptions == null
+                ? new TracingOptions.TracingOptionsBuilder().build()
+                : tracingOptions;
+        final TracingOptions updated = Objects.requireNonNull(update.apply(current),
+                "Tracing options update must not return null");
+        initialize(updated);
+        return updated;
+    }
+
+    /**
+     * Publishes a new copy of options changed through their deprecated setters, if they are the ones in effect
+     */
+    static synchronized void refresh(final TracingOptions changed) {
+        if (tracingOptions == changed) {
+            activeOptions = changed.snapshot();
+        }
     }
 
     public static TracingOptions getTracingOptions() {
         return tracingOptions;
     }
+
+    /**
+     * @return Options in effect, never null
+     */
+    static TracingOptions getActiveOptions() {
+        return activeOptions;
+    }
+
+    /**
+     * Initialises the given classes that hold woven join points and resolves the metadata of their traced methods, so
+     * that first calls do not pay for weaving and reflection. Static initialisers of those classes run as part of
+     * this, one class at a time on the calling thread.
+     */
+    public static WarmUpReport warmUp(final Class<?>... classes) {
+        return TracingWarmUp.warmUp(Arrays.asList(classes));
+    }
+
+    /**
+     * Same as {@link #warmUp(Class[])} for all classes found in the given packages and their sub packages, on
+     * directories or jars of the context class loader. Classes are loaded in parallel without being initialised.
+     */
+    public static WarmUpReport warmUp(final String... packageNames) {
+        final ClassLoader contextClassLoader = Thread.currentThread().getContextClassLoader();
+        return TracingWarmUp.warmUp(contextClassLoader == null ? TracingManager.class.getClassLoader()
+                                                               : contextClassLoader,
+                Arrays.asList(packageNames));
+    }
 }
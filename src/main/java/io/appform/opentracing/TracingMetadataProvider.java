@@ -0,0 +1,12 @@
+package io.appform.opentracing;
+
+/**
+ * Supplies precomputed metadata of {@link TracingAnnotation} methods, so that the aspect does not need reflection to
+ * resolve them. Implementations are generated at build time by
+ * {@link io.appform.opentracing.processor.TracingMetadataProcessor} and discovered with
+ * {@link java.util.ServiceLoader}.
+ */
+public interface TracingMetadataProvider {
+
+    void register(TracingMetadataRegistry registry);
+}
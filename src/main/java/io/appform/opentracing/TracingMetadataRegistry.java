@@ -0,0 +1,143 @@
+package io.appform.opentracing;
+
+import org.aspectj.lang.reflect.MethodSignature;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.ServiceConfigurationError;
+import java.util.ServiceLoader;
+
+/**
+ * Build time generated metadata of traced methods, keyed by declaring type, method name and parameter types. Filled
+ * by the {@link TracingMetadataProvider}s found on the classpath when it is loaded and read-only afterwards.
+ * Methods missing from the registry are resolved with reflection.
+ */
+public final class TracingMetadataRegistry {
+    private static final Logger log = LoggerFactory.getLogger(TracingMetadataRegistry.class.getSimpleName());
+
+    private final Map<String, Entry> entries = new HashMap<>();
+
+    TracingMetadataRegistry() {
+    }
+
+    /**
+     * Loads the metadata of all {@link TracingMetadataProvider}s visible to the context class loader. Broken
+     * providers are skipped, their methods fall back to reflection.
+     */
+    public static TracingMetadataRegistry load() {
+        final TracingMetadataRegistry registry = new TracingMetadataRegistry();
+        final Iterator<TracingMetadataProvider> providers = ServiceLoader.load(TracingMetadataProvider.class)
+                .iterator();
+        while (true) {
+            try {
+                if (!providers.hasNext()) {
+                    break;
+                }
+                providers.next().register(registry);
+            } catch (ServiceConfigurationError | RuntimeException e) {
+                log.warn("Error loading tracing metadata provider, falling back to reflection: {}", e.getMessage());
+            }
+        }
+        if (!registry.entries.isEmpty()) {
+            log.info("Loaded generated tracing metadata for {} methods", registry.entries.size());
+        }
+        return registry;
+    }
+
+    /**
+     * Registers a traced method. Only meant to be called by generated providers while the registry is loaded.
+     *
+     * @param declaringType          Binary name of the type declaring the method
+     * @param methodName             Name of the method
+     * @param parameterTypes         Parameter types in {@link Class#getName()} format
+     * @param classNameTag           Class name pushed into spans
+     * @param methodNameTag          Method name pushed into spans
+     * @param tracedParameterIndexes Indexes of {@link TracingParameter} annotated parameters, in declaration order
+     */
+    public void register(final String declaringType,
+                         final String methodName,
+                         final String[] parameterTypes,
+                         final String classNameTag,
+                         final String methodNameTag,
+                         final int[] tracedParameterIndexes) {
+        register(declaringType, methodName, parameterTypes, classNameTag, methodNameTag, tracedParameterIndexes,
+                false);
+    }
+
+    /**
+     * Registers a traced method, see {@link #register(String, String, String[], String, String, int[])}
+     *
+     * @param aggregated True if the method is annotated with {@link TracingAnnotation#aggregate()}
+     */
+    public void register(final String declaringType,
+                         final String methodName,
+                         final String[] parameterTypes,
+                         final String classNameTag,
+                         final String methodNameTag,
+                         final int[] tracedParameterIndexes,
+                         final boolean aggregated) {
+        entries.put(key(declaringType, methodName, parameterTypes),
+                new Entry(new FunctionData(classNameTag, methodNameTag), tracedParameterIndexes.clone(), aggregated));
+        if (aggregated) {
+            SpanAggregator.activate();
+        }
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    Entry find(final MethodSignature signature) {
+        if (entries.isEmpty()) {
+            return null;
+        }
+        final Class<?>[] parameterTypes = signature.getParameterTypes();
+        final String[] parameterTypeNames = new String[parameterTypes.length];
+        for (int i = 0; i < parameterTypes.length; i++) {
+            parameterTypeNames[i] = parameterTypes[i].getName();
+        }
+        return entries.get(key(signature.getDeclaringType().getName(), signature.getName(), parameterTypeNames));
+    }
+
+    static String key(final String declaringType,
+                      final String methodName,
+                      final String[] parameterTypes) {
+        final StringBuilder key = new StringBuilder(declaringType).append('#').append(methodName).append('(');
+        for (int i = 0; i < parameterTypes.length; i++) {
+            if (i > 0) {
+                key.append(',');
+            }
+            key.append(parameterTypes[i]);
+        }
+        return key.append(')').toString();
+    }
+
+    static final class Entry {
+        private final FunctionData functionData;
+        private final int[] tracedParameterIndexes;
+        private final boolean aggregated;
+
+        private Entry(final FunctionData functionData,
+                      final int[] tracedParameterIndexes,
+                      final boolean aggregated) {
+            this.functionData = functionData;
+            this.tracedParameterIndexes = tracedParameterIndexes;
+            this.aggregated = aggregated;
+        }
+
+        FunctionData getFunctionData() {
+            return functionData;
+        }
+
+        int[] getTracedParameterIndexes() {
+            return tracedParameterIndexes;
+        }
+
+        boolean isAggregated() {
+            return aggregated;
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package io.appform.opentracing;
+
+/**
+ * What the tracing aspect records for an advised call
+ */
+public enum TracingMode {
+    /**
+     * A span per call
+     */
+    SPANS,
+    /**
+     * Only per method latency and success/failure counts, see {@link io.appform.opentracing.metrics.MethodMetricsRegistry}
+     */
+    METRICS,
+    SPANS_AND_METRICS;
+
+    boolean recordsSpans() {
+        return this != METRICS;
+    }
+
+    boolean recordsMetrics() {
+        return this != SPANS;
+    }
+}
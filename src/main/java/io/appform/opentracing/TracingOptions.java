@@ -1,37 +1,221 @@
 package io.appform.opentracing;
 
+import io.appform.opentracing.sampling.TracingSampler;
+import io.appform.opentracing.util.MethodPattern;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
 /**
- * Additional options required for tracing
+ * Additional options required for tracing. Use {@link #toBuilder()} and {@link TracingManager#reload} to change
+ * options at runtime.
+ * <p>
+ * {@link TracingManager} never traces with the options it is given but with an immutable snapshot of them, in which
+ * the flags needed on every traced call are derived once. The deprecated setters still change the options they are
+ * called on; if those are the options in effect, a new snapshot is published.
  */
 public class TracingOptions {
 
+    static final TracingOptions DEFAULT = new TracingOptions(new TracingOptionsBuilder(), true);
+
+    private final boolean snapshot;
     private boolean parameterCaptureEnabled;
     private boolean disableCacheOptimisation;
+    private final ParameterConverterRegistry parameterConverters;
+    private final int maxParameterLength;
+    private final TracingSampler sampler;
+    private final MDCMode mdcMode;
+    private final boolean combinedMDCKey;
+    private final TracingMode mode;
+    private final Set<String> aggregatedMethods;
 
+    /* Derived flags read by the aspect */
+    private final boolean recordsSpans;
+    private final boolean recordsMetrics;
+    private final boolean eagerMDC;
+    private boolean cacheEnabled;
+    private final List<MethodPattern> aggregatedMethodPatterns;
+    private final Map<FunctionData, Boolean> aggregatedFunctions = new ConcurrentHashMap<>();
+
+    /**
+     * @deprecated Use {@link TracingOptionsBuilder}
+     */
+    @Deprecated
+    public TracingOptions() {
+        this(new TracingOptionsBuilder(), false);
+    }
+
+    private TracingOptions(final TracingOptionsBuilder builder,
+                           final boolean snapshot) {
+        this.snapshot = snapshot;
+        this.parameterCaptureEnabled = builder.parameterCaptureEnabled;
+        this.disableCacheOptimisation = builder.disableCacheOptimisation;
+        this.parameterConverters = builder.parameterConverters.isEmpty()
+                ? ParameterConverterRegistry.DEFAULT
+                : new ParameterConverterRegistry(builder.parameterConverters);
+        this.maxParameterLength = builder.maxParameterLength;
+        this.sampler = builder.sampler;
+        this.mdcMode = builder.mdcMode == null ? MDCMode.EAGER : builder.mdcMode;
+        this.combinedMDCKey = builder.combinedMDCKey;
+        this.mode = builder.mode == null ? TracingMode.SPANS : builder.mode;
+        this.aggregatedMethods = Collections.unmodifiableSet(new LinkedHashSet<>(builder.aggregatedMethods));
+        this.recordsSpans = this.mode.recordsSpans();
+        this.recordsMetrics = this.mode.recordsMetrics();
+        this.eagerMDC = this.mdcMode != MDCMode.LAZY;
+        this.cacheEnabled = !disableCacheOptimisation;
+        final List<MethodPattern> patterns = new ArrayList<>(aggregatedMethods.size());
+        for (String pattern : aggregatedMethods) {
+            patterns.add(MethodPattern.of(pattern));
+        }
+        this.aggregatedMethodPatterns = patterns;
+    }
 
     public boolean isParameterCaptureEnabled() {
         return parameterCaptureEnabled;
     }
 
+    /**
+     * @deprecated Use {@link TracingOptionsBuilder#parameterCaptureEnabled} or {@link TracingManager#reload}
+     */
+    @Deprecated
     public void setParameterCaptureEnabled(final boolean parameterCaptureEnabled) {
+        checkNotSnapshot();
         this.parameterCaptureEnabled = parameterCaptureEnabled;
+        TracingManager.refresh(this);
     }
 
     public boolean isDisableCacheOptimisation() {
         return disableCacheOptimisation;
     }
 
+    /**
+     * @deprecated Use {@link TracingOptionsBuilder#disableCacheOptimisation} or {@link TracingManager#reload}
+     */
+    @Deprecated
     public void setDisableCacheOptimisation(final boolean disableCacheOptimisation) {
+        checkNotSnapshot();
         this.disableCacheOptimisation = disableCacheOptimisation;
+        this.cacheEnabled = !disableCacheOptimisation;
+        TracingManager.refresh(this);
     }
 
-    public TracingOptions() {
-        /* Nothing to do here */
+    public ParameterConverterRegistry getParameterConverters() {
+        return parameterConverters;
+    }
+
+    public int getMaxParameterLength() {
+        return maxParameterLength;
+    }
+
+    public TracingSampler getSampler() {
+        return sampler;
+    }
+
+    public MDCMode getMdcMode() {
+        return mdcMode;
+    }
+
+    public boolean isCombinedMDCKey() {
+        return combinedMDCKey;
+    }
+
+    public TracingMode getMode() {
+        return mode;
+    }
+
+    public Set<String> getAggregatedMethods() {
+        return aggregatedMethods;
+    }
+
+    /**
+     * @return Builder initialised with these options
+     */
+    public TracingOptionsBuilder toBuilder() {
+        final TracingOptionsBuilder builder = new TracingOptionsBuilder()
+                .parameterCaptureEnabled(parameterCaptureEnabled)
+                .disableCacheOptimisation(disableCacheOptimisation)
+                .maxParameterLength(maxParameterLength)
+                .sampler(sampler)
+                .mdcMode(mdcMode)
+                .combinedMDCKey(combinedMDCKey)
+                .mode(mode)
+                .aggregatedMethods(aggregatedMethods.toArray(new String[0]));
+        builder.parameterConverters.putAll(parameterConverters.getCustomConverters());
+        return builder;
+    }
+
+    /**
+     * @return Immutable copy of these options to trace with
+     */
+    TracingOptions snapshot() {
+        return snapshot ? this : new TracingOptions(toBuilder(), true);
+    }
+
+    boolean recordsSpans() {
+        return recordsSpans;
+    }
+
+    boolean recordsMetrics() {
+        return recordsMetrics;
+    }
+
+    boolean isEagerMDC() {
+        return eagerMDC;
+    }
+
+    boolean isCacheEnabled() {
+        return cacheEnabled;
+    }
+
+    boolean hasAggregatedMethods() {
+        return !aggregatedMethodPatterns.isEmpty();
+    }
+
+    /**
+     * @return True if calls of the method are aggregated; matched once per method for these options
+     */
+    boolean isAggregated(final FunctionData functionData) {
+        if (aggregatedMethodPatterns.isEmpty()) {
+            return false;
+        }
+        final Boolean aggregated = aggregatedFunctions.get(functionData);
+        if (aggregated != null) {
+            return aggregated;
+        }
+        final String name = MethodPattern.nameOf(functionData);
+        boolean matched = false;
+        for (MethodPattern pattern : aggregatedMethodPatterns) {
+            if (pattern.matches(name)) {
+                matched = true;
+                break;
+            }
+        }
+        aggregatedFunctions.putIfAbsent(functionData, matched);
+        return matched;
+    }
+
+    private void checkNotSnapshot() {
+        if (snapshot) {
+            throw new UnsupportedOperationException("Tracing options in effect are immutable, use toBuilder()");
+        }
     }
 
     public static class TracingOptionsBuilder {
         private boolean parameterCaptureEnabled;
         private boolean disableCacheOptimisation;
+        private final Map<Class<?>, TracingParameterConverter<?>> parameterConverters = new LinkedHashMap<>();
+        private int maxParameterLength = TracingConstants.DEFAULT_MAX_PARAMETER_LENGTH;
+        private TracingSampler sampler;
+        private MDCMode mdcMode = MDCMode.EAGER;
+        private boolean combinedMDCKey;
+        private TracingMode mode = TracingMode.SPANS;
+        private final Set<String> aggregatedMethods = new LinkedHashSet<>();
 
         public TracingOptionsBuilder parameterCaptureEnabled(final boolean parameterCaptureEnabled) {
             this.parameterCaptureEnabled = parameterCaptureEnabled;
@@ -43,11 +227,65 @@ public class TracingOptions {
             return this;
         }
 
+        /**
+         * Register a converter for {@link TracingParameter} values of the given type and its sub types.
+         * Overrides the built-in converter if one exists for the same type.
+         */
+        public <T> TracingOptionsBuilder parameterConverter(final Class<T> type,
+                                                            final TracingParameterConverter<? super T> converter) {
+            this.parameterConverters.put(type, converter);
+            return this;
+        }
+
+        /**
+         * Maximum number of characters captured per parameter value, for converters without their own limit.
+         * A negative value disables the limit.
+         */
+        public TracingOptionsBuilder maxParameterLength(final int maxParameterLength) {
+            this.maxParameterLength = maxParameterLength;
+            return this;
+        }
+
+        /**
+         * Sampler deciding which calls are traced. All calls are traced if not set.
+         */
+        public TracingOptionsBuilder sampler(final TracingSampler sampler) {
+            this.sampler = sampler;
+            return this;
+        }
+
+        public TracingOptionsBuilder mdcMode(final MDCMode mdcMode) {
+            this.mdcMode = mdcMode;
+            return this;
+        }
+
+        /**
+         * Write trace and span id to MDC as a single {@link Constants#TRACE_CONTEXT} entry ({@code traceId-spanId})
+         * instead of two entries, halving MDC writes per traced call
+         */
+        public TracingOptionsBuilder combinedMDCKey(final boolean combinedMDCKey) {
+            this.combinedMDCKey = combinedMDCKey;
+            return this;
+        }
+
+        public TracingOptionsBuilder mode(final TracingMode mode) {
+            this.mode = mode;
+            return this;
+        }
+
+        /**
+         * Methods whose repeated calls within the same parent span are merged into one summary span per parent,
+         * tagged with the call count, failure count and min/max/total duration, and emitted when the parent's
+         * method returns. Patterns match {@code ClassName.methodName}, see {@link MethodPattern}. Calls without an
+         * enclosing traced method on the same thread, and calls returning asynchronous results, are traced as usual.
+         */
+        public TracingOptionsBuilder aggregatedMethods(final String... patterns) {
+            Collections.addAll(this.aggregatedMethods, patterns);
+            return this;
+        }
+
         public TracingOptions build() {
-            TracingOptions options = new TracingOptions();
-            options.setParameterCaptureEnabled(parameterCaptureEnabled);
-            options.setDisableCacheOptimisation(disableCacheOptimisation);
-            return options;
+            return new TracingOptions(this, false);
         }
     }
 
@@ -0,0 +1,71 @@
+package io.appform.opentracing;
+
+/**
+ * Converts the value of a {@link TracingParameter} annotated argument into its traced representation.
+ * Converters are registered per type through {@link TracingOptions.TracingOptionsBuilder#parameterConverter} and
+ * are resolved once per runtime argument type.
+ *
+ * @param <T> Type of values handled by the converter
+ */
+@FunctionalInterface
+public interface TracingParameterConverter<T> {
+
+    /**
+     * Use the {@link TracingOptions#getMaxParameterLength()} configured in options
+     */
+    int DEFAULT_MAX_LENGTH = -1;
+
+    /**
+     * Append the traced representation of the value to the output.
+     * @param value Non null argument value
+     * @param output Buffer the representation is appended to
+     * @return false if the value must not be captured, in which case anything appended is discarded
+     */
+    boolean write(T value, StringBuilder output);
+
+    /**
+     * @return Maximum number of characters captured for a value, output beyond it is truncated.
+     */
+    default int maxLength() {
+        return DEFAULT_MAX_LENGTH;
+    }
+
+    /**
+     * Converter for int values that appends them without a string conversion
+     */
+    @FunctionalInterface
+    interface OfInt extends TracingParameterConverter<Integer> {
+        boolean writeInt(int value, StringBuilder output);
+
+        @Override
+        default boolean write(Integer value, StringBuilder output) {
+            return writeInt(value, output);
+        }
+    }
+
+    /**
+     * Converter for long values that appends them without a string conversion
+     */
+    @FunctionalInterface
+    interface OfLong extends TracingParameterConverter<Long> {
+        boolean writeLong(long value, StringBuilder output);
+
+        @Override
+        default boolean write(Long value, StringBuilder output) {
+            return writeLong(value, output);
+        }
+    }
+
+    /**
+     * Converter for boolean values that appends them without a string conversion
+     */
+    @FunctionalInterface
+    interface OfBoolean extends TracingParameterConverter<Boolean> {
+        boolean writeBoolean(boolean value, StringBuilder output);
+
+        @Override
+        default boolean write(Boolean value, StringBuilder output) {
+            return writeBoolean(value, output);
+        }
+    }
+}
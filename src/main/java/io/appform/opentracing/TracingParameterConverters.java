@@ -0,0 +1,106 @@
+package io.appform.opentracing;
+
+import java.util.UUID;
+
+/**
+ * Built-in {@link TracingParameterConverter} implementations. None of them allocate while writing.
+ */
+public final class TracingParameterConverters {
+
+    /**
+     * Strings are captured only if, after trimming, they are identifiers ({@code [a-zA-Z_][a-zA-Z_0-9]*})
+     */
+    public static final TracingParameterConverter<String> IDENTIFIER = TracingParameterConverters::writeIdentifier;
+
+    /**
+     * Enum constants are captured by name
+     */
+    public static final TracingParameterConverter<Enum<?>> ENUM_NAME = (value, output) -> {
+        output.append(value.name());
+        return true;
+    };
+
+    public static final TracingParameterConverter.OfInt INT = (value, output) -> {
+        output.append(value);
+        return true;
+    };
+
+    public static final TracingParameterConverter.OfLong LONG = (value, output) -> {
+        output.append(value);
+        return true;
+    };
+
+    public static final TracingParameterConverter.OfBoolean BOOLEAN = (value, output) -> {
+        output.append(value);
+        return true;
+    };
+
+    /**
+     * UUIDs in their canonical 36 character form
+     */
+    public static final TracingParameterConverter<UUID> UUID_STRING = TracingParameterConverters::writeUuid;
+
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+    private TracingParameterConverters() {
+    }
+
+    /**
+     * Wraps a converter so that its output is capped at the given number of characters
+     */
+    public static <T> TracingParameterConverter<T> truncating(final TracingParameterConverter<T> converter,
+                                                              final int maxLength) {
+        return new TracingParameterConverter<T>() {
+            @Override
+            public boolean write(T value, StringBuilder output) {
+                return converter.write(value, output);
+            }
+
+            @Override
+            public int maxLength() {
+                return maxLength;
+            }
+        };
+    }
+
+    private static boolean writeIdentifier(final String value,
+                                           final StringBuilder output) {
+        int start = 0;
+        int end = value.length();
+        while (start < end && value.charAt(start) <= ' ') {
+            start++;
+        }
+        while (end > start && value.charAt(end - 1) <= ' ') {
+            end--;
+        }
+        if (!ParameterCapture.isValidIdentifier(value, start, end)) {
+            return false;
+        }
+        output.append(value, start, end);
+        return true;
+    }
+
+    private static boolean writeUuid(final UUID value,
+                                     final StringBuilder output) {
+        final long mostSignificantBits = value.getMostSignificantBits();
+        final long leastSignificantBits = value.getLeastSignificantBits();
+        appendHex(output, mostSignificantBits >>> 32, 8);
+        output.append('-');
+        appendHex(output, mostSignificantBits >>> 16, 4);
+        output.append('-');
+        appendHex(output, mostSignificantBits, 4);
+        output.append('-');
+        appendHex(output, leastSignificantBits >>> 48, 4);
+        output.append('-');
+        appendHex(output, leastSignificantBits, 12);
+        return true;
+    }
+
+    private static void appendHex(final StringBuilder output,
+                                  final long value,
+                                  final int digits) {
+        for (int shift = (digits - 1) * 4; shift >= 0; shift -= 4) {
+            output.append(HEX_DIGITS[(int) (value >>> shift) & 0xF]);
+        }
+    }
+}
@@ -0,0 +1,250 @@
+package io.appform.opentracing;
+
+import org.aspectj.lang.JoinPoint;
+import org.aspectj.lang.Signature;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.net.JarURLConnection;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.stream.Stream;
+
+/**
+ * Loads woven classes ahead of their first use and resolves the metadata of their traced join points into the
+ * aspect cache. ajc keeps the static part of every advised join point of a class in a static {@code ajc$tjp_}
+ * field, created when the class is initialised; these are the cache keys the advice later looks up.
+ * <p>
+ * Classes found in packages are loaded without being initialised on a small dedicated pool. Only classes declaring
+ * join point fields are then initialised, one at a time on the calling thread, so static initialisers never run
+ * concurrently and classes with cyclic static initialisation cannot deadlock the warm up.
+ */
+final class TracingWarmUp {
+    private static final Logger log = LoggerFactory.getLogger(TracingWarmUp.class.getSimpleName());
+
+    private static final String JOIN_POINT_FIELD_PREFIX = "ajc$tjp_";
+    private static final String CLASS_FILE_SUFFIX = ".class";
+    private static final int MAX_LOADER_THREADS = 4;
+
+    private TracingWarmUp() {
+    }
+
+    static WarmUpReport warmUp(final Collection<Class<?>> classes) {
+        final long startNanos = System.nanoTime();
+        final Progress progress = new Progress();
+        for (Class<?> type : classes) {
+            progress.add(warmUp(type));
+        }
+        return report(classes.size(), progress, startNanos);
+    }
+
+    static WarmUpReport warmUp(final ClassLoader classLoader,
+                               final Collection<String> packageNames) {
+        final long startNanos = System.nanoTime();
+        final Set<String> classNames = new TreeSet<>();
+        for (String packageName : packageNames) {
+            scan(classLoader, packageName, classNames);
+        }
+        final Progress progress = new Progress();
+        final ExecutorService loaders = Executors.newFixedThreadPool(
+                Math.max(1, Math.min(MAX_LOADER_THREADS, Runtime.getRuntime().availableProcessors())),
+                TracingWarmUp::newLoaderThread);
+        try {
+            final List<Future<Class<?>>> loadedClasses = new ArrayList<>(classNames.size());
+            for (String className : classNames) {
+                loadedClasses.add(loaders.submit(() -> load(className, classLoader)));
+            }
+            for (Future<Class<?>> loadedClass : loadedClasses) {
+                final Class<?> type = loadedClass.get();
+                progress.add(type == null ? -1 : warmUp(type));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            log.warn("Error loading classes to warm up: {}", e.getCause().toString());
+        } finally {
+            loaders.shutdownNow();
+        }
+        return report(classNames.size(), progress, startNanos);
+    }
+
+    /**
+     * @return The class, loaded but not initialised, null if it could not be loaded
+     */
+    private static Class<?> load(final String className,
+                                 final ClassLoader classLoader) {
+        try {
+            return Class.forName(className, false, classLoader);
+        } catch (LinkageError | ClassNotFoundException e) {
+            log.debug("Could not load class {} to warm up: {}", className, e.toString());
+            return null;
+        }
+    }
+
+    /**
+     * Initialises the class only if it declares join point fields
+     *
+     * @return Number of traced join points resolved, -1 if the class could not be initialised or inspected
+     */
+    private static int warmUp(final Class<?> type) {
+        try {
+            final List<Field> joinPointFields = new ArrayList<>();
+            for (Field field : type.getDeclaredFields()) {
+                if (isJoinPointField(field)) {
+                    joinPointFields.add(field);
+                }
+            }
+            if (joinPointFields.isEmpty()) {
+                return 0;
+            }
+            Class.forName(type.getName(), true, type.getClassLoader());
+            int count = 0;
+            for (Field field : joinPointFields) {
+                field.setAccessible(true);
+                final JoinPoint.StaticPart staticPart = (JoinPoint.StaticPart) field.get(null);
+                if (isTraced(staticPart)) {
+                    TracingAspect.preload(staticPart);
+                    count++;
+                }
+            }
+            return count;
+        } catch (LinkageError | ReflectiveOperationException | RuntimeException e) {
+            log.debug("Could not warm up class {}: {}", type.getName(), e.toString());
+            return -1;
+        }
+    }
+
+    private static boolean isJoinPointField(final Field field) {
+        return Modifier.isStatic(field.getModifiers())
+                && field.getName().startsWith(JOIN_POINT_FIELD_PREFIX)
+                && JoinPoint.StaticPart.class.isAssignableFrom(field.getType());
+    }
+
+    /**
+     * Executions and calls of annotated methods, or of public methods of annotated types. Calls selected only by a
+     * {@link CallSiteTracingAspect} pointcut cannot be told apart from join points of other aspects and are skipped.
+     */
+    private static boolean isTraced(final JoinPoint.StaticPart staticPart) {
+        if (staticPart == null
+                || !(JoinPoint.METHOD_EXECUTION.equals(staticPart.getKind())
+                || JoinPoint.METHOD_CALL.equals(staticPart.getKind()))) {
+            return false;
+        }
+        final Signature signature = staticPart.getSignature();
+        if (!(signature instanceof MethodSignature)) {
+            return false;
+        }
+        final Method method = ((MethodSignature) signature).getMethod();
+        if (method == null) {
+            return false;
+        }
+        return method.isAnnotationPresent(TracingAnnotation.class)
+                || (method.getDeclaringClass().isAnnotationPresent(TracingAnnotation.class)
+                && MethodMetadata.isTracedByType(method));
+    }
+
+    private static void scan(final ClassLoader classLoader,
+                             final String packageName,
+                             final Set<String> classNames) {
+        final String path = packageName.replace('.', '/');
+        try {
+            final Enumeration<URL> resources = classLoader.getResources(path);
+            while (resources.hasMoreElements()) {
+                final URL url = resources.nextElement();
+                if ("file".equals(url.getProtocol())) {
+                    scanDirectory(Paths.get(url.toURI()), packageName, classNames);
+                } else if ("jar".equals(url.getProtocol())) {
+                    scanJar((JarURLConnection) url.openConnection(), path, classNames);
+                } else {
+                    log.warn("Cannot scan {} for classes to warm up, unsupported location", url);
+                }
+            }
+        } catch (IOException | URISyntaxException e) {
+            log.warn("Error scanning package {} for classes to warm up: {}", packageName, e.getMessage());
+        }
+    }
+
+    private static void scanDirectory(final Path directory,
+                                      final String packageName,
+                                      final Set<String> classNames) throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.map(file -> directory.relativize(file).toString().replace(file.getFileSystem().getSeparator(), "/"))
+                    .forEach(relativePath -> addClassName(packageName + "/" + relativePath, classNames));
+        }
+    }
+
+    private static void scanJar(final JarURLConnection connection,
+                                final String path,
+                                final Set<String> classNames) throws IOException {
+        connection.setUseCaches(false);
+        try (JarFile jarFile = connection.getJarFile()) {
+            final Enumeration<JarEntry> entries = jarFile.entries();
+            while (entries.hasMoreElements()) {
+                final String name = entries.nextElement().getName();
+                if (name.startsWith(path + "/")) {
+                    addClassName(name, classNames);
+                }
+            }
+        }
+    }
+
+    private static void addClassName(final String resourceName,
+                                     final Set<String> classNames) {
+        if (!resourceName.endsWith(CLASS_FILE_SUFFIX)
+                || resourceName.endsWith("module-info" + CLASS_FILE_SUFFIX)
+                || resourceName.endsWith("package-info" + CLASS_FILE_SUFFIX)) {
+            return;
+        }
+        classNames.add(resourceName.substring(0, resourceName.length() - CLASS_FILE_SUFFIX.length())
+                .replace('/', '.'));
+    }
+
+    private static WarmUpReport report(final int classCount,
+                                       final Progress progress,
+                                       final long startNanos) {
+        final WarmUpReport report = new WarmUpReport(classCount - progress.failedClasses, progress.failedClasses,
+                progress.joinPoints, Duration.ofNanos(System.nanoTime() - startNanos));
+        log.info("Tracing warm up complete: {}", report);
+        return report;
+    }
+
+    private static Thread newLoaderThread(final Runnable runnable) {
+        final Thread thread = new Thread(runnable, "tracing-warm-up-loader");
+        thread.setDaemon(true);
+        return thread;
+    }
+
+    private static final class Progress {
+        private int failedClasses;
+        private int joinPoints;
+
+        private void add(final int joinPointCount) {
+            if (joinPointCount < 0) {
+                failedClasses++;
+            } else {
+                joinPoints += joinPointCount;
+            }
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package io.appform.opentracing;
+
+import java.time.Duration;
+
+/**
+ * Outcome of {@link TracingManager#warmUp(Class[])}
+ */
+public final class WarmUpReport {
+    private final int classCount;
+    private final int failedClassCount;
+    private final int joinPointCount;
+    private final Duration duration;
+
+    WarmUpReport(final int classCount,
+                 final int failedClassCount,
+                 final int joinPointCount,
+                 final Duration duration) {
+        this.classCount = classCount;
+        this.failedClassCount = failedClassCount;
+        this.joinPointCount = joinPointCount;
+        this.duration = duration;
+    }
+
+    /**
+     * @return Number of classes loaded and initialised
+     */
+    public int getClassCount() {
+        return classCount;
+    }
+
+    /**
+     * @return Number of classes that could not be loaded, initialised or inspected
+     */
+    public int getFailedClassCount() {
+        return failedClassCount;
+    }
+
+    /**
+     * @return Number of traced join points whose metadata was resolved into the aspect cache
+     */
+    public int getJoinPointCount() {
+        return joinPointCount;
+    }
+
+    public Duration getDuration() {
+        return duration;
+    }
+
+    @Override
+    public String toString() {
+        return "WarmUpReport{" +
+                "classCount=" + classCount +
+                ", failedClassCount=" + failedClassCount +
+                ", joinPointCount=" + joinPointCount +
+                ", duration=" + duration.toMillis() + "ms" +
+                '}';
+    }
+}
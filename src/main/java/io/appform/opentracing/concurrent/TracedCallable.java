@@ -0,0 +1,31 @@
+package io.appform.opentracing.concurrent;
+
+import io.opentracing.Scope;
+import io.opentracing.Span;
+import io.opentracing.Tracer;
+
+import java.util.concurrent.Callable;
+
+/**
+ * Calls the delegate with the span that was active when the task was created
+ */
+final class TracedCallable<V> implements Callable<V> {
+    private final Callable<V> delegate;
+    private final Tracer tracer;
+    private final Span span;
+
+    TracedCallable(final Callable<V> delegate,
+                   final Tracer tracer,
+                   final Span span) {
+        this.delegate = delegate;
+        this.tracer = tracer;
+        this.span = span;
+    }
+
+    @Override
+    public V call() throws Exception {
+        try (Scope ignored = tracer.activateSpan(span)) {
+            return delegate.call();
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package io.appform.opentracing.concurrent;
+
+import io.opentracing.Scope;
+import io.opentracing.Span;
+import io.opentracing.Tracer;
+
+/**
+ * Runs the delegate with the span that was active when the task was created
+ */
+final class TracedRunnable implements Runnable {
+    private final Runnable delegate;
+    private final Tracer tracer;
+    private final Span span;
+
+    TracedRunnable(final Runnable delegate,
+                   final Tracer tracer,
+                   final Span span) {
+        this.delegate = delegate;
+        this.tracer = tracer;
+        this.span = span;
+    }
+
+    @Override
+    public void run() {
+        try (Scope ignored = tracer.activateSpan(span)) {
+            delegate.run();
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package io.appform.opentracing.concurrent;
+
+import io.appform.opentracing.sampling.UnsampledTrace;
+import io.appform.opentracing.util.TracerUtil;
+import io.opentracing.Scope;
+import io.opentracing.Span;
+import io.opentracing.Tracer;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.function.Supplier;
+
+/**
+ * Carries the active span across thread hand-offs.
+ * <p>
+ * The span active on the submitting thread is captured once when a task is submitted and activated on the worker
+ * for the duration of the task, after which the worker's previous scope is restored. Trace ids are not copied
+ * through MDC; spans started on the worker use the activated span as parent. Tasks submitted from within a trace
+ * dropped by the sampler run inside the dropped trace on the worker too. Other tasks submitted without an active span
+ * are passed through unwrapped.
+ */
+public final class TracingExecutors {
+
+    private TracingExecutors() {
+    }
+
+    public static ExecutorService wrap(final ExecutorService executorService) {
+        return wrap(executorService, TracerUtil.getTracer());
+    }
+
+    public static ExecutorService wrap(final ExecutorService executorService,
+                                       final Tracer tracer) {
+        return new TracingExecutorService(executorService, tracer);
+    }
+
+    public static ScheduledExecutorService wrap(final ScheduledExecutorService executorService) {
+        return wrap(executorService, TracerUtil.getTracer());
+    }
+
+    public static ScheduledExecutorService wrap(final ScheduledExecutorService executorService,
+                                                final Tracer tracer) {
+        return new TracingScheduledExecutorService(executorService, tracer);
+    }
+
+    /**
+     * Wraps a plain executor, for instance to pass to the async methods of {@link CompletableFuture}
+     */
+    public static Executor wrap(final Executor executor) {
+        return wrap(executor, TracerUtil.getTracer());
+    }
+
+    public static Executor wrap(final Executor executor,
+                                final Tracer tracer) {
+        return command -> executor.execute(wrap(command, tracer));
+    }
+
+    public static <U> CompletableFuture<U> supplyAsync(final Supplier<U> supplier) {
+        return supplyAsync(supplier, ForkJoinPool.commonPool());
+    }
+
+    public static <U> CompletableFuture<U> supplyAsync(final Supplier<U> supplier,
+                                                       final Executor executor) {
+        return CompletableFuture.supplyAsync(wrap(supplier, TracerUtil.getTracer()), executor);
+    }
+
+    public static CompletableFuture<Void> runAsync(final Runnable runnable) {
+        return runAsync(runnable, ForkJoinPool.commonPool());
+    }
+
+    public static CompletableFuture<Void> runAsync(final Runnable runnable,
+                                                   final Executor executor) {
+        return CompletableFuture.runAsync(wrap(runnable, TracerUtil.getTracer()), executor);
+    }
+
+    public static Runnable wrap(final Runnable runnable,
+                                final Tracer tracer) {
+        final Span span = tracer.activeSpan();
+        if (span == null) {
+            return UnsampledTrace.isActive() ? unsampled(runnable) : runnable;
+        }
+        return new TracedRunnable(runnable, tracer, span);
+    }
+
+    public static <V> Callable<V> wrap(final Callable<V> callable,
+                                       final Tracer tracer) {
+        final Span span = tracer.activeSpan();
+        if (span == null) {
+            return UnsampledTrace.isActive() ? unsampled(callable) : callable;
+        }
+        return new TracedCallable<>(callable, tracer, span);
+    }
+
+    public static <U> Supplier<U> wrap(final Supplier<U> supplier,
+                                       final Tracer tracer) {
+        final Span span = tracer.activeSpan();
+        if (span == null) {
+            return UnsampledTrace.isActive() ? unsampled(supplier) : supplier;
+        }
+        return () -> {
+            try (Scope ignored = tracer.activateSpan(span)) {
+                return supplier.get();
+            }
+        };
+    }
+
+    static <T> List<Callable<T>> wrap(final Collection<? extends Callable<T>> tasks,
+                                      final Tracer tracer) {
+        final Span span = tracer.activeSpan();
+        final boolean unsampled = span == null && UnsampledTrace.isActive();
+        final List<Callable<T>> wrapped = new ArrayList<>(tasks.size());
+        for (Callable<T> task : tasks) {
+            if (span != null) {
+                wrapped.add(new TracedCallable<>(task, tracer, span));
+            } else {
+                wrapped.add(unsampled ? unsampled(task) : task);
+            }
+        }
+        return wrapped;
+    }
+
+    private static Runnable unsampled(final Runnable runnable) {
+        return () -> {
+            final boolean previous = UnsampledTrace.enter();
+            try {
+                runnable.run();
+            } finally {
+                UnsampledTrace.exit(previous);
+            }
+        };
+    }
+
+    private static <V> Callable<V> unsampled(final Callable<V> callable) {
+        return () -> {
+            final boolean previous = UnsampledTrace.enter();
+            try {
+                return callable.call();
+            } finally {
+                UnsampledTrace.exit(previous);
+            }
+        };
+    }
+
+    private static <U> Supplier<U> unsampled(final Supplier<U> supplier) {
+        return () -> {
+            final boolean previous = UnsampledTrace.enter();
+            try {
+                return supplier.get();
+            } finally {
+                UnsampledTrace.exit(previous);
+            }
+        };
+    }
+}
@@ -0,0 +1,42 @@
+package io.appform.opentracing.concurrent;
+
+import io.opentracing.Tracer;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link ScheduledExecutorService} that runs every task with the span that was active when it was scheduled.
+ * Periodic tasks keep using that span for all of their runs.
+ */
+public class TracingScheduledExecutorService extends TracingExecutorService implements ScheduledExecutorService {
+    private final ScheduledExecutorService delegate;
+
+    public TracingScheduledExecutorService(final ScheduledExecutorService delegate,
+                                           final Tracer tracer) {
+        super(delegate, tracer);
+        this.delegate = delegate;
+    }
+
+    @Override
+    public ScheduledFuture<?> schedule(Runnable command, long delay, TimeUnit unit) {
+        return delegate.schedule(TracingExecutors.wrap(command, tracer), delay, unit);
+    }
+
+    @Override
+    public <V> ScheduledFuture<V> schedule(Callable<V> callable, long delay, TimeUnit unit) {
+        return delegate.schedule(TracingExecutors.wrap(callable, tracer), delay, unit);
+    }
+
+    @Override
+    public ScheduledFuture<?> scheduleAtFixedRate(Runnable command, long initialDelay, long period, TimeUnit unit) {
+        return delegate.scheduleAtFixedRate(TracingExecutors.wrap(command, tracer), initialDelay, period, unit);
+    }
+
+    @Override
+    public ScheduledFuture<?> scheduleWithFixedDelay(Runnable command, long initialDelay, long delay, TimeUnit unit) {
+        return delegate.scheduleWithFixedDelay(TracingExecutors.wrap(command, tracer), initialDelay, delay, unit);
+    }
+}
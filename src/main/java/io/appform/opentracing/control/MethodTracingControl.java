@@ -0,0 +1,21 @@
+package io.appform.opentracing.control;
+
+/**
+ * Current {@link MethodTracingState} of a traced method. Held by the aspect for every join point of the method, so
+ * that applying the overrides costs a single volatile read per call.
+ */
+public final class MethodTracingControl {
+    private volatile MethodTracingState state;
+
+    MethodTracingControl(final MethodTracingState state) {
+        this.state = state;
+    }
+
+    public MethodTracingState getState() {
+        return state;
+    }
+
+    void setState(final MethodTracingState state) {
+        this.state = state;
+    }
+}
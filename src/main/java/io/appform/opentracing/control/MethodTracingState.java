@@ -0,0 +1,92 @@
+package io.appform.opentracing.control;
+
+import io.appform.opentracing.sampling.ProbabilisticSampler;
+import io.appform.opentracing.sampling.TracingSampler;
+
+/**
+ * Immutable runtime overrides of tracing behaviour for a method. Unset values follow the global
+ * {@link io.appform.opentracing.TracingOptions}.
+ */
+public final class MethodTracingState {
+    public static final MethodTracingState DEFAULT = new MethodTracingState(null, null, null);
+
+    private final Boolean enabled;
+    private final Boolean parameterCapture;
+    private final ProbabilisticSampler sampler;
+
+    private MethodTracingState(final Boolean enabled,
+                               final Boolean parameterCapture,
+                               final ProbabilisticSampler sampler) {
+        this.enabled = enabled;
+        this.parameterCapture = parameterCapture;
+        this.sampler = sampler;
+    }
+
+    /**
+     * @return false if calls of the method must not produce spans or metrics
+     */
+    public boolean isEnabled() {
+        return enabled == null || enabled;
+    }
+
+    public boolean isParameterCaptureEnabled(final boolean defaultValue) {
+        return parameterCapture == null ? defaultValue : parameterCapture;
+    }
+
+    /**
+     * @return Sampler replacing the global one for the method, null if not overridden
+     */
+    public TracingSampler getSampler() {
+        return sampler;
+    }
+
+    public Boolean getEnabled() {
+        return enabled;
+    }
+
+    public Boolean getParameterCapture() {
+        return parameterCapture;
+    }
+
+    public Double getSamplingRate() {
+        return sampler == null ? null : sampler.getProbability();
+    }
+
+    public MethodTracingState withEnabled(final Boolean enabled) {
+        return new MethodTracingState(enabled, parameterCapture, sampler);
+    }
+
+    public MethodTracingState withParameterCapture(final Boolean parameterCapture) {
+        return new MethodTracingState(enabled, parameterCapture, sampler);
+    }
+
+    /**
+     * @param samplingRate Fraction of calls to trace between 0 and 1, null to follow the global sampler
+     */
+    public MethodTracingState withSamplingRate(final Double samplingRate) {
+        return new MethodTracingState(enabled, parameterCapture,
+                samplingRate == null ? null : new ProbabilisticSampler(samplingRate));
+    }
+
+    boolean isDefault() {
+        return enabled == null && parameterCapture == null && sampler == null;
+    }
+
+    /**
+     * @return State with the values set in the other state replacing the ones in this state
+     */
+    MethodTracingState overriddenBy(final MethodTracingState other) {
+        return new MethodTracingState(other.enabled == null ? enabled : other.enabled,
+                other.parameterCapture == null ? parameterCapture : other.parameterCapture,
+                other.sampler == null ? sampler : other.sampler);
+    }
+
+    @Override
+    public String toString() {
+        return "MethodTracingState{" +
+                "enabled=" + enabled +
+                ", parameterCapture=" + parameterCapture +
+                ", samplingRate=" + getSamplingRate() +
+                '}';
+    }
+}
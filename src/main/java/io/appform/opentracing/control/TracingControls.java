@@ -0,0 +1,212 @@
+package io.appform.opentracing.control;
+
+import io.appform.opentracing.FunctionData;
+import io.appform.opentracing.util.MethodPattern;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.StandardMBean;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.UnaryOperator;
+
+/**
+ * Runtime switches for individual traced methods: disable tracing, override parameter capture or the sampling rate
+ * without a redeploy.
+ * <p>
+ * Rules are keyed by a {@link MethodPattern} matched against {@code ClassName.methodName} of {@link FunctionData},
+ * e.g. {@code OrderService.*} for a whole class or {@code OrderService.checkout} for one method. When several rules
+ * match a method, values of the most recently updated rule take precedence. Changes are pushed to the
+ * {@link MethodTracingControl} of every affected method and are visible to the next call.
+ */
+public final class TracingControls {
+    private static final Logger log = LoggerFactory.getLogger(TracingControls.class.getSimpleName());
+
+    public static final String MBEAN_NAME = "io.appform.opentracing:type=TracingControls";
+
+    private static final Map<FunctionData, MethodTracingControl> CONTROLS = new ConcurrentHashMap<>();
+    private static final Map<String, Rule> RULES = new LinkedHashMap<>();
+
+    private TracingControls() {
+    }
+
+    /**
+     * @return Control of the method, created with the state derived from the current rules on first access
+     */
+    public static MethodTracingControl controlFor(final FunctionData functionData) {
+        final MethodTracingControl control = CONTROLS.get(functionData);
+        if (control != null) {
+            return control;
+        }
+        synchronized (TracingControls.class) {
+            return CONTROLS.computeIfAbsent(functionData, key -> new MethodTracingControl(stateOf(key)));
+        }
+    }
+
+    public static void setEnabled(final String pattern,
+                                  final boolean enabled) {
+        update(pattern, state -> state.withEnabled(enabled));
+    }
+
+    public static void setParameterCapture(final String pattern,
+                                           final boolean enabled) {
+        update(pattern, state -> state.withParameterCapture(enabled));
+    }
+
+    /**
+     * @param samplingRate Fraction of calls to trace, between 0 and 1
+     */
+    public static void setSamplingRate(final String pattern,
+                                       final double samplingRate) {
+        update(pattern, state -> state.withSamplingRate(samplingRate));
+    }
+
+    /**
+     * Removes the rule registered for the pattern
+     */
+    public static synchronized void reset(final String pattern) {
+        if (RULES.remove(pattern) != null) {
+            refresh();
+        }
+    }
+
+    public static synchronized void resetAll() {
+        RULES.clear();
+        refresh();
+    }
+
+    /**
+     * @return Copy of the rules, in the order they are applied
+     */
+    public static synchronized Map<String, MethodTracingState> getRules() {
+        final Map<String, MethodTracingState> rules = new LinkedHashMap<>();
+        RULES.forEach((pattern, rule) -> rules.put(pattern, rule.state));
+        return rules;
+    }
+
+    /**
+     * @return Effective state of every method traced so far
+     */
+    public static Map<FunctionData, MethodTracingState> getStates() {
+        final Map<FunctionData, MethodTracingState> states = new LinkedHashMap<>();
+        CONTROLS.forEach((functionData, control) -> states.put(functionData, control.getState()));
+        return Collections.unmodifiableMap(states);
+    }
+
+    /**
+     * Registers {@link TracingControlsMBean} with the platform MBean server under {@link #MBEAN_NAME}, if not
+     * registered already
+     */
+    public static synchronized void registerMBean() {
+        try {
+            final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            final ObjectName name = new ObjectName(MBEAN_NAME);
+            if (!server.isRegistered(name)) {
+                server.registerMBean(new StandardMBean(new ControlsMBean(), TracingControlsMBean.class), name);
+            }
+        } catch (JMException e) {
+            log.warn("Could not register tracing controls MBean: {}", e.getMessage());
+        }
+    }
+
+    private static synchronized void update(final String pattern,
+                                            final UnaryOperator<MethodTracingState> update) {
+        final Rule existing = RULES.get(pattern);
+        final MethodPattern methodPattern = existing == null ? MethodPattern.of(pattern) : existing.pattern;
+        final MethodTracingState state = update.apply(existing == null ? MethodTracingState.DEFAULT : existing.state);
+        RULES.remove(pattern);
+        RULES.put(pattern, new Rule(methodPattern, state));
+        log.info("Tracing control rule updated: {} -> {}", pattern, state);
+        refresh();
+    }
+
+    private static void refresh() {
+        CONTROLS.forEach((functionData, control) -> control.setState(stateOf(functionData)));
+    }
+
+    private static MethodTracingState stateOf(final FunctionData functionData) {
+        if (RULES.isEmpty()) {
+            return MethodTracingState.DEFAULT;
+        }
+        final String name = MethodPattern.nameOf(functionData);
+        MethodTracingState state = MethodTracingState.DEFAULT;
+        for (Rule rule : RULES.values()) {
+            if (rule.pattern.matches(name)) {
+                state = state.overriddenBy(rule.state);
+            }
+        }
+        return state;
+    }
+
+    private static final class Rule {
+        private final MethodPattern pattern;
+        private final MethodTracingState state;
+
+        private Rule(final MethodPattern pattern,
+                     final MethodTracingState state) {
+            this.pattern = pattern;
+            this.state = state;
+        }
+    }
+
+    private static final class ControlsMBean implements TracingControlsMBean {
+
+        @Override
+        public void enable(final String pattern) {
+            setEnabled(pattern, true);
+        }
+
+        @Override
+        public void disable(final String pattern) {
+            setEnabled(pattern, false);
+        }
+
+        @Override
+        public void setParameterCapture(final String pattern,
+                                        final boolean enabled) {
+            TracingControls.setParameterCapture(pattern, enabled);
+        }
+
+        @Override
+        public void setSamplingRate(final String pattern,
+                                    final double samplingRate) {
+            TracingControls.setSamplingRate(pattern, samplingRate);
+        }
+
+        @Override
+        public void reset(final String pattern) {
+            TracingControls.reset(pattern);
+        }
+
+        @Override
+        public void resetAll() {
+            TracingControls.resetAll();
+        }
+
+        @Override
+        public String[] getRules() {
+            final List<String> rules = new ArrayList<>();
+            TracingControls.getRules().forEach((pattern, state) -> rules.add(pattern + " -> " + state));
+            return rules.toArray(new String[0]);
+        }
+
+        @Override
+        public String[] getOverriddenMethods() {
+            final List<String> methods = new ArrayList<>();
+            getStates().forEach((functionData, state) -> {
+                if (!state.isDefault()) {
+                    methods.add(functionData + " -> " + state);
+                }
+            });
+            return methods.toArray(new String[0]);
+        }
+    }
+}
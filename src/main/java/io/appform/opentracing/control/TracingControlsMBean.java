@@ -0,0 +1,30 @@
+package io.appform.opentracing.control;
+
+/**
+ * JMX view of {@link TracingControls}. Patterns match {@code ClassName.methodName} as used in spans, with {@code *}
+ * matching any characters.
+ */
+public interface TracingControlsMBean {
+
+    void enable(String pattern);
+
+    void disable(String pattern);
+
+    void setParameterCapture(String pattern, boolean enabled);
+
+    void setSamplingRate(String pattern, double samplingRate);
+
+    void reset(String pattern);
+
+    void resetAll();
+
+    /**
+     * @return Active rules, in the order they are applied
+     */
+    String[] getRules();
+
+    /**
+     * @return Methods traced so far whose state differs from the defaults
+     */
+    String[] getOverriddenMethods();
+}
@@ -0,0 +1,448 @@
+package io.appform.opentracing.logging;
+
+import io.appform.opentracing.TracingManager;
+import io.appform.opentracing.TracingOptions;
+import io.appform.opentracing.util.TracerUtil;
+import io.opentracing.Span;
+import org.slf4j.Logger;
+import org.slf4j.Marker;
+
+/**
+ * slf4j {@link Logger} decorator that writes the ids of the active span to MDC only while a log line is emitted,
+ * and puts back whatever MDC held before. Used with {@link io.appform.opentracing.MDCMode#LAZY}. The ids are written
+ * as a single entry when {@link TracingOptions#isCombinedMDCKey()} is set.
+ */
+public class TracingLogger implements Logger {
+    private final Logger delegate;
+
+    public TracingLogger(final Logger delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public String getName() {
+        return delegate.getName();
+    }
+
+    @Override
+    public boolean isTraceEnabled() {
+        return delegate.isTraceEnabled();
+    }
+
+    @Override
+    public void trace(String msg) {
+        if (delegate.isTraceEnabled()) {
+            withTraceIds(() -> delegate.trace(msg));
+        }
+    }
+
+    @Override
+    public void trace(String format, Object arg) {
+        if (delegate.isTraceEnabled()) {
+            withTraceIds(() -> delegate.trace(format, arg));
+        }
+    }
+
+    @Override
+    public void trace(String format, Object arg1, Object arg2) {
+        if (delegate.isTraceEnabled()) {
+            withTraceIds(() -> delegate.trace(format, arg1, arg2));
+        }
+    }
+
+    @Override
+    public void trace(String format, Object... arguments) {
+        if (delegate.isTraceEnabled()) {
+            withTraceIds(() -> delegate.trace(format, arguments));
+        }
+    }
+
+    @Override
+    public void trace(String msg, Throwable t) {
+        if (delegate.isTraceEnabled()) {
+            withTraceIds(() -> delegate.trace(msg, t));
+        }
+    }
+
+    @Override
+    public boolean isTraceEnabled(Marker marker) {
+        return delegate.isTraceEnabled(marker);
+    }
+
+    @Override
+    public void trace(Marker marker, String msg) {
+        if (delegate.isTraceEnabled(marker)) {
+            withTraceIds(() -> delegate.trace(marker, msg));
+        }
+    }
+
+    @Override
+    public void trace(Marker marker, String format, Object arg) {
+        if (delegate.isTraceEnabled(marker)) {
+            withTraceIds(() -> delegate.trace(marker, format, arg));
+        }
+    }
+
+    @Override
+    public void trace(Marker marker, String format, Object arg1, Object arg2) {
+        if (delegate.isTraceEnabled(marker)) {
+            withTraceIds(() -> delegate.trace(marker, format, arg1, arg2));
+        }
+    }
+
+    @Override
+    public void trace(Marker marker, String format, Object... arguments) {
+        if (delegate.isTraceEnabled(marker)) {
+            withTraceIds(() -> delegate.trace(marker, format, arguments));
+        }
+    }
+
+    @Override
+    public void trace(Marker marker, String msg, Throwable t) {
+        if (delegate.isTraceEnabled(marker)) {
+            withTraceIds(() -> delegate.trace(marker, msg, t));
+        }
+    }
+
+    @Override
+    public boolean isDebugEnabled() {
+        return delegate.isDebugEnabled();
+    }
+
+    @Override
+    public void debug(String msg) {
+        if (delegate.isDebugEnabled()) {
+            withTraceIds(() -> delegate.debug(msg));
+        }
+    }
+
+    @Override
+    public void debug(String format, Object arg) {
+        if (delegate.isDebugEnabled()) {
+            withTraceIds(() -> delegate.debug(format, arg));
+        }
+    }
+
+    @Override
+    public void debug(String format, Object arg1, Object arg2) {
+        if (delegate.isDebugEnabled()) {
+            withTraceIds(() -> delegate.debug(format, arg1, arg2));
+        }
+    }
+
+    @Override
+    public void debug(String format, Object... arguments) {
+        if (delegate.isDebugEnabled()) {
+            withTraceIds(() -> delegate.debug(format, arguments));
+        }
+    }
+
+    @Override
+    public void debug(String msg, Throwable t) {
+        if (delegate.isDebugEnabled()) {
+            withTraceIds(() -> delegate.debug(msg, t));
+        }
+    }
+
+    @Override
+    public boolean isDebugEnabled(Marker marker) {
+        return delegate.isDebugEnabled(marker);
+    }
+
+    @Override
+    public void debug(Marker marker, String msg) {
+        if (delegate.isDebugEnabled(marker)) {
+            withTraceIds(() -> delegate.debug(marker, msg));
+        }
+    }
+
+    @Override
+    public void debug(Marker marker, String format, Object arg) {
+        if (delegate.isDebugEnabled(marker)) {
+            withTraceIds(() -> delegate.debug(marker, format, arg));
+        }
+    }
+
+    @Override
+    public void debug(Marker marker, String format, Object arg1, Object arg2) {
+        if (delegate.isDebugEnabled(marker)) {
+            withTraceIds(() -> delegate.debug(marker, format, arg1, arg2));
+        }
+    }
+
+    @Override
+    public void debug(Marker marker, String format, Object... arguments) {
+        if (delegate.isDebugEnabled(marker)) {
+            withTraceIds(() -> delegate.debug(marker, format, arguments));
+        }
+    }
+
+    @Override
+    public void debug(Marker marker, String msg, Throwable t) {
+        if (delegate.isDebugEnabled(marker)) {
+            withTraceIds(() -> delegate.debug(marker, msg, t));
+        }
+    }
+
+    @Override
+    public boolean isInfoEnabled() {
+        return delegate.isInfoEnabled();
+    }
+
+    @Override
+    public void info(String msg) {
+        if (delegate.isInfoEnabled()) {
+            withTraceIds(() -> delegate.info(msg));
+        }
+    }
+
+    @Override
+    public void info(String format, Object arg) {
+        if (delegate.isInfoEnabled()) {
+            withTraceIds(() -> delegate.info(format, arg));
+        }
+    }
+
+    @Override
+    public void info(String format, Object arg1, Object arg2) {
+        if (delegate.isInfoEnabled()) {
+            withTraceIds(() -> delegate.info(format, arg1, arg2));
+        }
+    }
+
+    @Override
+    public void info(String format, Object... arguments) {
+        if (delegate.isInfoEnabled()) {
+            withTraceIds(() -> delegate.info(format, arguments));
+        }
+    }
+
+    @Override
+    public void info(String msg, Throwable t) {
+        if (delegate.isInfoEnabled()) {
+            withTraceIds(() -> delegate.info(msg, t));
+        }
+    }
+
+    @Override
+    public boolean isInfoEnabled(Marker marker) {
+        return delegate.isInfoEnabled(marker);
+    }
+
+    @Override
+    public void info(Marker marker, String msg) {
+        if (delegate.isInfoEnabled(marker)) {
+            withTraceIds(() -> delegate.info(marker, msg));
+        }
+    }
+
+    @Override
+    public void info(Marker marker, String format, Object arg) {
+        if (delegate.isInfoEnabled(marker)) {
+            withTraceIds(() -> delegate.info(marker, format, arg));
+        }
+    }
+
+    @Override
+    public void info(Marker marker, String format, Object arg1, Object arg2) {
+        if (delegate.isInfoEnabled(marker)) {
+            withTraceIds(() -> delegate.info(marker, format, arg1, arg2));
+        }
+    }
+
+    @Override
+    public void info(Marker marker, String format, Object... arguments) {
+        if (delegate.isInfoEnabled(marker)) {
+            withTraceIds(() -> delegate.info(marker, format, arguments));
+        }
+    }
+
+    @Override
+    public void info(Marker marker, String msg, Throwable t) {
+        if (delegate.isInfoEnabled(marker)) {
+            withTraceIds(() -> delegate.info(marker, msg, t));
+        }
+    }
+
+    @Override
+    public boolean isWarnEnabled() {
+        return delegate.isWarnEnabled();
+    }
+
+    @Override
+    public void warn(String msg) {
+        if (delegate.isWarnEnabled()) {
+            withTraceIds(() -> delegate.warn(msg));
+        }
+    }
+
+    @Override
+    public void warn(String format, Object arg) {
+        if (delegate.isWarnEnabled()) {
+            withTraceIds(() -> delegate.warn(format, arg));
+        }
+    }
+
+    @Override
+    public void warn(String format, Object arg1, Object arg2) {
+        if (delegate.isWarnEnabled()) {
+            withTraceIds(() -> delegate.warn(format, arg1, arg2));
+        }
+    }
+
+    @Override
+    public void warn(String format, Object... arguments) {
+        if (delegate.isWarnEnabled()) {
+            withTraceIds(() -> delegate.warn(format, arguments));
+        }
+    }
+
+    @Override
+    public void warn(String msg, Throwable t) {
+        if (delegate.isWarnEnabled()) {
+            withTraceIds(() -> delegate.warn(msg, t));
+        }
+    }
+
+    @Override
+    public boolean isWarnEnabled(Marker marker) {
+        return delegate.isWarnEnabled(marker);
+    }
+
+    @Override
+    public void warn(Marker marker, String msg) {
+        if (delegate.isWarnEnabled(marker)) {
+            withTraceIds(() -> delegate.warn(marker, msg));
+        }
+    }
+
+    @Override
+    public void warn(Marker marker, String format, Object arg) {
+        if (delegate.isWarnEnabled(marker)) {
+            withTraceIds(() -> delegate.warn(marker, format, arg));
+        }
+    }
+
+    @Override
+    public void warn(Marker marker, String format, Object arg1, Object arg2) {
+        if (delegate.isWarnEnabled(marker)) {
+            withTraceIds(() -> delegate.warn(marker, format, arg1, arg2));
+        }
+    }
+
+    @Override
+    public void warn(Marker marker, String format, Object... arguments) {
+        if (delegate.isWarnEnabled(marker)) {
+            withTraceIds(() -> delegate.warn(marker, format, arguments));
+        }
+    }
+
+    @Override
+    public void warn(Marker marker, String msg, Throwable t) {
+        if (delegate.isWarnEnabled(marker)) {
+            withTraceIds(() -> delegate.warn(marker, msg, t));
+        }
+    }
+
+    @Override
+    public boolean isErrorEnabled() {
+        return delegate.isErrorEnabled();
+    }
+
+    @Override
+    public void error(String msg) {
+        if (delegate.isErrorEnabled()) {
+            withTraceIds(() -> delegate.error(msg));
+        }
+    }
+
+    @Override
+    public void error(String format, Object arg) {
+        if (delegate.isErrorEnabled()) {
+            withTraceIds(() -> delegate.error(format, arg));
+        }
+    }
+
+    @Override
+    public void error(String format, Object arg1, Object arg2) {
+        if (delegate.isErrorEnabled()) {
+            withTraceIds(() -> delegate.error(format, arg1, arg2));
+        }
+    }
+
+    @Override
+    public void error(String format, Object... arguments) {
+        if (delegate.isErrorEnabled()) {
+            withTraceIds(() -> delegate.error(format, arguments));
+        }
+    }
+
+    @Override
+    public void error(String msg, Throwable t) {
+        if (delegate.isErrorEnabled()) {
+            withTraceIds(() -> delegate.error(msg, t));
+        }
+    }
+
+    @Override
+    public boolean isErrorEnabled(Marker marker) {
+        return delegate.isErrorEnabled(marker);
+    }
+
+    @Override
+    public void error(Marker marker, String msg) {
+        if (delegate.isErrorEnabled(marker)) {
+            withTraceIds(() -> delegate.error(marker, msg));
+        }
+    }
+
+    @Override
+    public void error(Marker marker, String format, Object arg) {
+        if (delegate.isErrorEnabled(marker)) {
+            withTraceIds(() -> delegate.error(marker, format, arg));
+        }
+    }
+
+    @Override
+    public void error(Marker marker, String format, Object arg1, Object arg2) {
+        if (delegate.isErrorEnabled(marker)) {
+            withTraceIds(() -> delegate.error(marker, format, arg1, arg2));
+        }
+    }
+
+    @Override
+    public void error(Marker marker, String format, Object... arguments) {
+        if (delegate.isErrorEnabled(marker)) {
+            withTraceIds(() -> delegate.error(marker, format, arguments));
+        }
+    }
+
+    @Override
+    public void error(Marker marker, String msg, Throwable t) {
+        if (delegate.isErrorEnabled(marker)) {
+            withTraceIds(() -> delegate.error(marker, msg, t));
+        }
+    }
+
+    private static void withTraceIds(final Runnable log) {
+        final Span span = TracerUtil.getTracer().activeSpan();
+        if (span == null) {
+            log.run();
+            return;
+        }
+        final TracingOptions options = TracingManager.getTracingOptions();
+        final boolean combinedMDCKey = options != null && options.isCombinedMDCKey();
+        final String previousTraceId = combinedMDCKey ? TracerUtil.getMDCTraceContext() : TracerUtil.getMDCTraceId();
+        final String previousSpanId = combinedMDCKey ? null : TracerUtil.getMDCSpanId();
+        TracerUtil.populateMDCTracing(span, combinedMDCKey);
+        try {
+            log.run();
+        } finally {
+            if (combinedMDCKey) {
+                TracerUtil.restoreMDCTraceContext(previousTraceId);
+            } else {
+                TracerUtil.restoreMDCTracing(previousTraceId, previousSpanId);
+            }
+        }
+    }
+}
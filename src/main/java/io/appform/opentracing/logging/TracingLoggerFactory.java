@@ -0,0 +1,21 @@
+package io.appform.opentracing.logging;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Creates loggers that add trace ids to MDC at the time a log line is emitted
+ */
+public class TracingLoggerFactory {
+
+    private TracingLoggerFactory() {
+    }
+
+    public static Logger getLogger(final Class<?> clazz) {
+        return new TracingLogger(LoggerFactory.getLogger(clazz));
+    }
+
+    public static Logger getLogger(final String name) {
+        return new TracingLogger(LoggerFactory.getLogger(name));
+    }
+}
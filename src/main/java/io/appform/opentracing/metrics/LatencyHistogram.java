@@ -0,0 +1,92 @@
+package io.appform.opentracing.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Concurrent log-linear latency histogram in the spirit of HdrHistogram.
+ * <p>
+ * Values below 16ns get a bucket each; above that every power of two is split into 16 buckets, giving a relative
+ * error below 6.25% up to ~18 minutes, beyond which values land in the last bucket. Recording is a single atomic
+ * add into one of a few stripes picked by thread, so writers on different cores rarely share a cache line.
+ * Stripes are allocated on first use and are summed when a snapshot is taken.
+ */
+public class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 4;
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    private static final int MAX_EXPONENT = 40;
+    static final int BUCKET_COUNT = SUB_BUCKET_COUNT + (MAX_EXPONENT - SUB_BUCKET_BITS + 1) * SUB_BUCKET_COUNT;
+    private static final int MAX_STRIPES = 8;
+
+    private final int stripeMask;
+    private final AtomicReferenceArray<AtomicLongArray> stripes;
+
+    public LatencyHistogram() {
+        final int processors = Runtime.getRuntime().availableProcessors();
+        final int stripeCount = Math.min(MAX_STRIPES, Integer.highestOneBit(Math.max(1, processors - 1)) << 1);
+        this.stripeMask = stripeCount - 1;
+        this.stripes = new AtomicReferenceArray<>(stripeCount);
+    }
+
+    public void record(final long valueNanos) {
+        stripe().getAndIncrement(bucketIndex(valueNanos));
+    }
+
+    /**
+     * @return Bucket counts summed over all stripes
+     */
+    long[] counts() {
+        final long[] counts = new long[BUCKET_COUNT];
+        for (int i = 0; i < stripes.length(); i++) {
+            final AtomicLongArray stripe = stripes.get(i);
+            if (stripe == null) {
+                continue;
+            }
+            for (int bucket = 0; bucket < BUCKET_COUNT; bucket++) {
+                counts[bucket] += stripe.get(bucket);
+            }
+        }
+        return counts;
+    }
+
+    void reset() {
+        for (int i = 0; i < stripes.length(); i++) {
+            stripes.set(i, null);
+        }
+    }
+
+    static int bucketIndex(final long value) {
+        if (value < SUB_BUCKET_COUNT) {
+            return value < 0 ? 0 : (int) value;
+        }
+        final int exponent = 63 - Long.numberOfLeadingZeros(value);
+        if (exponent > MAX_EXPONENT) {
+            return BUCKET_COUNT - 1;
+        }
+        final int shift = exponent - SUB_BUCKET_BITS;
+        final int subBucket = (int) (value >>> shift) - SUB_BUCKET_COUNT;
+        return SUB_BUCKET_COUNT + shift * SUB_BUCKET_COUNT + subBucket;
+    }
+
+    /**
+     * @return Largest value that maps to the bucket
+     */
+    static long bucketUpperBound(final int index) {
+        if (index < SUB_BUCKET_COUNT) {
+            return index;
+        }
+        final int shift = (index - SUB_BUCKET_COUNT) / SUB_BUCKET_COUNT;
+        final int subBucket = (index - SUB_BUCKET_COUNT) % SUB_BUCKET_COUNT;
+        return ((long) (SUB_BUCKET_COUNT + subBucket + 1) << shift) - 1;
+    }
+
+    private AtomicLongArray stripe() {
+        final int index = (int) Thread.currentThread().getId() & stripeMask;
+        final AtomicLongArray stripe = stripes.get(index);
+        if (stripe != null) {
+            return stripe;
+        }
+        stripes.compareAndSet(index, null, new AtomicLongArray(BUCKET_COUNT));
+        return stripes.get(index);
+    }
+}
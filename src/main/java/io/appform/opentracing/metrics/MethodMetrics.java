@@ -0,0 +1,44 @@
+package io.appform.opentracing.metrics;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Call counts and latency distribution of a single traced method
+ */
+public class MethodMetrics {
+    private final LongAdder successCount = new LongAdder();
+    private final LongAdder failureCount = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+    private final LatencyHistogram histogram = new LatencyHistogram();
+
+    public void recordSuccess(final long durationNanos) {
+        successCount.increment();
+        record(durationNanos);
+    }
+
+    public void recordFailure(final long durationNanos) {
+        failureCount.increment();
+        record(durationNanos);
+    }
+
+    public MethodMetricsSnapshot snapshot() {
+        return new MethodMetricsSnapshot(successCount.sum(), failureCount.sum(), totalNanos.sum(), maxNanos.get(),
+                histogram.counts());
+    }
+
+    public void reset() {
+        successCount.reset();
+        failureCount.reset();
+        totalNanos.reset();
+        maxNanos.reset();
+        histogram.reset();
+    }
+
+    private void record(final long durationNanos) {
+        totalNanos.add(durationNanos);
+        maxNanos.accumulate(durationNanos);
+        histogram.record(durationNanos);
+    }
+}
@@ -0,0 +1,36 @@
+package io.appform.opentracing.metrics;
+
+import io.appform.opentracing.FunctionData;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Pull API for per method metrics recorded by the tracing aspect in {@link io.appform.opentracing.TracingMode#METRICS}
+ * or {@link io.appform.opentracing.TracingMode#SPANS_AND_METRICS} mode
+ */
+public class MethodMetricsRegistry {
+    private static final Map<FunctionData, MethodMetrics> METRICS = new ConcurrentHashMap<>();
+
+    private MethodMetricsRegistry() {
+    }
+
+    public static MethodMetrics metricsFor(final FunctionData functionData) {
+        final MethodMetrics metrics = METRICS.get(functionData);
+        if (metrics != null) {
+            return metrics;
+        }
+        return METRICS.computeIfAbsent(functionData, key -> new MethodMetrics());
+    }
+
+    public static Map<FunctionData, MethodMetricsSnapshot> snapshot() {
+        final Map<FunctionData, MethodMetricsSnapshot> snapshot = new HashMap<>();
+        METRICS.forEach((functionData, metrics) -> snapshot.put(functionData, metrics.snapshot()));
+        return snapshot;
+    }
+
+    public static void reset() {
+        METRICS.values().forEach(MethodMetrics::reset);
+    }
+}
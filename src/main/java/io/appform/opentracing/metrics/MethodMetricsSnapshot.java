@@ -0,0 +1,75 @@
+package io.appform.opentracing.metrics;
+
+/**
+ * Point in time view of {@link MethodMetrics}. Counters are read without a global lock, so a snapshot taken under
+ * load may be off by calls in flight.
+ */
+public class MethodMetricsSnapshot {
+    private final long successCount;
+    private final long failureCount;
+    private final long totalNanos;
+    private final long maxNanos;
+    private final long[] bucketCounts;
+    private final long histogramCount;
+
+    MethodMetricsSnapshot(final long successCount,
+                          final long failureCount,
+                          final long totalNanos,
+                          final long maxNanos,
+                          final long[] bucketCounts) {
+        this.successCount = successCount;
+        this.failureCount = failureCount;
+        this.totalNanos = totalNanos;
+        this.maxNanos = maxNanos;
+        this.bucketCounts = bucketCounts;
+        long count = 0;
+        for (long bucketCount : bucketCounts) {
+            count += bucketCount;
+        }
+        this.histogramCount = count;
+    }
+
+    public long getSuccessCount() {
+        return successCount;
+    }
+
+    public long getFailureCount() {
+        return failureCount;
+    }
+
+    public long getCount() {
+        return successCount + failureCount;
+    }
+
+    public long getTotalNanos() {
+        return totalNanos;
+    }
+
+    public long getMaxNanos() {
+        return maxNanos;
+    }
+
+    public double getMeanNanos() {
+        final long count = getCount();
+        return count == 0 ? 0 : (double) totalNanos / count;
+    }
+
+    /**
+     * @param percentile Between 0 and 100
+     * @return Upper bound of the bucket holding the percentile, capped at the recorded maximum
+     */
+    public long getPercentileNanos(final double percentile) {
+        if (histogramCount == 0) {
+            return 0;
+        }
+        final long rank = Math.max(1, (long) Math.ceil(percentile / 100.0 * histogramCount));
+        long seen = 0;
+        for (int i = 0; i < bucketCounts.length; i++) {
+            seen += bucketCounts[i];
+            if (seen >= rank) {
+                return Math.min(LatencyHistogram.bucketUpperBound(i), maxNanos);
+            }
+        }
+        return maxNanos;
+    }
+}
@@ -0,0 +1,316 @@
+package io.appform.opentracing.processor;
+
+import io.appform.opentracing.TracingAnnotation;
+import io.appform.opentracing.TracingMetadataProvider;
+import io.appform.opentracing.TracingParameter;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Generates a {@link TracingMetadataProvider} named {@code <TopLevelType>_TracingMetadata} for every top level type
+ * with {@link TracingAnnotation} methods or types, and registers the providers in
+ * {@code META-INF/services/io.appform.opentracing.TracingMetadataProvider}. Providers already listed in the service
+ * file of the class output, e.g. by an earlier incremental compilation, are kept. Methods of local and anonymous
+ * classes are skipped and resolved with reflection at runtime.
+ * <p>
+ * The processor is not registered automatically; add it to the annotation processors of the compiler, e.g.
+ * {@code -processor io.appform.opentracing.processor.TracingMetadataProcessor}.
+ */
+@SupportedAnnotationTypes("io.appform.opentracing.TracingAnnotation")
+public class TracingMetadataProcessor extends AbstractProcessor {
+    static final String PROVIDER_SUFFIX = "_TracingMetadata";
+
+    private static final String SERVICE_FILE = "META-INF/services/" + TracingMetadataProvider.class.getName();
+
+    private final Set<String> providers = new LinkedHashSet<>();
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        if (roundEnv.processingOver()) {
+            writeServiceFile();
+            return false;
+        }
+        final Map<TypeElement, Set<ExecutableElement>> methodsByTopLevelType = new LinkedHashMap<>();
+        for (Element element : roundEnv.getElementsAnnotatedWith(TracingAnnotation.class)) {
+            if (element.getKind() == ElementKind.METHOD) {
+                if (!element.getModifiers().contains(Modifier.ABSTRACT)) {
+                    addMethod(methodsByTopLevelType, (ExecutableElement) element);
+                }
+            } else if (isTracedType(element)) {
+                for (Element enclosed : element.getEnclosedElements()) {
+                    if (enclosed.getKind() == ElementKind.METHOD && isTracedByType((ExecutableElement) enclosed)) {
+                        addMethod(methodsByTopLevelType, (ExecutableElement) enclosed);
+                    }
+                }
+            }
+        }
+        methodsByTopLevelType.forEach(this::writeProvider);
+        return false;
+    }
+
+    /**
+     * Classes, enums and interfaces; annotation types are interfaces too, but their methods are never called
+     */
+    private static boolean isTracedType(final Element element) {
+        final ElementKind kind = element.getKind();
+        return kind != ElementKind.ANNOTATION_TYPE && (kind.isClass() || kind.isInterface());
+    }
+
+    private static void addMethod(final Map<TypeElement, Set<ExecutableElement>> methodsByTopLevelType,
+                                  final ExecutableElement method) {
+        final TypeElement topLevelType = topLevelType(method);
+        if (topLevelType != null) {
+            methodsByTopLevelType.computeIfAbsent(topLevelType, type -> new LinkedHashSet<>()).add(method);
+        }
+    }
+
+    /**
+     * Same rules as applied at runtime: public methods with a body, except the {@link Object} methods
+     */
+    private boolean isTracedByType(final ExecutableElement method) {
+        final Set<Modifier> modifiers = method.getModifiers();
+        if (!modifiers.contains(Modifier.PUBLIC) || modifiers.contains(Modifier.ABSTRACT)) {
+            return false;
+        }
+        final String name = method.getSimpleName().toString();
+        final List<? extends VariableElement> parameters = method.getParameters();
+        switch (name) {
+            case "equals":
+                return parameters.size() != 1
+                        || !className(processingEnv.getTypeUtils().erasure(parameters.get(0).asType()))
+                        .equals(Object.class.getName());
+            case "hashCode":
+            case "toString":
+                return !parameters.isEmpty();
+            default:
+                return true;
+        }
+    }
+
+    /**
+     * @return Top level type enclosing the method, or null if the method belongs to a local or anonymous class
+     */
+    private static TypeElement topLevelType(final Element method) {
+        Element current = method.getEnclosingElement();
+        while (current instanceof TypeElement) {
+            final TypeElement type = (TypeElement) current;
+            if (type.getNestingKind() == NestingKind.TOP_LEVEL) {
+                return type;
+            }
+            if (type.getNestingKind() != NestingKind.MEMBER) {
+                return null;
+            }
+            current = type.getEnclosingElement();
+        }
+        return null;
+    }
+
+    private void writeProvider(final TypeElement topLevelType,
+                               final Set<ExecutableElement> methods) {
+        final PackageElement packageElement = processingEnv.getElementUtils().getPackageOf(topLevelType);
+        final String packageName = packageElement.isUnnamed() ? "" : packageElement.getQualifiedName().toString();
+        final String simpleName = topLevelType.getSimpleName() + PROVIDER_SUFFIX;
+        final String qualifiedName = packageName.isEmpty() ? simpleName : packageName + "." + simpleName;
+        if (!providers.add(qualifiedName)) {
+            return;
+        }
+        final StringBuilder source = new StringBuilder();
+        if (!packageName.isEmpty()) {
+            source.append("package ").append(packageName).append(";\n\n");
+        }
+        source.append("@javax.annotation.processing.Generated(\"").append(getClass().getName()).append("\")\n")
+                .append("public final class ").append(simpleName)
+                .append(" implements ").append(TracingMetadataProvider.class.getName()).append(" {\n\n")
+                .append("    @Override\n")
+                .append("    public void register(io.appform.opentracing.TracingMetadataRegistry registry) {\n");
+        for (ExecutableElement method : methods) {
+            appendRegistration(source, method);
+        }
+        source.append("    }\n}\n");
+        try (Writer writer = processingEnv.getFiler().createSourceFile(qualifiedName, topLevelType).openWriter()) {
+            writer.write(source.toString());
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                    "Could not write tracing metadata: " + e.getMessage(), topLevelType);
+        }
+    }
+
+    private void appendRegistration(final StringBuilder source,
+                                    final ExecutableElement method) {
+        final TypeElement declaringType = (TypeElement) method.getEnclosingElement();
+        final TracingAnnotation annotation = method.getAnnotation(TracingAnnotation.class);
+        final TracingAnnotation typeAnnotation = declaringType.getAnnotation(TracingAnnotation.class);
+        final String classNameTag;
+        if (annotation != null && !annotation.className().isEmpty()) {
+            classNameTag = annotation.className();
+        } else if (typeAnnotation != null && !typeAnnotation.className().isEmpty()) {
+            classNameTag = typeAnnotation.className();
+        } else {
+            classNameTag = declaringType.getSimpleName().toString();
+        }
+        final String methodNameTag = annotation == null || annotation.method().isEmpty()
+                ? method.getSimpleName().toString()
+                : annotation.method();
+        final boolean aggregated = (annotation != null && annotation.aggregate())
+                || (typeAnnotation != null && typeAnnotation.aggregate());
+        final List<String> parameterTypes = new ArrayList<>();
+        final List<Integer> tracedParameterIndexes = new ArrayList<>();
+        final List<? extends VariableElement> parameters = method.getParameters();
+        for (int i = 0; i < parameters.size(); i++) {
+            final VariableElement parameter = parameters.get(i);
+            parameterTypes.add(literal(className(processingEnv.getTypeUtils().erasure(parameter.asType()))));
+            if (parameter.getAnnotation(TracingParameter.class) != null) {
+                tracedParameterIndexes.add(i);
+            }
+        }
+        source.append("        registry.register(")
+                .append(literal(processingEnv.getElementUtils().getBinaryName(declaringType).toString()))
+                .append(", ").append(literal(method.getSimpleName().toString()))
+                .append(", new String[]{").append(String.join(", ", parameterTypes)).append('}')
+                .append(", ").append(literal(classNameTag))
+                .append(", ").append(literal(methodNameTag))
+                .append(", new int[]{");
+        for (int i = 0; i < tracedParameterIndexes.size(); i++) {
+            source.append(i == 0 ? "" : ", ").append(tracedParameterIndexes.get(i));
+        }
+        source.append(aggregated ? "}, true);\n" : "});\n");
+    }
+
+    /**
+     * @return Name of the erased type in {@link Class#getName()} format
+     */
+    private String className(final TypeMirror type) {
+        if (type.getKind().isPrimitive()) {
+            return type.toString();
+        }
+        if (type.getKind() == TypeKind.ARRAY) {
+            return "[" + descriptor(((ArrayType) type).getComponentType());
+        }
+        return binaryName(type);
+    }
+
+    private String descriptor(final TypeMirror type) {
+        switch (type.getKind()) {
+            case BOOLEAN:
+                return "Z";
+            case BYTE:
+                return "B";
+            case CHAR:
+                return "C";
+            case SHORT:
+                return "S";
+            case INT:
+                return "I";
+            case LONG:
+                return "J";
+            case FLOAT:
+                return "F";
+            case DOUBLE:
+                return "D";
+            case ARRAY:
+                return "[" + descriptor(((ArrayType) type).getComponentType());
+            default:
+                return "L" + binaryName(type) + ";";
+        }
+    }
+
+    private String binaryName(final TypeMirror type) {
+        if (type instanceof DeclaredType) {
+            final TypeElement element = (TypeElement) ((DeclaredType) type).asElement();
+            return processingEnv.getElementUtils().getBinaryName(element).toString();
+        }
+        return type.toString();
+    }
+
+    private void writeServiceFile() {
+        if (providers.isEmpty()) {
+            return;
+        }
+        final Set<String> registered = readServiceFile();
+        registered.addAll(providers);
+        try {
+            final FileObject file = processingEnv.getFiler()
+                    .createResource(StandardLocation.CLASS_OUTPUT, "", SERVICE_FILE);
+            try (Writer writer = file.openWriter()) {
+                for (String provider : registered) {
+                    writer.write(provider);
+                    writer.write('\n');
+                }
+            }
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                    "Could not register tracing metadata providers: " + e.getMessage());
+        }
+    }
+
+    /**
+     * @return Providers listed in the service file of the class output, empty if there is none yet
+     */
+    private Set<String> readServiceFile() {
+        final Set<String> registered = new LinkedHashSet<>();
+        try {
+            final FileObject file = processingEnv.getFiler()
+                    .getResource(StandardLocation.CLASS_OUTPUT, "", SERVICE_FILE);
+            try (BufferedReader reader = new BufferedReader(file.openReader(true))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    final int comment = line.indexOf('#');
+                    final String provider = (comment < 0 ? line : line.substring(0, comment)).trim();
+                    if (!provider.isEmpty()) {
+                        registered.add(provider);
+                    }
+                }
+            }
+        } catch (IOException | IllegalArgumentException e) {
+            // No service file written by an earlier compilation
+        }
+        return registered;
+    }
+
+    private static String literal(final String value) {
+        final StringBuilder literal = new StringBuilder(value.length() + 2).append('"');
+        for (int i = 0; i < value.length(); i++) {
+            final char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                literal.append('\\').append(c);
+            } else if (c < 0x20 || c > 0x7e) {
+                literal.append(String.format("\\u%04x", (int) c));
+            } else {
+                literal.append(c);
+            }
+        }
+        return literal.append('"').toString();
+    }
+}
@@ -0,0 +1,118 @@
+package io.appform.opentracing.recorder;
+
+import io.appform.opentracing.FunctionData;
+import io.appform.opentracing.FunctionTagsSpanBuilder;
+import io.opentracing.References;
+import io.opentracing.Span;
+import io.opentracing.SpanContext;
+import io.opentracing.Tracer;
+import io.opentracing.tag.Tag;
+
+/**
+ * Span builder of the {@link RecordingTracer}. One instance per thread is reused; tags are written straight into the
+ * pooled {@link SpanRecord} taken when the builder is handed out, function tags without any key lookup.
+ */
+final class RecordingSpanBuilder implements FunctionTagsSpanBuilder {
+    private final RecordingTracer tracer;
+    private final RecordingTracer.ThreadState state;
+
+    private SpanRecord record;
+    private SpanContext parent;
+    private boolean ignoreActiveSpan;
+    private long startEpochMicros;
+
+    RecordingSpanBuilder(final RecordingTracer tracer,
+                         final RecordingTracer.ThreadState state) {
+        this.tracer = tracer;
+        this.state = state;
+    }
+
+    boolean isBuilding() {
+        return record != null;
+    }
+
+    RecordingSpanBuilder reset(final SpanRecord record) {
+        this.record = record;
+        this.parent = null;
+        this.ignoreActiveSpan = false;
+        this.startEpochMicros = 0;
+        return this;
+    }
+
+    @Override
+    public Tracer.SpanBuilder asChildOf(SpanContext parent) {
+        if (this.parent == null) {
+            this.parent = parent;
+        }
+        return this;
+    }
+
+    @Override
+    public Tracer.SpanBuilder asChildOf(Span parent) {
+        return parent == null ? this : asChildOf(parent.context());
+    }
+
+    @Override
+    public Tracer.SpanBuilder addReference(String referenceType, SpanContext referencedContext) {
+        if (References.CHILD_OF.equals(referenceType) || References.FOLLOWS_FROM.equals(referenceType)) {
+            return asChildOf(referencedContext);
+        }
+        return this;
+    }
+
+    @Override
+    public Tracer.SpanBuilder ignoreActiveSpan() {
+        this.ignoreActiveSpan = true;
+        return this;
+    }
+
+    @Override
+    public Tracer.SpanBuilder withTag(String key, String value) {
+        record.setTag(key, value);
+        return this;
+    }
+
+    @Override
+    public Tracer.SpanBuilder withTag(String key, boolean value) {
+        record.setTag(key, value);
+        return this;
+    }
+
+    @Override
+    public Tracer.SpanBuilder withTag(String key, Number value) {
+        record.setTag(key, value);
+        return this;
+    }
+
+    @Override
+    public <T> Tracer.SpanBuilder withTag(Tag<T> tag, T value) {
+        record.setTag(tag, value);
+        return this;
+    }
+
+    @Override
+    public Tracer.SpanBuilder withFunctionTags(FunctionData functionData) {
+        record.setFunctionTags(functionData.getClassName(), functionData.getMethodName());
+        return this;
+    }
+
+    @Override
+    public Tracer.SpanBuilder withStartTimestamp(long microseconds) {
+        this.startEpochMicros = microseconds;
+        return this;
+    }
+
+    @Override
+    public Span start() {
+        final SpanRecord started = record;
+        final SpanContext parentContext = parent != null || ignoreActiveSpan ? parent : activeContext();
+        tracer.start(started, parentContext, startEpochMicros);
+        reset(null);
+        return started;
+    }
+
+    private SpanContext activeContext() {
+        final Span active = state.active;
+        return active == null ? null : active.context();
+    }
+}
@@ -0,0 +1,469 @@
+package io.appform.opentracing.recorder;
+
+import io.appform.opentracing.Constants;
+import io.appform.opentracing.util.VirtualThreads;
+import io.opentracing.Scope;
+import io.opentracing.ScopeManager;
+import io.opentracing.Span;
+import io.opentracing.SpanContext;
+import io.opentracing.Tracer;
+import io.opentracing.propagation.Format;
+import io.opentracing.propagation.TextMapExtract;
+import io.opentracing.propagation.TextMapInject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Lightweight {@link Tracer} recording the fields the tracing aspect uses into pooled, primitive-field span records.
+ * <p>
+ * Builders, spans and scopes are reused per platform thread, and finished spans are encoded straight into a shared
+ * binary ring buffer, so a traced call allocates nothing in steady state as long as MDC ids are not requested
+ * ({@link io.appform.opentracing.MDCMode#LAZY}); a span that becomes a parent allocates one immutable handle for its
+ * children. A single drain thread hands the records to a {@link SpanRecordSink}; see {@link SpanRecordData} for the
+ * format. Spans are dropped and counted when the ring is full. Propagation uses B3 headers. Logs and baggage are not
+ * supported.
+ */
+public class RecordingTracer implements Tracer {
+    private static final Logger log = LoggerFactory.getLogger(RecordingTracer.class.getSimpleName());
+
+    private static final int DEFAULT_BUFFER_CAPACITY = 4 * 1024 * 1024;
+    private static final int DEFAULT_POOL_SIZE = 256;
+    private static final int DRAIN_BATCH_SIZE = 1024;
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+    private final SpanRecordRingBuffer ring;
+    private final SpanRecordSink sink;
+    private final int poolSize;
+    private final long baseEpochMicros;
+    private final long baseNanos;
+    private final ThreadLocal<ThreadState> threadState = ThreadLocal.withInitial(this::newThreadState);
+    private final ScopeManager scopeManager = new RecordingScopeManager();
+    private final SpanRecordRingBuffer.RecordHandler recordHandler = this::writeRecord;
+    private final Thread drainThread;
+
+    private final LongAdder recordedSpans = new LongAdder();
+    private final LongAdder droppedSpans = new LongAdder();
+    private final LongAdder failedSpans = new LongAdder();
+
+    private volatile boolean closed;
+    private boolean pendingFlush;
+
+    private RecordingTracer(final SpanRecordSink sink,
+                            final int bufferCapacity,
+                            final int poolSize) {
+        this.sink = sink;
+        this.ring = new SpanRecordRingBuffer(bufferCapacity);
+        this.poolSize = poolSize;
+        this.baseEpochMicros = ChronoUnit.MICROS.between(Instant.EPOCH, Instant.now());
+        this.baseNanos = System.nanoTime();
+        this.drainThread = new Thread(this::drain, "span-record-drain");
+        this.drainThread.setDaemon(true);
+    }
+
+    public static RecordingTracerBuilder builder() {
+        return new RecordingTracerBuilder();
+    }
+
+    @Override
+    public ScopeManager scopeManager() {
+        return scopeManager;
+    }
+
+    /**
+     * @return Handle of the active span, safe to hand off to other threads and to keep after the span finished
+     */
+    @Override
+    public Span activeSpan() {
+        final Span active = threadState.get().active;
+        return active instanceof SpanRecord ? ((SpanRecord) active).handle() : active;
+    }
+
+    @Override
+    public Scope activateSpan(Span span) {
+        final ThreadState state = threadState.get();
+        if (span instanceof SpanRecordHandle) {
+            final SpanRecord record = ((SpanRecordHandle) span).liveRecord();
+            span = record != null && record.owner == state ? record : span;
+        }
+        if (span instanceof SpanRecord) {
+            final SpanRecord record = (SpanRecord) span;
+            if (record.owner == state && record.scopeState == null) {
+                record.scopeState = state;
+                record.previousActive = state.active;
+                state.active = record;
+                return record;
+            }
+            span = record.handle();
+        }
+        return new RecordScope(state, span);
+    }
+
+    @Override
+    public SpanBuilder buildSpan(String operationName) {
+        final ThreadState state = threadState.get();
+        final SpanRecord record = state.nextRecord();
+        record.acquire(operationName);
+        final RecordingSpanBuilder builder = state.builder.isBuilding()
+                ? new RecordingSpanBuilder(this, state)
+                : state.builder;
+        return builder.reset(record);
+    }
+
+    @Override
+    public <C> void inject(SpanContext spanContext, Format<C> format, C carrier) {
+        if (spanContext == null || !(carrier instanceof TextMapInject)) {
+            return;
+        }
+        final TextMapInject textMap = (TextMapInject) carrier;
+        textMap.put(Constants.X_B3_TRACE_ID, spanContext.toTraceId());
+        textMap.put(Constants.X_B3_SPAN_ID, spanContext.toSpanId());
+    }
+
+    @Override
+    public <C> SpanContext extract(Format<C> format, C carrier) {
+        if (!(carrier instanceof TextMapExtract)) {
+            return null;
+        }
+        long traceId = 0;
+        long spanId = 0;
+        for (Map.Entry<String, String> entry : (TextMapExtract) carrier) {
+            if (Constants.X_B3_TRACE_ID.equalsIgnoreCase(entry.getKey())) {
+                traceId = parseHex(entry.getValue());
+            } else if (Constants.X_B3_SPAN_ID.equalsIgnoreCase(entry.getKey())) {
+                spanId = parseHex(entry.getValue());
+            }
+        }
+        return traceId == 0 || spanId == 0 ? null : new RecordContext(traceId, spanId);
+    }
+
+    /**
+     * Stops the drain thread after the records already in the buffer have been written, and closes the sink
+     */
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        LockSupport.unpark(drainThread);
+        try {
+            drainThread.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * @return Spans written to the buffer
+     */
+    public long getRecordedSpans() {
+        return recordedSpans.sum();
+    }
+
+    /**
+     * @return Spans dropped because the buffer was full or the tracer closed
+     */
+    public long getDroppedSpans() {
+        return droppedSpans.sum();
+    }
+
+    /**
+     * @return Records the sink failed to write
+     */
+    public long getFailedSpans() {
+        return failedSpans.sum();
+    }
+
+    void start(final SpanRecord record,
+               final SpanContext parent,
+               final long startEpochMicros) {
+        record.spanId = nextId();
+        if (parent instanceof SpanRecord) {
+            record.traceId = ((SpanRecord) parent).traceId;
+            record.parentId = ((SpanRecord) parent).spanId;
+        } else if (parent instanceof SpanRecordHandle) {
+            record.traceId = ((SpanRecordHandle) parent).traceId;
+            record.parentId = ((SpanRecordHandle) parent).spanId;
+        } else if (parent instanceof RecordContext) {
+            record.traceId = ((RecordContext) parent).traceId;
+            record.parentId = ((RecordContext) parent).spanId;
+        } else if (parent != null) {
+            record.traceId = parseHex(parent.toTraceId());
+            record.parentId = parseHex(parent.toSpanId());
+        }
+        if (record.traceId == 0) {
+            record.traceId = nextId();
+            record.parentId = 0;
+        }
+        record.startNanos = System.nanoTime();
+        record.startEpochMicros = startEpochMicros != 0
+                ? startEpochMicros
+                : baseEpochMicros + (record.startNanos - baseNanos) / 1000;
+    }
+
+    void finish(final SpanRecord record,
+                final long durationNanos) {
+        int offset = -1;
+        int size = 0;
+        try {
+            size = record.encodedSize();
+            offset = closed ? -1 : ring.claim(size);
+            if (offset >= 0) {
+                record.encode(ring.buffer(), offset, durationNanos);
+                ring.publish(offset, size);
+                offset = -1;
+                recordedSpans.increment();
+                return;
+            }
+            droppedSpans.increment();
+        } catch (RuntimeException e) {
+            droppedSpans.increment();
+            throw e;
+        } finally {
+            if (offset >= 0) {
+                ring.discard(offset, size);
+            }
+            record.release();
+        }
+    }
+
+    void deactivate(final SpanRecord record) {
+        final ThreadState state = record.scopeState;
+        if (state == null) {
+            return;
+        }
+        if (state.active == record) {
+            state.active = record.previousActive;
+        }
+        record.scopeState = null;
+        record.previousActive = null;
+    }
+
+    static String toHex(final long value) {
+        final char[] chars = new char[16];
+        for (int i = 15; i >= 0; i--) {
+            chars[i] = HEX_DIGITS[(int) (value >>> ((15 - i) * 4)) & 0xf];
+        }
+        return new String(chars);
+    }
+
+    private static long parseHex(final String value) {
+        if (value == null || value.isEmpty()) {
+            return 0;
+        }
+        try {
+            return Long.parseUnsignedLong(value.length() > 16 ? value.substring(value.length() - 16) : value, 16);
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    private static long nextId() {
+        long id;
+        do {
+            id = ThreadLocalRandom.current().nextLong();
+        } while (id == 0);
+        return id;
+    }
+
+    private ThreadState newThreadState() {
+        final boolean pooled = !VirtualThreads.isCurrentThreadVirtual();
+        return new ThreadState(this, pooled ? new SpanRecord[poolSize] : null);
+    }
+
+    private RecordingTracer start() {
+        drainThread.start();
+        return this;
+    }
+
+    private void drain() {
+        while (true) {
+            final boolean stopping = closed;
+            if (ring.read(recordHandler, DRAIN_BATCH_SIZE) > 0) {
+                pendingFlush = true;
+                continue;
+            }
+            if (pendingFlush) {
+                pendingFlush = false;
+                try {
+                    sink.flush();
+                } catch (Exception e) {
+                    log.error("Error flushing span record sink: ", e);
+                }
+            }
+            if (stopping) {
+                break;
+            }
+            LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+        }
+        try {
+            sink.close();
+        } catch (Exception e) {
+            log.error("Error closing span record sink: ", e);
+        }
+    }
+
+    private void writeRecord(final ByteBuffer buffer,
+                             final int offset,
+                             final int length) {
+        try {
+            sink.write(buffer, offset, length);
+        } catch (Exception e) {
+            failedSpans.increment();
+            log.error("Error writing span record: ", e);
+        }
+    }
+
+    /**
+     * Per thread state: the active span, the record pool and a reusable builder
+     */
+    static final class ThreadState {
+        private final RecordingTracer tracer;
+        private final SpanRecord[] pool;
+        private final RecordingSpanBuilder builder;
+        private int poolIndex;
+        Span active;
+
+        private ThreadState(final RecordingTracer tracer,
+                            final SpanRecord[] pool) {
+            this.tracer = tracer;
+            this.pool = pool;
+            this.builder = new RecordingSpanBuilder(tracer, this);
+        }
+
+        /**
+         * Records are taken round robin, so a finished record is reused only after pool size more spans were started
+         * on this thread. Records still in use or still active are left to their holders and replaced. References
+         * handed out through {@link SpanRecord#context()} and {@link #activeSpan()} are immutable handles and are
+         * not affected by the reuse.
+         */
+        SpanRecord nextRecord() {
+            if (pool == null) {
+                return new SpanRecord(tracer, this);
+            }
+            final int index = poolIndex;
+            poolIndex = (index + 1) & (pool.length - 1);
+            SpanRecord record = pool[index];
+            if (record == null || record.isInUse() || record.scopeState != null) {
+                record = new SpanRecord(tracer, this);
+                pool[index] = record;
+            }
+            return record;
+        }
+    }
+
+    /**
+     * Scope for activations a record cannot serve itself: foreign spans, other threads and nested re-activation
+     */
+    private static final class RecordScope implements Scope {
+        private final ThreadState state;
+        private final Span span;
+        private final Span previous;
+
+        private RecordScope(final ThreadState state,
+                            final Span span) {
+            this.state = state;
+            this.span = span;
+            this.previous = state.active;
+            state.active = span;
+        }
+
+        @Override
+        public void close() {
+            if (state.active == span) {
+                state.active = previous;
+            }
+        }
+    }
+
+    /**
+     * Context extracted from B3 headers
+     */
+    private static final class RecordContext implements SpanContext {
+        private final long traceId;
+        private final long spanId;
+
+        private RecordContext(final long traceId,
+                              final long spanId) {
+            this.traceId = traceId;
+            this.spanId = spanId;
+        }
+
+        @Override
+        public String toTraceId() {
+            return toHex(traceId);
+        }
+
+        @Override
+        public String toSpanId() {
+            return toHex(spanId);
+        }
+
+        @Override
+        public Iterable<Map.Entry<String, String>> baggageItems() {
+            return Collections.emptySet();
+        }
+    }
+
+    private final class RecordingScopeManager implements ScopeManager {
+        @Override
+        public Scope activate(Span span) {
+            return activateSpan(span);
+        }
+
+        @Override
+        public Span activeSpan() {
+            return RecordingTracer.this.activeSpan();
+        }
+    }
+
+    public static class RecordingTracerBuilder {
+        private SpanRecordSink sink;
+        private int bufferCapacity = DEFAULT_BUFFER_CAPACITY;
+        private int poolSize = DEFAULT_POOL_SIZE;
+
+        public RecordingTracerBuilder sink(final SpanRecordSink sink) {
+            this.sink = sink;
+            return this;
+        }
+
+        /**
+         * Size of the shared record buffer in bytes, a power of two
+         */
+        public RecordingTracerBuilder bufferCapacity(final int bufferCapacity) {
+            this.bufferCapacity = bufferCapacity;
+            return this;
+        }
+
+        /**
+         * Span records pooled per platform thread, a power of two
+         */
+        public RecordingTracerBuilder poolSize(final int poolSize) {
+            this.poolSize = poolSize;
+            return this;
+        }
+
+        /**
+         * Builds the tracer and starts its drain thread
+         */
+        public RecordingTracer build() {
+            Objects.requireNonNull(sink, "Span record sink is required");
+            if (poolSize <= 0 || Integer.bitCount(poolSize) != 1) {
+                throw new IllegalArgumentException("Pool size must be a power of two");
+            }
+            return new RecordingTracer(sink, bufferCapacity, poolSize).start();
+        }
+    }
+}
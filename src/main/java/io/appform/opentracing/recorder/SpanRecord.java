@@ -0,0 +1,270 @@
+package io.appform.opentracing.recorder;
+
+import io.appform.opentracing.TracingConstants;
+import io.appform.opentracing.util.Utf8;
+import io.opentracing.Scope;
+import io.opentracing.Span;
+import io.opentracing.SpanContext;
+import io.opentracing.tag.Tag;
+
+import java.nio.ByteBuffer;
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Pooled span of the {@link RecordingTracer}. Keeps only primitive fields and the strings the tracing aspect sets,
+ * and doubles as the parent context of spans started while it is active and, when activated on the thread that
+ * started it, its own {@link Scope}. Logs and baggage are not recorded.
+ * <p>
+ * A record is reused by its owning thread after it is finished, so it is handed out only to the code that started
+ * it. Everything else, {@link #context()} and the active span returned by the tracer, gets a {@link SpanRecordHandle}
+ * created on first use: its ids never change and it stops forwarding to the record once the record is finished, so
+ * executor hand-offs and async completions holding it can not attach to a later span.
+ */
+final class SpanRecord implements Span, SpanContext, Scope {
+    static final byte STATUS_UNKNOWN = 0;
+    static final byte STATUS_SUCCESS = 1;
+    static final byte STATUS_FAILURE = 2;
+    static final int MAX_EXTRA_TAGS = 8;
+
+    private static final int FIXED_SIZE = 1 + 1 + 2 + 8 + 8 + 8 + 8 + 8;
+
+    private final RecordingTracer tracer;
+    final RecordingTracer.ThreadState owner;
+
+    private volatile boolean inUse;
+    private volatile SpanRecordHandle handle;
+
+    long traceId;
+    long spanId;
+    long parentId;
+    long startNanos;
+    long startEpochMicros;
+
+    private String operationName;
+    private String className;
+    private String methodName;
+    private String parameterString;
+    private byte status;
+    private final String[] tagKeys = new String[MAX_EXTRA_TAGS];
+    private final String[] tagValues = new String[MAX_EXTRA_TAGS];
+    private int tagCount;
+
+    /* Scope state, only touched by the owning thread */
+    RecordingTracer.ThreadState scopeState;
+    Span previousActive;
+
+    SpanRecord(final RecordingTracer tracer,
+               final RecordingTracer.ThreadState owner) {
+        this.tracer = tracer;
+        this.owner = owner;
+    }
+
+    boolean isInUse() {
+        return inUse;
+    }
+
+    void acquire(final String operationName) {
+        this.traceId = 0;
+        this.spanId = 0;
+        this.parentId = 0;
+        this.handle = null;
+        this.operationName = operationName;
+        this.inUse = true;
+    }
+
+    void setFunctionTags(final String className,
+                         final String methodName) {
+        this.className = className;
+        this.methodName = methodName;
+    }
+
+    /**
+     * @return Immutable handle of this use of the record
+     */
+    @Override
+    public SpanContext context() {
+        return handle();
+    }
+
+    SpanRecordHandle handle() {
+        SpanRecordHandle current = handle;
+        if (current == null) {
+            current = new SpanRecordHandle(this, traceId, spanId);
+            handle = current;
+        }
+        return current;
+    }
+
+    boolean isHandedOutAs(final SpanRecordHandle candidate) {
+        return handle == candidate;
+    }
+
+    @Override
+    public Span setTag(String key, String value) {
+        if (isTag(key, TracingConstants.CLASS_NAME_TAG)) {
+            className = value;
+        } else if (isTag(key, TracingConstants.METHOD_NAME_TAG)) {
+            methodName = value;
+        } else if (isTag(key, TracingConstants.PARAMETER_STRING_TAG)) {
+            parameterString = value;
+        } else if (isTag(key, TracingConstants.METHOD_STATUS_TAG) && isTag(value, TracingConstants.STATUS_SUCCESS)) {
+            status = STATUS_SUCCESS;
+        } else if (isTag(key, TracingConstants.METHOD_STATUS_TAG) && isTag(value, TracingConstants.STATUS_FAILURE)) {
+            status = STATUS_FAILURE;
+        } else if (tagCount < MAX_EXTRA_TAGS) {
+            tagKeys[tagCount] = key;
+            tagValues[tagCount++] = value;
+        }
+        return this;
+    }
+
+    @Override
+    public Span setTag(String key, boolean value) {
+        return setTag(key, value ? "true" : "false");
+    }
+
+    @Override
+    public Span setTag(String key, Number value) {
+        return setTag(key, String.valueOf(value));
+    }
+
+    @Override
+    public <T> Span setTag(Tag<T> tag, T value) {
+        tag.set(this, value);
+        return this;
+    }
+
+    @Override
+    public Span log(Map<String, ?> fields) {
+        return this;
+    }
+
+    @Override
+    public Span log(long timestampMicroseconds, Map<String, ?> fields) {
+        return this;
+    }
+
+    @Override
+    public Span log(String event) {
+        return this;
+    }
+
+    @Override
+    public Span log(long timestampMicroseconds, String event) {
+        return this;
+    }
+
+    @Override
+    public Span setBaggageItem(String key, String value) {
+        return this;
+    }
+
+    @Override
+    public String getBaggageItem(String key) {
+        return null;
+    }
+
+    @Override
+    public Span setOperationName(String operationName) {
+        this.operationName = operationName;
+        return this;
+    }
+
+    @Override
+    public void finish() {
+        if (inUse) {
+            tracer.finish(this, System.nanoTime() - startNanos);
+        }
+    }
+
+    @Override
+    public void finish(long finishMicros) {
+        if (inUse) {
+            tracer.finish(this, Math.max(0, finishMicros - startEpochMicros) * 1000);
+        }
+    }
+
+    @Override
+    public String toTraceId() {
+        return RecordingTracer.toHex(traceId);
+    }
+
+    @Override
+    public String toSpanId() {
+        return RecordingTracer.toHex(spanId);
+    }
+
+    @Override
+    public Iterable<Map.Entry<String, String>> baggageItems() {
+        return Collections.emptySet();
+    }
+
+    /**
+     * Closes the scope created when this span was activated on its owning thread
+     */
+    @Override
+    public void close() {
+        tracer.deactivate(this);
+    }
+
+    int encodedSize() {
+        int size = FIXED_SIZE
+                + Utf8.sizeOf(operationName)
+                + Utf8.sizeOf(className)
+                + Utf8.sizeOf(methodName)
+                + Utf8.sizeOf(parameterString);
+        for (int i = 0; i < tagCount; i++) {
+            size += Utf8.sizeOf(tagKeys[i]) + Utf8.sizeOf(tagValues[i]);
+        }
+        return size;
+    }
+
+    /**
+     * Writes the record in the format read by {@link SpanRecordData#decode}
+     */
+    void encode(final ByteBuffer buffer,
+                int offset,
+                final long durationNanos) {
+        buffer.put(offset, SpanRecordData.VERSION);
+        buffer.put(offset + 1, status);
+        buffer.putShort(offset + 2, (short) tagCount);
+        buffer.putLong(offset + 4, traceId);
+        buffer.putLong(offset + 12, spanId);
+        buffer.putLong(offset + 20, parentId);
+        buffer.putLong(offset + 28, startEpochMicros);
+        buffer.putLong(offset + 36, durationNanos);
+        offset += FIXED_SIZE;
+        offset = Utf8.write(buffer, offset, operationName);
+        offset = Utf8.write(buffer, offset, className);
+        offset = Utf8.write(buffer, offset, methodName);
+        offset = Utf8.write(buffer, offset, parameterString);
+        for (int i = 0; i < tagCount; i++) {
+            offset = Utf8.write(buffer, offset, tagKeys[i]);
+            offset = Utf8.write(buffer, offset, tagValues[i]);
+        }
+    }
+
+    /**
+     * Drops references held by the finished span and makes it available to its owner again. The ids are kept for
+     * children started after the span finished and are cleared by {@link #acquire(String)}.
+     */
+    void release() {
+        operationName = null;
+        className = null;
+        methodName = null;
+        parameterString = null;
+        status = STATUS_UNKNOWN;
+        for (int i = 0; i < tagCount; i++) {
+            tagKeys[i] = null;
+            tagValues[i] = null;
+        }
+        tagCount = 0;
+        inUse = false;
+    }
+
+    private static boolean isTag(final String value,
+                                 final String constant) {
+        return value == constant || constant.equals(value);
+    }
+}
@@ -0,0 +1,169 @@
+package io.appform.opentracing.recorder;
+
+import io.appform.opentracing.TracingConstants;
+import io.appform.opentracing.util.Utf8;
+
+import java.nio.ByteBuffer;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Decoded span written by the {@link RecordingTracer}.
+ * <p>
+ * Wire format, big endian: version (1 byte), status (1 byte: 0 unknown, 1 success, 2 failure), extra tag count
+ * (2 bytes), trace id, span id, parent id (0 for roots), start in epoch microseconds, duration in nanoseconds
+ * (8 bytes each), followed by operation name, class name, method name, parameter string and the extra tag key/value
+ * pairs as length prefixed UTF-8 strings (length -1 for null).
+ */
+public final class SpanRecordData {
+    static final byte VERSION = 1;
+
+    private final long traceId;
+    private final long spanId;
+    private final long parentId;
+    private final long startEpochMicros;
+    private final long durationNanos;
+    private final String operationName;
+    private final String className;
+    private final String methodName;
+    private final String parameterString;
+    private final String status;
+    private final Map<String, String> tags;
+
+    private SpanRecordData(final long traceId,
+                           final long spanId,
+                           final long parentId,
+                           final long startEpochMicros,
+                           final long durationNanos,
+                           final String operationName,
+                           final String className,
+                           final String methodName,
+                           final String parameterString,
+                           final String status,
+                           final Map<String, String> tags) {
+        this.traceId = traceId;
+        this.spanId = spanId;
+        this.parentId = parentId;
+        this.startEpochMicros = startEpochMicros;
+        this.durationNanos = durationNanos;
+        this.operationName = operationName;
+        this.className = className;
+        this.methodName = methodName;
+        this.parameterString = parameterString;
+        this.status = status;
+        this.tags = tags;
+    }
+
+    /**
+     * Decodes a record handed to a {@link SpanRecordSink}
+     */
+    public static SpanRecordData decode(final ByteBuffer buffer,
+                                        final int offset) {
+        final byte version = buffer.get(offset);
+        if (version != VERSION) {
+            throw new IllegalArgumentException("Unsupported span record version: " + version);
+        }
+        final byte statusCode = buffer.get(offset + 1);
+        final int tagCount = buffer.getShort(offset + 2);
+        final long traceId = buffer.getLong(offset + 4);
+        final long spanId = buffer.getLong(offset + 12);
+        final long parentId = buffer.getLong(offset + 20);
+        final long startEpochMicros = buffer.getLong(offset + 28);
+        final long durationNanos = buffer.getLong(offset + 36);
+        final int[] position = {offset + 44};
+        final String operationName = readString(buffer, position);
+        final String className = readString(buffer, position);
+        final String methodName = readString(buffer, position);
+        final String parameterString = readString(buffer, position);
+        final Map<String, String> tags = new LinkedHashMap<>();
+        for (int i = 0; i < tagCount; i++) {
+            tags.put(readString(buffer, position), readString(buffer, position));
+        }
+        return new SpanRecordData(traceId, spanId, parentId, startEpochMicros, durationNanos, operationName,
+                className, methodName, parameterString, status(statusCode), Collections.unmodifiableMap(tags));
+    }
+
+    public long getTraceId() {
+        return traceId;
+    }
+
+    public long getSpanId() {
+        return spanId;
+    }
+
+    /**
+     * @return Parent span id, 0 for a root span
+     */
+    public long getParentId() {
+        return parentId;
+    }
+
+    public long getStartEpochMicros() {
+        return startEpochMicros;
+    }
+
+    public long getDurationNanos() {
+        return durationNanos;
+    }
+
+    public String getOperationName() {
+        return operationName;
+    }
+
+    public String getClassName() {
+        return className;
+    }
+
+    public String getMethodName() {
+        return methodName;
+    }
+
+    public String getParameterString() {
+        return parameterString;
+    }
+
+    /**
+     * @return {@link TracingConstants#STATUS_SUCCESS}, {@link TracingConstants#STATUS_FAILURE} or null
+     */
+    public String getStatus() {
+        return status;
+    }
+
+    /**
+     * @return Tags other than the ones with dedicated fields
+     */
+    public Map<String, String> getTags() {
+        return tags;
+    }
+
+    @Override
+    public String toString() {
+        return "SpanRecordData{" +
+                "traceId=" + RecordingTracer.toHex(traceId) +
+                ", spanId=" + RecordingTracer.toHex(spanId) +
+                ", parentId=" + RecordingTracer.toHex(parentId) +
+                ", operationName='" + operationName + '\'' +
+                ", durationNanos=" + durationNanos +
+                ", status=" + status +
+                '}';
+    }
+
+    private static String readString(final ByteBuffer buffer,
+                                     final int[] position) {
+        final String value = Utf8.read(buffer, position[0]);
+        position[0] += 4 + Math.max(0, buffer.getInt(position[0]));
+        return value;
+    }
+
+    private static String status(final byte statusCode) {
+        switch (statusCode) {
+            case SpanRecord.STATUS_SUCCESS:
+                return TracingConstants.STATUS_SUCCESS;
+            case SpanRecord.STATUS_FAILURE:
+                return TracingConstants.STATUS_FAILURE;
+            default:
+                return null;
+        }
+    }
+}
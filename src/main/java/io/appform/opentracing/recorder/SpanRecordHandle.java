@@ -0,0 +1,142 @@
+package io.appform.opentracing.recorder;
+
+import io.opentracing.Span;
+import io.opentracing.SpanContext;
+import io.opentracing.tag.Tag;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Reference to one use of a pooled {@link SpanRecord}, handed out wherever the span may outlive that use. The ids are
+ * copied when the handle is created; tags and finish are forwarded to the record only while it is unfinished and
+ * still serving the same span, and are ignored afterwards.
+ */
+final class SpanRecordHandle implements Span, SpanContext {
+    private final SpanRecord record;
+    final long traceId;
+    final long spanId;
+
+    SpanRecordHandle(final SpanRecord record,
+                     final long traceId,
+                     final long spanId) {
+        this.record = record;
+        this.traceId = traceId;
+        this.spanId = spanId;
+    }
+
+    /**
+     * @return The record while it still serves the span this handle was created for, null otherwise
+     */
+    SpanRecord liveRecord() {
+        return record.isInUse() && record.isHandedOutAs(this) ? record : null;
+    }
+
+    @Override
+    public SpanContext context() {
+        return this;
+    }
+
+    @Override
+    public Span setTag(String key, String value) {
+        final SpanRecord live = liveRecord();
+        if (live != null) {
+            live.setTag(key, value);
+        }
+        return this;
+    }
+
+    @Override
+    public Span setTag(String key, boolean value) {
+        final SpanRecord live = liveRecord();
+        if (live != null) {
+            live.setTag(key, value);
+        }
+        return this;
+    }
+
+    @Override
+    public Span setTag(String key, Number value) {
+        final SpanRecord live = liveRecord();
+        if (live != null) {
+            live.setTag(key, value);
+        }
+        return this;
+    }
+
+    @Override
+    public <T> Span setTag(Tag<T> tag, T value) {
+        tag.set(this, value);
+        return this;
+    }
+
+    @Override
+    public Span log(Map<String, ?> fields) {
+        return this;
+    }
+
+    @Override
+    public Span log(long timestampMicroseconds, Map<String, ?> fields) {
+        return this;
+    }
+
+    @Override
+    public Span log(String event) {
+        return this;
+    }
+
+    @Override
+    public Span log(long timestampMicroseconds, String event) {
+        return this;
+    }
+
+    @Override
+    public Span setBaggageItem(String key, String value) {
+        return this;
+    }
+
+    @Override
+    public String getBaggageItem(String key) {
+        return null;
+    }
+
+    @Override
+    public Span setOperationName(String operationName) {
+        final SpanRecord live = liveRecord();
+        if (live != null) {
+            live.setOperationName(operationName);
+        }
+        return this;
+    }
+
+    @Override
+    public void finish() {
+        final SpanRecord live = liveRecord();
+        if (live != null) {
+            live.finish();
+        }
+    }
+
+    @Override
+    public void finish(long finishMicros) {
+        final SpanRecord live = liveRecord();
+        if (live != null) {
+            live.finish(finishMicros);
+        }
+    }
+
+    @Override
+    public String toTraceId() {
+        return RecordingTracer.toHex(traceId);
+    }
+
+    @Override
+    public String toSpanId() {
+        return RecordingTracer.toHex(spanId);
+    }
+
+    @Override
+    public Iterable<Map.Entry<String, String>> baggageItems() {
+        return Collections.emptySet();
+    }
+}
@@ -0,0 +1,140 @@
+package io.appform.opentracing.recorder;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded many producer, single consumer ring of variable length binary records in a direct buffer.
+ * <p>
+ * Producers claim space with a CAS on the tail, write the record with absolute puts and publish it by storing its
+ * length with release semantics. A record that would straddle the end of the buffer is preceded by a padding record
+ * and starts at offset zero. The consumer reads published records in order, zeroes their memory and advances the
+ * head, so a zero header always means "not yet published".
+ */
+final class SpanRecordRingBuffer {
+    static final int HEADER_SIZE = 4;
+
+    private static final int ALIGNMENT = 8;
+    private static final VarHandle INT_VIEW = MethodHandles.byteBufferViewVarHandle(int[].class, ByteOrder.BIG_ENDIAN);
+
+    private final ByteBuffer buffer;
+    private final int capacity;
+    private final int mask;
+    private final AtomicLong tail = new AtomicLong();
+    private final AtomicLong head = new AtomicLong();
+
+    /**
+     * Handles one published record, valid only for the duration of the call
+     */
+    @FunctionalInterface
+    interface RecordHandler {
+        void onRecord(ByteBuffer buffer, int offset, int length);
+    }
+
+    SpanRecordRingBuffer(final int capacity) {
+        if (capacity < 1024 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Capacity must be a power of two of at least 1KB");
+        }
+        this.capacity = capacity;
+        this.mask = capacity - 1;
+        this.buffer = ByteBuffer.allocateDirect(capacity);
+    }
+
+    /**
+     * @return Offset of the payload for {@link #publish}, -1 if there is not enough free space
+     */
+    int claim(final int payloadLength) {
+        final int recordLength = align(HEADER_SIZE + payloadLength);
+        if (recordLength > capacity) {
+            return -1;
+        }
+        while (true) {
+            final long currentTail = tail.get();
+            final int available = capacity - (int) (currentTail - head.get());
+            final int index = (int) currentTail & mask;
+            final int toEnd = capacity - index;
+            if (recordLength <= toEnd) {
+                if (recordLength > available) {
+                    return -1;
+                }
+                if (tail.compareAndSet(currentTail, currentTail + recordLength)) {
+                    return index + HEADER_SIZE;
+                }
+            } else {
+                if (toEnd + recordLength > available) {
+                    return -1;
+                }
+                if (tail.compareAndSet(currentTail, currentTail + toEnd + recordLength)) {
+                    INT_VIEW.setRelease(buffer, index, -toEnd);
+                    return HEADER_SIZE;
+                }
+            }
+        }
+    }
+
+    void publish(final int payloadOffset,
+                 final int payloadLength) {
+        INT_VIEW.setRelease(buffer, payloadOffset - HEADER_SIZE, payloadLength);
+    }
+
+    /**
+     * Publishes claimed space that could not be written as padding, so the consumer skips it instead of waiting on it
+     */
+    void discard(final int payloadOffset,
+                 final int payloadLength) {
+        INT_VIEW.setRelease(buffer, payloadOffset - HEADER_SIZE, -align(HEADER_SIZE + payloadLength));
+    }
+
+    ByteBuffer buffer() {
+        return buffer;
+    }
+
+    /**
+     * Consumer thread only
+     *
+     * @return Number of records handed to the handler
+     */
+    int read(final RecordHandler handler,
+             final int maxRecords) {
+        long position = head.get();
+        int records = 0;
+        while (records < maxRecords) {
+            final int index = (int) position & mask;
+            final int header = (int) INT_VIEW.getAcquire(buffer, index);
+            if (header == 0) {
+                break;
+            }
+            final int recordLength;
+            if (header > 0) {
+                recordLength = align(HEADER_SIZE + header);
+                try {
+                    handler.onRecord(buffer, index + HEADER_SIZE, header);
+                } finally {
+                    records++;
+                }
+            } else {
+                recordLength = -header;
+            }
+            for (int i = index; i < index + recordLength; i += ALIGNMENT) {
+                buffer.putLong(i, 0L);
+            }
+            position += recordLength;
+            head.set(position);
+        }
+        return records;
+    }
+
+    /**
+     * @return Bytes claimed and not yet consumed
+     */
+    int size() {
+        return (int) (tail.get() - head.get());
+    }
+
+    private static int align(final int length) {
+        return (length + ALIGNMENT - 1) & -ALIGNMENT;
+    }
+}
@@ -0,0 +1,30 @@
+package io.appform.opentracing.recorder;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Receives binary span records from the {@link RecordingTracer}. Called from its single drain thread only.
+ */
+public interface SpanRecordSink extends Closeable {
+
+    /**
+     * @param buffer Buffer holding the record, only valid for the duration of the call
+     * @param offset Offset of the record, see {@link SpanRecordData} for the format
+     * @param length Length of the record in bytes
+     */
+    void write(ByteBuffer buffer, int offset, int length) throws IOException;
+
+    /**
+     * Called whenever the drain thread has caught up with the producers
+     */
+    default void flush() throws IOException {
+        /* Nothing to do by default */
+    }
+
+    @Override
+    default void close() throws IOException {
+        /* Nothing to do by default */
+    }
+}
@@ -0,0 +1,32 @@
+package io.appform.opentracing.reporting;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Appends every batch as one line of JSON to a file. Meant for tests and local debugging.
+ */
+public class FileSpanSink implements SpanSink {
+    private final OutputStream outputStream;
+
+    public FileSpanSink(final Path path) throws IOException {
+        this.outputStream = new BufferedOutputStream(Files.newOutputStream(path,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND));
+    }
+
+    @Override
+    public void write(byte[] encodedSpans, int spanCount) throws IOException {
+        outputStream.write(encodedSpans);
+        outputStream.write('\n');
+        outputStream.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        outputStream.close();
+    }
+}
@@ -0,0 +1,51 @@
+package io.appform.opentracing.reporting;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+
+/**
+ * POSTs batches to a Zipkin v2 compatible collector endpoint, for example {@code http://localhost:9411/api/v2/spans}
+ */
+public class HttpSpanSink implements SpanSink {
+    private static final int DEFAULT_TIMEOUT_MILLIS = 5_000;
+
+    private final URL endpoint;
+    private final int timeoutMillis;
+
+    public HttpSpanSink(final URL endpoint) {
+        this(endpoint, DEFAULT_TIMEOUT_MILLIS);
+    }
+
+    public HttpSpanSink(final URL endpoint,
+                        final int timeoutMillis) {
+        this.endpoint = endpoint;
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    @Override
+    public void write(byte[] encodedSpans, int spanCount) throws IOException {
+        final HttpURLConnection connection = (HttpURLConnection) endpoint.openConnection();
+        try {
+            connection.setConnectTimeout(timeoutMillis);
+            connection.setReadTimeout(timeoutMillis);
+            connection.setRequestMethod("POST");
+            connection.setRequestProperty("Content-Type", "application/json");
+            connection.setDoOutput(true);
+            connection.setFixedLengthStreamingMode(encodedSpans.length);
+            try (OutputStream outputStream = connection.getOutputStream()) {
+                outputStream.write(encodedSpans);
+            }
+            final int status = connection.getResponseCode();
+            try (InputStream ignored = status >= 400 ? connection.getErrorStream() : connection.getInputStream()) {
+                if (status / 100 != 2) {
+                    throw new IOException("Collector responded with status " + status + " for " + spanCount + " spans");
+                }
+            }
+        } finally {
+            connection.disconnect();
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package io.appform.opentracing.reporting;
+
+import java.util.Collection;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Bounded, lock-free multi producer single consumer ring buffer.
+ * <p>
+ * Every slot carries a sequence number (after D. Vyukov's bounded queue): producers claim a slot with a CAS on the
+ * tail and publish it by advancing the slot sequence; the single consumer reads slots in order without any CAS.
+ * {@link #offer} never blocks and fails when the buffer is full.
+ */
+public class MpscRingBuffer<E> {
+    private final int mask;
+    private final AtomicReferenceArray<E> elements;
+    private final AtomicLongArray sequences;
+    private final AtomicLong tail = new AtomicLong();
+    private long head;
+
+    /**
+     * @param capacity Rounded up to a power of two
+     */
+    public MpscRingBuffer(final int capacity) {
+        if (capacity < 2 || capacity > (1 << 30)) {
+            throw new IllegalArgumentException("Capacity must be between 2 and 2^30");
+        }
+        final int size = Integer.highestOneBit(capacity - 1) << 1;
+        this.mask = size - 1;
+        this.elements = new AtomicReferenceArray<>(size);
+        this.sequences = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    public int capacity() {
+        return mask + 1;
+    }
+
+    /**
+     * Safe to call from any thread
+     * @return false if the buffer is full
+     */
+    public boolean offer(final E element) {
+        long position = tail.get();
+        while (true) {
+            final int index = (int) position & mask;
+            final long difference = sequences.get(index) - position;
+            if (difference == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    elements.lazySet(index, element);
+                    sequences.lazySet(index, position + 1);
+                    return true;
+                }
+                position = tail.get();
+            } else if (difference < 0) {
+                return false;
+            } else {
+                position = tail.get();
+            }
+        }
+    }
+
+    /**
+     * Consumer thread only
+     * @return Next element, null if the buffer is empty
+     */
+    public E poll() {
+        final int index = (int) head & mask;
+        if (sequences.get(index) - (head + 1) < 0) {
+            return null;
+        }
+        final E element = elements.get(index);
+        elements.lazySet(index, null);
+        sequences.lazySet(index, head + mask + 1);
+        head++;
+        return element;
+    }
+
+    /**
+     * Consumer thread only
+     * @return Number of elements moved into the collection
+     */
+    public int drainTo(final Collection<? super E> collection,
+                       final int maxElements) {
+        int drained = 0;
+        while (drained < maxElements) {
+            final E element = poll();
+            if (element == null) {
+                break;
+            }
+            collection.add(element);
+            drained++;
+        }
+        return drained;
+    }
+
+    /**
+     * @return Approximate number of elements in the buffer
+     */
+    public int size() {
+        final long size = tail.get() - head;
+        return (int) Math.max(0, Math.min(size, capacity()));
+    }
+}
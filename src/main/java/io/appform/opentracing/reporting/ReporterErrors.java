@@ -0,0 +1,51 @@
+package io.appform.opentracing.reporting;
+
+import org.slf4j.Logger;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Errors raised on a reporter thread, logged like {@link io.appform.opentracing.TracingErrors} does: the first one of
+ * each kind with its stack trace, repeats at most once per minute with the number suppressed in between. A collector
+ * that stays down therefore does not flood the log with a stack trace per batch. Owned by a single reporter thread.
+ */
+final class ReporterErrors {
+    static final long LOG_INTERVAL_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+    private final Logger log;
+    private final Map<String, Map<Class<?>, Repeats>> repeats = new HashMap<>();
+
+    ReporterErrors(final Logger log) {
+        this.log = log;
+    }
+
+    void report(final String operation,
+                final Exception error) {
+        final Map<Class<?>, Repeats> operationRepeats = repeats.computeIfAbsent(operation, key -> new HashMap<>());
+        final long now = System.nanoTime();
+        final Repeats errorRepeats = operationRepeats.get(error.getClass());
+        if (errorRepeats == null) {
+            operationRepeats.put(error.getClass(), new Repeats(now));
+            log.error("Error while " + operation, error);
+            return;
+        }
+        if (now - errorRepeats.lastLoggedNanos < LOG_INTERVAL_NANOS) {
+            errorRepeats.suppressed++;
+            return;
+        }
+        log.warn("Error while {}: {} ({} similar errors suppressed)", operation, error, errorRepeats.suppressed);
+        errorRepeats.lastLoggedNanos = now;
+        errorRepeats.suppressed = 0;
+    }
+
+    private static final class Repeats {
+        private long lastLoggedNanos;
+        private long suppressed;
+
+        private Repeats(final long lastLoggedNanos) {
+            this.lastLoggedNanos = lastLoggedNanos;
+        }
+    }
+}
@@ -0,0 +1,264 @@
+package io.appform.opentracing.reporting;
+
+import brave.Tags;
+import brave.handler.MutableSpan;
+import brave.handler.MutableSpanBytesEncoder;
+import brave.handler.SpanHandler;
+import brave.propagation.TraceContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Brave {@link SpanHandler} that moves reporting off the traced threads.
+ * <p>
+ * Finished spans are offered to a lock-free {@link MpscRingBuffer}; the traced thread never blocks, takes a lock or
+ * does any I/O. A single daemon thread drains the buffer, encodes spans in batches of up to {@code maxBatchSize}
+ * as a Zipkin v2 JSON list and hands them to the {@link SpanSink}. Partial batches are flushed every
+ * {@code flushInterval}. When the buffer is full spans are dropped and counted, so a slow collector never
+ * back-pressures the application.
+ */
+public class SpanBatchingHandler extends SpanHandler implements Closeable {
+    private static final Logger log = LoggerFactory.getLogger(SpanBatchingHandler.class.getSimpleName());
+
+    private static final int DEFAULT_QUEUE_CAPACITY = 8192;
+    private static final int DEFAULT_MAX_BATCH_SIZE = 512;
+    private static final long DEFAULT_FLUSH_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+    private static final int NOT_PARKED = Integer.MAX_VALUE;
+
+    private final MpscRingBuffer<MutableSpan> queue;
+    private final SpanSink sink;
+    private final MutableSpanBytesEncoder encoder;
+    private final int maxBatchSize;
+    private final long flushIntervalNanos;
+    private final Thread reporterThread;
+
+    private final LongAdder acceptedSpans = new LongAdder();
+    private final LongAdder droppedSpans = new LongAdder();
+    private final LongAdder reportedSpans = new LongAdder();
+    private final LongAdder failedSpans = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+
+    /* Threads inside end(); the reporter stops only once none of them can still offer a span */
+    private final LongAdder producers = new LongAdder();
+
+    private final ReporterErrors errors = new ReporterErrors(log);
+
+    /* Queue depth at which a producer wakes up the parked reporter to flush a full batch */
+    private volatile int wakeUpDepth = NOT_PARKED;
+    private volatile boolean closed;
+
+    private SpanBatchingHandler(final SpanSink sink,
+                                final MutableSpanBytesEncoder encoder,
+                                final int queueCapacity,
+                                final int maxBatchSize,
+                                final long flushIntervalNanos) {
+        this.sink = sink;
+        this.encoder = encoder;
+        this.queue = new MpscRingBuffer<>(queueCapacity);
+        this.maxBatchSize = maxBatchSize;
+        this.flushIntervalNanos = flushIntervalNanos;
+        this.reporterThread = new Thread(this::report, "span-batching-reporter");
+        this.reporterThread.setDaemon(true);
+    }
+
+    public static SpanBatchingHandlerBuilder builder() {
+        return new SpanBatchingHandlerBuilder();
+    }
+
+    @Override
+    public boolean end(TraceContext context, MutableSpan span, Cause cause) {
+        if (cause == Cause.ABANDONED) {
+            return true;
+        }
+        producers.increment();
+        try {
+            if (closed) {
+                return true;
+            }
+            if (queue.offer(span)) {
+                acceptedSpans.increment();
+                if (queue.size() >= wakeUpDepth) {
+                    LockSupport.unpark(reporterThread);
+                }
+            } else {
+                droppedSpans.increment();
+            }
+        } finally {
+            producers.decrement();
+        }
+        return true;
+    }
+
+    /**
+     * Stops accepting spans, reports what is already queued and closes the sink
+     */
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        LockSupport.unpark(reporterThread);
+        try {
+            reporterThread.join(TimeUnit.NANOSECONDS.toMillis(flushIntervalNanos) + 5_000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * @return Spans accepted into the buffer
+     */
+    public long getAcceptedSpans() {
+        return acceptedSpans.sum();
+    }
+
+    /**
+     * @return Spans dropped because the buffer was full
+     */
+    public long getDroppedSpans() {
+        return droppedSpans.sum();
+    }
+
+    /**
+     * @return Spans written to the sink successfully
+     */
+    public long getReportedSpans() {
+        return reportedSpans.sum();
+    }
+
+    /**
+     * @return Spans lost because the sink failed
+     */
+    public long getFailedSpans() {
+        return failedSpans.sum();
+    }
+
+    /**
+     * @return Number of batches handed to the sink
+     */
+    public long getBatches() {
+        return batches.sum();
+    }
+
+    /**
+     * @return Approximate number of spans waiting to be reported
+     */
+    public int getQueueDepth() {
+        return queue.size();
+    }
+
+    private SpanBatchingHandler start() {
+        reporterThread.start();
+        return this;
+    }
+
+    private void report() {
+        final List<MutableSpan> batch = new ArrayList<>(maxBatchSize);
+        long lastFlush = System.nanoTime();
+        while (true) {
+            final boolean stopping = closed;
+            queue.drainTo(batch, maxBatchSize - batch.size());
+            final long now = System.nanoTime();
+            if (batch.size() >= maxBatchSize || (!batch.isEmpty() && (stopping || now - lastFlush >= flushIntervalNanos))) {
+                flush(batch);
+                lastFlush = now;
+                continue;
+            }
+            if (stopping && batch.isEmpty() && producers.sum() == 0 && queue.size() == 0) {
+                break;
+            }
+            if (batch.isEmpty()) {
+                lastFlush = now;
+            }
+            wakeUpDepth = maxBatchSize - batch.size();
+            if (queue.size() < wakeUpDepth && !closed) {
+                LockSupport.parkNanos(this, flushIntervalNanos - (now - lastFlush));
+            }
+            wakeUpDepth = NOT_PARKED;
+        }
+        closeSink();
+    }
+
+    private void flush(final List<MutableSpan> batch) {
+        final int spanCount = batch.size();
+        try {
+            sink.write(encoder.encodeList(batch), spanCount);
+            reportedSpans.add(spanCount);
+        } catch (Exception e) {
+            failedSpans.add(spanCount);
+            errors.report("reporting batch of spans", e);
+        } finally {
+            batches.increment();
+            batch.clear();
+        }
+    }
+
+    private void closeSink() {
+        try {
+            sink.close();
+        } catch (Exception e) {
+            log.error("Error closing span sink: ", e);
+        }
+    }
+
+    public static class SpanBatchingHandlerBuilder {
+        private SpanSink sink;
+        private MutableSpanBytesEncoder encoder = MutableSpanBytesEncoder.zipkinJsonV2(Tags.ERROR);
+        private int queueCapacity = DEFAULT_QUEUE_CAPACITY;
+        private int maxBatchSize = DEFAULT_MAX_BATCH_SIZE;
+        private long flushIntervalNanos = DEFAULT_FLUSH_INTERVAL_NANOS;
+
+        public SpanBatchingHandlerBuilder sink(final SpanSink sink) {
+            this.sink = sink;
+            return this;
+        }
+
+        public SpanBatchingHandlerBuilder encoder(final MutableSpanBytesEncoder encoder) {
+            this.encoder = encoder;
+            return this;
+        }
+
+        /**
+         * Spans buffered before new ones are dropped. Rounded up to a power of two.
+         */
+        public SpanBatchingHandlerBuilder queueCapacity(final int queueCapacity) {
+            this.queueCapacity = queueCapacity;
+            return this;
+        }
+
+        public SpanBatchingHandlerBuilder maxBatchSize(final int maxBatchSize) {
+            this.maxBatchSize = maxBatchSize;
+            return this;
+        }
+
+        /**
+         * Maximum time a span waits in a partial batch
+         */
+        public SpanBatchingHandlerBuilder flushInterval(final long flushInterval,
+                                                        final TimeUnit unit) {
+            this.flushIntervalNanos = unit.toNanos(flushInterval);
+            return this;
+        }
+
+        /**
+         * Builds the handler and starts its reporting thread
+         */
+        public SpanBatchingHandler build() {
+            Objects.requireNonNull(sink, "Span sink is required");
+            Objects.requireNonNull(encoder, "Span encoder is required");
+            if (maxBatchSize <= 0 || flushIntervalNanos <= 0) {
+                throw new IllegalArgumentException("Batch size and flush interval must be positive");
+            }
+            return new SpanBatchingHandler(sink, encoder, queueCapacity, maxBatchSize, flushIntervalNanos).start();
+        }
+    }
+}
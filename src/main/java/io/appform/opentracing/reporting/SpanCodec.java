@@ -0,0 +1,197 @@
+package io.appform.opentracing.reporting;
+
+import brave.Span;
+import brave.handler.MutableSpan;
+import io.appform.opentracing.util.Utf8;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Compact binary form of a Brave {@link MutableSpan}.
+ * <p>
+ * Spans are sized with {@link #sizeInBytes} and then written with absolute puts, so encoding needs no intermediate
+ * buffer and several threads can encode into disjoint regions of the same buffer. Strings are written with
+ * {@link Utf8}. Brave's "error" tag is derived from {@link MutableSpan#error()} while encoding, the throwable itself
+ * is not kept.
+ */
+final class SpanCodec {
+    static final byte VERSION = 1;
+
+    private static final String ERROR_TAG = "error";
+    private static final byte FLAG_DEBUG = 1;
+    private static final byte FLAG_SHARED = 2;
+    private static final Span.Kind[] KINDS = Span.Kind.values();
+    private static final int FIXED_SIZE = 1 + 1 + 1 + 8 + 8 + 4 + 4 + 4 + 4;
+
+    private SpanCodec() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    static int sizeInBytes(final MutableSpan span) {
+        int size = FIXED_SIZE
+                + Utf8.sizeOf(span.traceId())
+                + Utf8.sizeOf(span.parentId())
+                + Utf8.sizeOf(span.id())
+                + Utf8.sizeOf(span.name())
+                + Utf8.sizeOf(span.localServiceName())
+                + Utf8.sizeOf(span.localIp())
+                + Utf8.sizeOf(span.remoteServiceName())
+                + Utf8.sizeOf(span.remoteIp());
+        final int tagCount = span.tagCount();
+        for (int i = 0; i < tagCount; i++) {
+            size += Utf8.sizeOf(span.tagKeyAt(i)) + Utf8.sizeOf(span.tagValueAt(i));
+        }
+        final String errorTag = errorTag(span);
+        if (errorTag != null) {
+            size += Utf8.sizeOf(ERROR_TAG) + Utf8.sizeOf(errorTag);
+        }
+        final int annotationCount = span.annotationCount();
+        for (int i = 0; i < annotationCount; i++) {
+            size += 8 + Utf8.sizeOf(span.annotationValueAt(i));
+        }
+        return size;
+    }
+
+    /**
+     * @return Offset just after the encoded span
+     */
+    static int encode(final MutableSpan span,
+                      final ByteBuffer buffer,
+                      int offset) {
+        buffer.put(offset++, VERSION);
+        buffer.put(offset++, (byte) ((span.debug() ? FLAG_DEBUG : 0) | (span.shared() ? FLAG_SHARED : 0)));
+        buffer.put(offset++, (byte) (span.kind() == null ? 0 : span.kind().ordinal() + 1));
+        buffer.putLong(offset, span.startTimestamp());
+        offset += 8;
+        buffer.putLong(offset, span.finishTimestamp());
+        offset += 8;
+        offset = Utf8.write(buffer, offset, span.traceId());
+        offset = Utf8.write(buffer, offset, span.parentId());
+        offset = Utf8.write(buffer, offset, span.id());
+        offset = Utf8.write(buffer, offset, span.name());
+        offset = Utf8.write(buffer, offset, span.localServiceName());
+        offset = Utf8.write(buffer, offset, span.localIp());
+        buffer.putInt(offset, span.localPort());
+        offset += 4;
+        offset = Utf8.write(buffer, offset, span.remoteServiceName());
+        offset = Utf8.write(buffer, offset, span.remoteIp());
+        buffer.putInt(offset, span.remotePort());
+        offset += 4;
+
+        final int tagCount = span.tagCount();
+        final String errorTag = errorTag(span);
+        buffer.putInt(offset, errorTag == null ? tagCount : tagCount + 1);
+        offset += 4;
+        for (int i = 0; i < tagCount; i++) {
+            offset = Utf8.write(buffer, offset, span.tagKeyAt(i));
+            offset = Utf8.write(buffer, offset, span.tagValueAt(i));
+        }
+        if (errorTag != null) {
+            offset = Utf8.write(buffer, offset, ERROR_TAG);
+            offset = Utf8.write(buffer, offset, errorTag);
+        }
+
+        final int annotationCount = span.annotationCount();
+        buffer.putInt(offset, annotationCount);
+        offset += 4;
+        for (int i = 0; i < annotationCount; i++) {
+            buffer.putLong(offset, span.annotationTimestampAt(i));
+            offset = Utf8.write(buffer, offset + 8, span.annotationValueAt(i));
+        }
+        return offset;
+    }
+
+    static MutableSpan decode(final ByteBuffer buffer,
+                              final int start) {
+        final Reader reader = new Reader(buffer, start);
+        final byte version = reader.readByte();
+        if (version != VERSION) {
+            throw new IllegalArgumentException("Unsupported span encoding version: " + version);
+        }
+        final MutableSpan span = new MutableSpan();
+        final byte flags = reader.readByte();
+        if ((flags & FLAG_DEBUG) != 0) {
+            span.setDebug();
+        }
+        if ((flags & FLAG_SHARED) != 0) {
+            span.setShared();
+        }
+        final int kind = reader.readByte();
+        if (kind > 0) {
+            span.kind(KINDS[kind - 1]);
+        }
+        span.startTimestamp(reader.readLong());
+        span.finishTimestamp(reader.readLong());
+        final String traceId = reader.readString();
+        if (traceId != null) {
+            span.traceId(traceId);
+        }
+        final String parentId = reader.readString();
+        if (parentId != null) {
+            span.parentId(parentId);
+        }
+        final String id = reader.readString();
+        if (id != null) {
+            span.id(id);
+        }
+        span.name(reader.readString());
+        span.localServiceName(reader.readString());
+        span.localIp(reader.readString());
+        span.localPort(reader.readInt());
+        span.remoteServiceName(reader.readString());
+        span.remoteIp(reader.readString());
+        span.remotePort(reader.readInt());
+        final int tagCount = reader.readInt();
+        for (int i = 0; i < tagCount; i++) {
+            span.tag(reader.readString(), reader.readString());
+        }
+        final int annotationCount = reader.readInt();
+        for (int i = 0; i < annotationCount; i++) {
+            final long timestamp = reader.readLong();
+            span.annotate(timestamp, reader.readString());
+        }
+        return span;
+    }
+
+    private static String errorTag(final MutableSpan span) {
+        final Throwable error = span.error();
+        if (error == null || span.tag(ERROR_TAG) != null) {
+            return null;
+        }
+        final String message = error.getMessage();
+        return message != null ? message : error.getClass().getSimpleName();
+    }
+
+    private static final class Reader {
+        private final ByteBuffer buffer;
+        private int offset;
+
+        private Reader(final ByteBuffer buffer,
+                       final int offset) {
+            this.buffer = buffer;
+            this.offset = offset;
+        }
+
+        byte readByte() {
+            return buffer.get(offset++);
+        }
+
+        int readInt() {
+            final int value = buffer.getInt(offset);
+            offset += 4;
+            return value;
+        }
+
+        long readLong() {
+            final long value = buffer.getLong(offset);
+            offset += 8;
+            return value;
+        }
+
+        String readString() {
+            final String value = Utf8.read(buffer, offset);
+            offset += 4 + Math.max(0, buffer.getInt(offset));
+            return value;
+        }
+    }
+}
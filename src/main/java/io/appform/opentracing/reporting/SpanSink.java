@@ -0,0 +1,21 @@
+package io.appform.opentracing.reporting;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Destination of encoded span batches. Called from the single reporting thread only.
+ */
+public interface SpanSink extends Closeable {
+
+    /**
+     * @param encodedSpans Batch of spans encoded as a Zipkin v2 JSON list
+     * @param spanCount Number of spans in the batch
+     */
+    void write(byte[] encodedSpans, int spanCount) throws IOException;
+
+    @Override
+    default void close() throws IOException {
+        /* Nothing to do by default */
+    }
+}
@@ -0,0 +1,380 @@
+package io.appform.opentracing.reporting;
+
+import brave.handler.MutableSpan;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Segmented, memory-mapped on-disk queue of finished spans.
+ * <p>
+ * Writers reserve space in the current segment with a CAS on its write cursor and encode the span straight into the
+ * mapped region with {@link SpanCodec}, so appending neither locks nor allocates; only rolling over to a new segment
+ * takes a lock. A record is a 4 byte length followed by the encoded span. The length is written as the negative
+ * record size on reservation and published as the payload size with release semantics once the span is in place. A
+ * span that fails to encode is published as a skip record, the record size with bit 30 set, which the reader steps
+ * over.
+ * <p>
+ * A single reader drains records in order and persists its position to an offset file on {@link #commit()}. Fully
+ * read segments are deleted on commit. On {@link #open} the reader resumes from the last committed offset, so spans
+ * survive a process crash and are shipped at least once. Appends fail once {@code maxSegments} segments are waiting.
+ */
+public class SpanSpool implements Closeable {
+    private static final Logger log = LoggerFactory.getLogger(SpanSpool.class.getSimpleName());
+
+    static final int HEADER_SIZE = 16;
+    private static final int SEGMENT_MAGIC = 0x53504c31;
+    private static final int LIMIT_OFFSET = 8;
+    private static final int RECORD_HEADER_SIZE = 4;
+    private static final int SKIPPED_RECORD = 1 << 30;
+    private static final int MAX_SEGMENT_SIZE = SKIPPED_RECORD;
+    private static final String OFFSET_FILE = "spool.offset";
+    private static final Pattern SEGMENT_FILE = Pattern.compile("spool-(\\d{20})\\.seg");
+    private static final VarHandle INT_VIEW = MethodHandles.byteBufferViewVarHandle(int[].class, ByteOrder.BIG_ENDIAN);
+
+    private final Path directory;
+    private final int segmentSize;
+    private final int maxSegments;
+    private final ConcurrentSkipListMap<Long, Segment> segments;
+    private final FileChannel offsetChannel;
+    private final ByteBuffer offsetBuffer = ByteBuffer.allocate(16);
+
+    private volatile Segment current;
+    private volatile boolean closed;
+
+    private Segment readSegment;
+    private int readOffset;
+    private long committedSequence;
+    private int committedOffset;
+
+    private SpanSpool(final Path directory,
+                      final int segmentSize,
+                      final int maxSegments,
+                      final ConcurrentSkipListMap<Long, Segment> segments,
+                      final FileChannel offsetChannel) {
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.maxSegments = maxSegments;
+        this.segments = segments;
+        this.offsetChannel = offsetChannel;
+    }
+
+    /**
+     * Opens the spool in the given directory, recovering segments and the read offset left by a previous process
+     *
+     * @param segmentSize Size of every segment file in bytes
+     * @param maxSegments Maximum segments kept on disk before appends are rejected
+     */
+    public static SpanSpool open(final Path directory,
+                                 final int segmentSize,
+                                 final int maxSegments) throws IOException {
+        if (segmentSize < 1024 || segmentSize > MAX_SEGMENT_SIZE || maxSegments < 2) {
+            throw new IllegalArgumentException(
+                    "Segment size must be between 1KB and 1GB and at least 2 segments are needed");
+        }
+        Files.createDirectories(directory);
+        final ConcurrentSkipListMap<Long, Segment> segments = new ConcurrentSkipListMap<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "spool-*.seg")) {
+            for (Path file : files) {
+                final Matcher matcher = SEGMENT_FILE.matcher(file.getFileName().toString());
+                if (matcher.matches()) {
+                    final Segment segment = Segment.recover(Long.parseLong(matcher.group(1)), file);
+                    if (segment != null) {
+                        segments.put(segment.sequence, segment);
+                    }
+                }
+            }
+        }
+
+        final FileChannel offsetChannel = FileChannel.open(directory.resolve(OFFSET_FILE),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        final SpanSpool spool = new SpanSpool(directory, segmentSize, maxSegments, segments, offsetChannel);
+        spool.recoverReadPosition();
+        final long nextSequence = segments.isEmpty() ? spool.committedSequence : segments.lastKey() + 1;
+        spool.current = spool.createSegment(nextSequence);
+        if (spool.readSegment == null) {
+            spool.readSegment = spool.current;
+            spool.readOffset = HEADER_SIZE;
+        }
+        return spool;
+    }
+
+    /**
+     * Safe to call from any thread
+     *
+     * @return false if the span does not fit in a segment, could not be encoded, or the spool is full or closed
+     */
+    public boolean append(final MutableSpan span) {
+        final int size = SpanCodec.sizeInBytes(span);
+        final int recordSize = align(RECORD_HEADER_SIZE + size);
+        if (recordSize > segmentSize - HEADER_SIZE) {
+            return false;
+        }
+        while (!closed) {
+            final Segment segment = current;
+            final int offset = segment.reserve(recordSize);
+            if (offset >= 0) {
+                segment.buffer.putInt(offset, -recordSize);
+                return write(span, size, segment, offset, recordSize);
+            }
+            if (!roll(segment)) {
+                return false;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Publishes the encoded span, or a skip record if it could not be encoded into the reserved space, e.g. because
+     * it was changed after being sized. The reader never waits on a record that will not be completed.
+     */
+    private static boolean write(final MutableSpan span,
+                                 final int size,
+                                 final Segment segment,
+                                 final int offset,
+                                 final int recordSize) {
+        int end = -1;
+        try {
+            end = SpanCodec.encode(span, segment.buffer, offset + RECORD_HEADER_SIZE);
+        } catch (RuntimeException e) {
+            log.warn("Error encoding span into spool segment {}: {}", segment.path, e.toString());
+        }
+        if (end != offset + RECORD_HEADER_SIZE + size) {
+            INT_VIEW.setRelease(segment.buffer, offset, SKIPPED_RECORD | recordSize);
+            return false;
+        }
+        INT_VIEW.setRelease(segment.buffer, offset, size);
+        return true;
+    }
+
+    /**
+     * @return Number of segment files on disk, including the one being written
+     */
+    public int getSegmentCount() {
+        return segments.size();
+    }
+
+    /**
+     * Reader thread only
+     *
+     * @return Next span, null if no completely written span is available
+     */
+    MutableSpan poll() {
+        while (true) {
+            final int length = readOffset + RECORD_HEADER_SIZE <= readSegment.capacity
+                    ? (int) INT_VIEW.getAcquire(readSegment.buffer, readOffset)
+                    : 0;
+            if (length > 0 && (length & SKIPPED_RECORD) != 0) {
+                readOffset += length & ~SKIPPED_RECORD;
+                continue;
+            }
+            if (length > 0) {
+                final MutableSpan span = SpanCodec.decode(readSegment.buffer, readOffset + RECORD_HEADER_SIZE);
+                readOffset += align(RECORD_HEADER_SIZE + length);
+                return span;
+            }
+            if (length < 0 && readSegment.recovered) {
+                log.warn("Skipping span left incomplete in spool segment {}", readSegment.path);
+                readOffset -= length;
+                continue;
+            }
+            if (!isExhausted(readSegment, readOffset)) {
+                return null;
+            }
+            final Map.Entry<Long, Segment> next = segments.higherEntry(readSegment.sequence);
+            if (next == null) {
+                return null;
+            }
+            readSegment = next.getValue();
+            readOffset = HEADER_SIZE;
+        }
+    }
+
+    /**
+     * Reader thread only. Persists the read position and deletes segments that have been read completely.
+     */
+    void commit() throws IOException {
+        if (readSegment.sequence == committedSequence && readOffset == committedOffset) {
+            return;
+        }
+        offsetBuffer.clear();
+        offsetBuffer.putLong(readSegment.sequence).putInt(readOffset).putInt(SEGMENT_MAGIC).flip();
+        offsetChannel.write(offsetBuffer, 0);
+        offsetChannel.force(false);
+        committedSequence = readSegment.sequence;
+        committedOffset = readOffset;
+
+        Map.Entry<Long, Segment> oldest = segments.firstEntry();
+        while (oldest != null && oldest.getKey() < committedSequence) {
+            segments.remove(oldest.getKey());
+            Files.deleteIfExists(oldest.getValue().path);
+            oldest = segments.firstEntry();
+        }
+    }
+
+    /**
+     * Flushes the current segment to disk. Appends after close are rejected.
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        current.buffer.force();
+        offsetChannel.close();
+    }
+
+    private boolean isExhausted(final Segment segment,
+                                final int offset) {
+        if (segment.recovered || offset + RECORD_HEADER_SIZE > segment.capacity) {
+            return true;
+        }
+        final int limit = segment.limit();
+        return limit > 0 && offset >= limit;
+    }
+
+    private boolean roll(final Segment segment) {
+        if (segments.size() >= maxSegments) {
+            return false;
+        }
+        synchronized (this) {
+            if (current != segment) {
+                return true;
+            }
+            if (closed || segments.size() >= maxSegments) {
+                return false;
+            }
+            try {
+                final Segment next = createSegment(segment.sequence + 1);
+                segment.seal();
+                current = next;
+                return true;
+            } catch (IOException e) {
+                log.error("Error creating spool segment in {}: ", directory, e);
+                return false;
+            }
+        }
+    }
+
+    private Segment createSegment(final long sequence) throws IOException {
+        final Path path = directory.resolve(String.format("spool-%020d.seg", sequence));
+        final MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(path,
+                StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+        }
+        buffer.putInt(0, SEGMENT_MAGIC);
+        final Segment segment = new Segment(sequence, path, buffer, false);
+        segments.put(sequence, segment);
+        return segment;
+    }
+
+    private void recoverReadPosition() throws IOException {
+        if (offsetChannel.size() >= offsetBuffer.capacity()) {
+            offsetBuffer.clear();
+            offsetChannel.read(offsetBuffer, 0);
+            offsetBuffer.flip();
+            final long sequence = offsetBuffer.getLong();
+            final int offset = offsetBuffer.getInt();
+            if (offsetBuffer.getInt() == SEGMENT_MAGIC) {
+                committedSequence = sequence;
+                committedOffset = offset;
+            }
+        }
+        Map.Entry<Long, Segment> oldest = segments.firstEntry();
+        while (oldest != null && oldest.getKey() < committedSequence) {
+            segments.remove(oldest.getKey());
+            Files.deleteIfExists(oldest.getValue().path);
+            oldest = segments.firstEntry();
+        }
+        if (oldest == null) {
+            return;
+        }
+        readSegment = oldest.getValue();
+        readOffset = oldest.getKey() == committedSequence ? Math.max(HEADER_SIZE, committedOffset) : HEADER_SIZE;
+    }
+
+    private static int align(final int size) {
+        return (size + 3) & ~3;
+    }
+
+    private static final class Segment {
+        private final long sequence;
+        private final Path path;
+        private final MappedByteBuffer buffer;
+        private final int capacity;
+        private final boolean recovered;
+        private final AtomicInteger cursor = new AtomicInteger(HEADER_SIZE);
+
+        private Segment(final long sequence,
+                        final Path path,
+                        final MappedByteBuffer buffer,
+                        final boolean recovered) {
+            this.sequence = sequence;
+            this.path = path;
+            this.buffer = buffer;
+            this.capacity = buffer.capacity();
+            this.recovered = recovered;
+        }
+
+        static Segment recover(final long sequence,
+                               final Path path) throws IOException {
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                if (channel.size() < HEADER_SIZE || channel.size() > Integer.MAX_VALUE) {
+                    log.warn("Ignoring invalid spool segment {}", path);
+                    return null;
+                }
+                final MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size());
+                if (buffer.getInt(0) != SEGMENT_MAGIC) {
+                    log.warn("Ignoring spool segment {} with unknown format", path);
+                    return null;
+                }
+                return new Segment(sequence, path, buffer, true);
+            }
+        }
+
+        /**
+         * @return Offset of the reserved record, -1 if the segment is full or sealed
+         */
+        int reserve(final int recordSize) {
+            while (true) {
+                final int position = cursor.get();
+                if (position + recordSize > capacity) {
+                    return -1;
+                }
+                if (cursor.compareAndSet(position, position + recordSize)) {
+                    return position;
+                }
+            }
+        }
+
+        /**
+         * Stops further reservations and records where the last one ended, so the reader knows when it is done
+         */
+        void seal() {
+            INT_VIEW.setRelease(buffer, LIMIT_OFFSET, cursor.getAndSet(capacity));
+        }
+
+        int limit() {
+            return (int) INT_VIEW.getAcquire(buffer, LIMIT_OFFSET);
+        }
+    }
+}
@@ -0,0 +1,287 @@
+package io.appform.opentracing.reporting;
+
+import brave.Tags;
+import brave.handler.MutableSpan;
+import brave.handler.MutableSpanBytesEncoder;
+import brave.handler.SpanHandler;
+import brave.propagation.TraceContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Brave {@link SpanHandler} that persists finished spans to a {@link SpanSpool} before they are reported.
+ * <p>
+ * Traced threads only append to the memory-mapped spool. A daemon shipper thread reads spans back, sends them to the
+ * {@link SpanSink} in batches and commits the spool offset after every successful batch. While the sink fails the
+ * batch is retried with backoff and spans keep accumulating on disk instead of being lost; spans not yet shipped when
+ * the process stops are sent after the next start. Spans are dropped and counted only once the spool is full.
+ */
+public class SpoolingSpanHandler extends SpanHandler implements Closeable {
+    private static final Logger log = LoggerFactory.getLogger(SpoolingSpanHandler.class.getSimpleName());
+
+    private static final int DEFAULT_SEGMENT_SIZE = 16 * 1024 * 1024;
+    private static final int DEFAULT_MAX_SEGMENTS = 64;
+    private static final int DEFAULT_MAX_BATCH_SIZE = 512;
+    private static final long DEFAULT_FLUSH_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+    private static final long MAX_RETRY_BACKOFF_NANOS = TimeUnit.SECONDS.toNanos(30);
+
+    private final SpanSpool spool;
+    private final SpanSink sink;
+    private final MutableSpanBytesEncoder encoder;
+    private final int maxBatchSize;
+    private final long flushIntervalNanos;
+    private final Thread shipperThread;
+
+    private final LongAdder spooledSpans = new LongAdder();
+    private final LongAdder droppedSpans = new LongAdder();
+    private final LongAdder shippedSpans = new LongAdder();
+    private final LongAdder failedBatches = new LongAdder();
+
+    private final ReporterErrors errors = new ReporterErrors(log);
+
+    /* Spans the shipper can still take into its batch while parked; the producer filling the batch wakes it up */
+    private final AtomicInteger batchSpaceWhileParked = new AtomicInteger();
+    private volatile boolean shipperParked;
+    private volatile boolean closed;
+
+    private SpoolingSpanHandler(final SpanSpool spool,
+                                final SpanSink sink,
+                                final MutableSpanBytesEncoder encoder,
+                                final int maxBatchSize,
+                                final long flushIntervalNanos) {
+        this.spool = spool;
+        this.sink = sink;
+        this.encoder = encoder;
+        this.maxBatchSize = maxBatchSize;
+        this.flushIntervalNanos = flushIntervalNanos;
+        this.shipperThread = new Thread(this::ship, "span-spool-shipper");
+        this.shipperThread.setDaemon(true);
+    }
+
+    public static SpoolingSpanHandlerBuilder builder() {
+        return new SpoolingSpanHandlerBuilder();
+    }
+
+    @Override
+    public boolean end(TraceContext context, MutableSpan span, Cause cause) {
+        if (cause == Cause.ABANDONED || closed) {
+            return true;
+        }
+        if (spool.append(span)) {
+            spooledSpans.increment();
+            if (shipperParked && batchSpaceWhileParked.decrementAndGet() == 0) {
+                LockSupport.unpark(shipperThread);
+            }
+        } else {
+            droppedSpans.increment();
+        }
+        return true;
+    }
+
+    /**
+     * Stops accepting spans and ships what is already spooled if the sink is reachable. Anything left stays on disk.
+     */
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        LockSupport.unpark(shipperThread);
+        try {
+            shipperThread.join(TimeUnit.NANOSECONDS.toMillis(flushIntervalNanos) + 5_000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * @return Spans written to the spool
+     */
+    public long getSpooledSpans() {
+        return spooledSpans.sum();
+    }
+
+    /**
+     * @return Spans dropped because the spool was full or they could not be encoded
+     */
+    public long getDroppedSpans() {
+        return droppedSpans.sum();
+    }
+
+    /**
+     * @return Spans written to the sink successfully
+     */
+    public long getShippedSpans() {
+        return shippedSpans.sum();
+    }
+
+    /**
+     * @return Batches the sink failed to accept, each of them is retried
+     */
+    public long getFailedBatches() {
+        return failedBatches.sum();
+    }
+
+    private SpoolingSpanHandler start() {
+        shipperThread.start();
+        return this;
+    }
+
+    private void ship() {
+        final List<MutableSpan> batch = new ArrayList<>(maxBatchSize);
+        long lastFlush = System.nanoTime();
+        long backoffNanos = 0;
+        while (true) {
+            final boolean stopping = closed;
+            fill(batch);
+            final long now = System.nanoTime();
+            if (batch.size() >= maxBatchSize || (!batch.isEmpty() && (stopping || now - lastFlush >= flushIntervalNanos))) {
+                if (write(batch)) {
+                    lastFlush = now;
+                    backoffNanos = 0;
+                    continue;
+                }
+                if (stopping) {
+                    break;
+                }
+                backoffNanos = Math.min(MAX_RETRY_BACKOFF_NANOS, Math.max(flushIntervalNanos, backoffNanos * 2));
+                LockSupport.parkNanos(this, backoffNanos);
+                continue;
+            }
+            if (batch.isEmpty()) {
+                commit();
+                if (stopping) {
+                    break;
+                }
+                lastFlush = now;
+            }
+            batchSpaceWhileParked.set(maxBatchSize - batch.size());
+            shipperParked = true;
+            if (!closed) {
+                LockSupport.parkNanos(this, flushIntervalNanos - (now - lastFlush));
+            }
+            shipperParked = false;
+        }
+        closeQuietly(spool);
+        closeQuietly(sink);
+    }
+
+    private void fill(final List<MutableSpan> batch) {
+        while (batch.size() < maxBatchSize) {
+            final MutableSpan span = spool.poll();
+            if (span == null) {
+                return;
+            }
+            batch.add(span);
+        }
+    }
+
+    private boolean write(final List<MutableSpan> batch) {
+        final int spanCount = batch.size();
+        try {
+            sink.write(encoder.encodeList(batch), spanCount);
+        } catch (Exception e) {
+            failedBatches.increment();
+            errors.report("shipping batch of spooled spans, will retry", e);
+            return false;
+        }
+        shippedSpans.add(spanCount);
+        batch.clear();
+        commit();
+        return true;
+    }
+
+    private void commit() {
+        try {
+            spool.commit();
+        } catch (IOException e) {
+            errors.report("committing span spool offset", e);
+        }
+    }
+
+    private static void closeQuietly(final Closeable closeable) {
+        try {
+            closeable.close();
+        } catch (Exception e) {
+            log.error("Error closing {}: ", closeable.getClass().getSimpleName(), e);
+        }
+    }
+
+    public static class SpoolingSpanHandlerBuilder {
+        private Path directory;
+        private SpanSink sink;
+        private MutableSpanBytesEncoder encoder = MutableSpanBytesEncoder.zipkinJsonV2(Tags.ERROR);
+        private int segmentSize = DEFAULT_SEGMENT_SIZE;
+        private int maxSegments = DEFAULT_MAX_SEGMENTS;
+        private int maxBatchSize = DEFAULT_MAX_BATCH_SIZE;
+        private long flushIntervalNanos = DEFAULT_FLUSH_INTERVAL_NANOS;
+
+        /**
+         * Directory holding the spool segments and offset. Must not be shared between processes.
+         */
+        public SpoolingSpanHandlerBuilder directory(final Path directory) {
+            this.directory = directory;
+            return this;
+        }
+
+        public SpoolingSpanHandlerBuilder sink(final SpanSink sink) {
+            this.sink = sink;
+            return this;
+        }
+
+        public SpoolingSpanHandlerBuilder encoder(final MutableSpanBytesEncoder encoder) {
+            this.encoder = encoder;
+            return this;
+        }
+
+        public SpoolingSpanHandlerBuilder segmentSize(final int segmentSize) {
+            this.segmentSize = segmentSize;
+            return this;
+        }
+
+        /**
+         * Upper bound of the disk used by the spool, in segments
+         */
+        public SpoolingSpanHandlerBuilder maxSegments(final int maxSegments) {
+            this.maxSegments = maxSegments;
+            return this;
+        }
+
+        public SpoolingSpanHandlerBuilder maxBatchSize(final int maxBatchSize) {
+            this.maxBatchSize = maxBatchSize;
+            return this;
+        }
+
+        public SpoolingSpanHandlerBuilder flushInterval(final long flushInterval,
+                                                        final TimeUnit unit) {
+            this.flushIntervalNanos = unit.toNanos(flushInterval);
+            return this;
+        }
+
+        /**
+         * Opens the spool and starts the shipper thread
+         */
+        public SpoolingSpanHandler build() throws IOException {
+            Objects.requireNonNull(directory, "Spool directory is required");
+            Objects.requireNonNull(sink, "Span sink is required");
+            Objects.requireNonNull(encoder, "Span encoder is required");
+            if (maxBatchSize <= 0 || flushIntervalNanos <= 0) {
+                throw new IllegalArgumentException("Batch size and flush interval must be positive");
+            }
+            final SpanSpool spool = SpanSpool.open(directory, segmentSize, maxSegments);
+            return new SpoolingSpanHandler(spool, sink, encoder, maxBatchSize, flushIntervalNanos).start();
+        }
+    }
+}
@@ -0,0 +1,404 @@
+package io.appform.opentracing.reporting;
+
+import brave.Tags;
+import brave.handler.MutableSpan;
+import brave.handler.SpanHandler;
+import brave.propagation.TraceContext;
+import io.appform.opentracing.FunctionData;
+import io.appform.opentracing.TracingConstants;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Brave {@link SpanHandler} that samples whole traces after they complete. Finished spans are buffered per trace;
+ * when the local root span of a trace finishes, all its spans are handed to the delegate if any of them failed or
+ * took longer than the latency threshold of its method, and are dropped otherwise.
+ * <p>
+ * The decisions of the last {@code maxCompletedTraces} completed traces are remembered, so that spans finishing
+ * after their local root, e.g. of work handed to other threads, are handed to the delegate or dropped with the rest
+ * of their trace.
+ * <p>
+ * The buffer is bounded by an estimate of the heap its spans hold. When the estimate exceeds
+ * {@code maxBufferedBytes}, the least recently updated traces are evicted and their spans dropped; this also clears
+ * traces whose local root never finishes. Only recorded spans reach span handlers, so the tracer should record every
+ * trace and leave sampling to this handler. Spans leave this handler only through the delegate; handlers added to
+ * the tracer after it do not see them.
+ */
+public class TailSamplingSpanHandler extends SpanHandler {
+    private static final long DEFAULT_MAX_BUFFERED_BYTES = 64L * 1024 * 1024;
+    private static final int DEFAULT_MAX_COMPLETED_TRACES = 16 * 1024;
+    private static final long NO_THRESHOLD = Long.MAX_VALUE;
+
+    /**
+     * Heap held by a buffered span besides its fields counted by {@link SpanCodec#sizeInBytes}: the span and context
+     * objects and the buffer entries
+     */
+    static final int SPAN_OVERHEAD_BYTES = 256;
+
+    private final SpanHandler delegate;
+    private final long maxBufferedBytes;
+    private final long defaultThresholdMicros;
+    private final Map<String, Map<String, Long>> thresholdsMicros;
+
+    /* Guarded by itself; in access order, so that iteration starts at the least recently updated trace */
+    private final LinkedHashMap<TraceKey, TraceBuffer> traces = new LinkedHashMap<>(1024, 0.75f, true);
+    private long bufferedBytes;
+    private int bufferedSpans;
+
+    /* Guarded by traces; whether each recently completed trace was kept, oldest first */
+    private final LinkedHashMap<TraceKey, Boolean> completedTraces;
+
+    private final LongAdder keptTraces = new LongAdder();
+    private final LongAdder droppedTraces = new LongAdder();
+    private final LongAdder exportedSpans = new LongAdder();
+    private final LongAdder droppedSpans = new LongAdder();
+    private final LongAdder evictedTraces = new LongAdder();
+    private final LongAdder evictedSpans = new LongAdder();
+    private final LongAdder lateSpans = new LongAdder();
+
+    private TailSamplingSpanHandler(final TailSamplingSpanHandlerBuilder builder) {
+        this.delegate = builder.delegate;
+        this.maxBufferedBytes = builder.maxBufferedBytes;
+        this.defaultThresholdMicros = builder.defaultThresholdMicros;
+        final Map<String, Map<String, Long>> thresholds = new HashMap<>();
+        builder.thresholdsMicros.forEach((functionData, thresholdMicros) -> thresholds
+                .computeIfAbsent(functionData.getClassName(), className -> new HashMap<>())
+                .put(functionData.getMethodName(), thresholdMicros));
+        this.thresholdsMicros = thresholds;
+        final int maxCompletedTraces = builder.maxCompletedTraces;
+        this.completedTraces = new LinkedHashMap<TraceKey, Boolean>(1024) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<TraceKey, Boolean> eldest) {
+                return size() > maxCompletedTraces;
+            }
+        };
+    }
+
+    public static TailSamplingSpanHandlerBuilder builder() {
+        return new TailSamplingSpanHandlerBuilder();
+    }
+
+    @Override
+    public boolean end(TraceContext context, MutableSpan span, Cause cause) {
+        if (cause == Cause.ABANDONED) {
+            return true;
+        }
+        final boolean sampled = isFailed(span) || isSlow(span);
+        final TraceKey key = new TraceKey(context.traceIdHigh(), context.traceId());
+        if (!isLocalRoot(context)) {
+            final Boolean kept;
+            synchronized (traces) {
+                kept = completedTraces.get(key);
+                if (kept == null) {
+                    buffer(key, context, span, sampled);
+                    return false;
+                }
+            }
+            completeLate(context, span, kept);
+            return false;
+        }
+        final TraceBuffer trace;
+        final boolean kept;
+        synchronized (traces) {
+            trace = traces.remove(key);
+            if (trace != null) {
+                release(trace);
+            }
+            kept = sampled || (trace != null && trace.sampled);
+            completedTraces.put(key, kept);
+        }
+        complete(trace, context, span, kept);
+        return false;
+    }
+
+    /**
+     * @return Traces exported to the delegate
+     */
+    public long getKeptTraces() {
+        return keptTraces.sum();
+    }
+
+    /**
+     * @return Traces completed without a failed or slow span and dropped
+     */
+    public long getDroppedTraces() {
+        return droppedTraces.sum();
+    }
+
+    /**
+     * @return Spans handed to the delegate
+     */
+    public long getExportedSpans() {
+        return exportedSpans.sum();
+    }
+
+    /**
+     * @return Spans of dropped traces
+     */
+    public long getDroppedSpans() {
+        return droppedSpans.sum();
+    }
+
+    /**
+     * @return Traces evicted from the buffer before their local root finished
+     */
+    public long getEvictedTraces() {
+        return evictedTraces.sum();
+    }
+
+    /**
+     * @return Spans dropped with evicted traces
+     */
+    public long getEvictedSpans() {
+        return evictedSpans.sum();
+    }
+
+    /**
+     * @return Spans finishing after the local root of their trace, exported or dropped with the rest of the trace
+     */
+    public long getLateSpans() {
+        return lateSpans.sum();
+    }
+
+    public int getBufferedTraces() {
+        synchronized (traces) {
+            return traces.size();
+        }
+    }
+
+    public int getBufferedSpans() {
+        synchronized (traces) {
+            return bufferedSpans;
+        }
+    }
+
+    /**
+     * @return Estimated heap held by buffered spans
+     */
+    public long getBufferedBytes() {
+        synchronized (traces) {
+            return bufferedBytes;
+        }
+    }
+
+    private void buffer(final TraceKey key,
+                        final TraceContext context,
+                        final MutableSpan span,
+                        final boolean sampled) {
+        TraceBuffer trace = traces.get(key);
+        if (trace == null) {
+            trace = new TraceBuffer();
+            traces.put(key, trace);
+        }
+        final int size = SpanCodec.sizeInBytes(span) + SPAN_OVERHEAD_BYTES;
+        trace.add(context, span, size, sampled);
+        bufferedBytes += size;
+        bufferedSpans++;
+        if (bufferedBytes > maxBufferedBytes) {
+            evict();
+        }
+    }
+
+    private void evict() {
+        final Iterator<TraceBuffer> leastRecentlyUpdated = traces.values().iterator();
+        while (bufferedBytes > maxBufferedBytes && leastRecentlyUpdated.hasNext()) {
+            final TraceBuffer trace = leastRecentlyUpdated.next();
+            leastRecentlyUpdated.remove();
+            release(trace);
+            evictedTraces.increment();
+            evictedSpans.add(trace.spans.size());
+        }
+    }
+
+    private void release(final TraceBuffer trace) {
+        bufferedBytes -= trace.bytes;
+        bufferedSpans -= trace.spans.size();
+    }
+
+    /**
+     * Hands the trace to the delegate, outside of the buffer lock, or drops it
+     */
+    private void complete(final TraceBuffer trace,
+                          final TraceContext rootContext,
+                          final MutableSpan rootSpan,
+                          final boolean kept) {
+        final int spanCount = trace == null ? 1 : trace.spans.size() + 1;
+        if (!kept) {
+            droppedTraces.increment();
+            droppedSpans.add(spanCount);
+            return;
+        }
+        if (trace != null) {
+            for (int i = 0; i < trace.spans.size(); i++) {
+                delegate.end(trace.contexts.get(i), trace.spans.get(i), Cause.FINISHED);
+            }
+        }
+        delegate.end(rootContext, rootSpan, Cause.FINISHED);
+        keptTraces.increment();
+        exportedSpans.add(spanCount);
+    }
+
+    /**
+     * Hands a span finishing after its local root to the delegate if its trace was kept, or drops it
+     */
+    private void completeLate(final TraceContext context,
+                              final MutableSpan span,
+                              final boolean kept) {
+        lateSpans.increment();
+        if (!kept) {
+            droppedSpans.increment();
+            return;
+        }
+        delegate.end(context, span, Cause.FINISHED);
+        exportedSpans.increment();
+    }
+
+    /**
+     * Contexts not created by a Brave tracer carry no local root id; such spans are local roots if they have no parent
+     */
+    private static boolean isLocalRoot(final TraceContext context) {
+        return context.localRootId() == 0 ? context.parentIdAsLong() == 0 : context.isLocalRoot();
+    }
+
+    private static boolean isFailed(final MutableSpan span) {
+        return span.error() != null
+                || span.tag(Tags.ERROR.key()) != null
+                || TracingConstants.STATUS_FAILURE.equals(span.tag(TracingConstants.METHOD_STATUS_TAG));
+    }
+
+    private boolean isSlow(final MutableSpan span) {
+        if (span.startTimestamp() == 0 || span.finishTimestamp() == 0) {
+            return false;
+        }
+        return span.finishTimestamp() - span.startTimestamp() > thresholdMicros(span);
+    }
+
+    private long thresholdMicros(final MutableSpan span) {
+        if (thresholdsMicros.isEmpty()) {
+            return defaultThresholdMicros;
+        }
+        final String className = span.tag(TracingConstants.CLASS_NAME_TAG);
+        final Map<String, Long> methods = className == null ? null : thresholdsMicros.get(className);
+        if (methods == null) {
+            return defaultThresholdMicros;
+        }
+        final Long thresholdMicros = methods.get(span.tag(TracingConstants.METHOD_NAME_TAG));
+        return thresholdMicros == null ? defaultThresholdMicros : thresholdMicros;
+    }
+
+    private static final class TraceKey {
+        private final long traceIdHigh;
+        private final long traceId;
+
+        private TraceKey(final long traceIdHigh,
+                         final long traceId) {
+            this.traceIdHigh = traceIdHigh;
+            this.traceId = traceId;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof TraceKey)) {
+                return false;
+            }
+            final TraceKey other = (TraceKey) o;
+            return traceIdHigh == other.traceIdHigh && traceId == other.traceId;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * Long.hashCode(traceIdHigh) + Long.hashCode(traceId);
+        }
+    }
+
+    private static final class TraceBuffer {
+        private final List<TraceContext> contexts = new ArrayList<>(4);
+        private final List<MutableSpan> spans = new ArrayList<>(4);
+        private long bytes;
+        private boolean sampled;
+
+        private void add(final TraceContext context,
+                         final MutableSpan span,
+                         final int size,
+                         final boolean spanSampled) {
+            contexts.add(context);
+            spans.add(span);
+            bytes += size;
+            sampled |= spanSampled;
+        }
+    }
+
+    public static class TailSamplingSpanHandlerBuilder {
+        private SpanHandler delegate;
+        private long maxBufferedBytes = DEFAULT_MAX_BUFFERED_BYTES;
+        private int maxCompletedTraces = DEFAULT_MAX_COMPLETED_TRACES;
+        private long defaultThresholdMicros = NO_THRESHOLD;
+        private final Map<FunctionData, Long> thresholdsMicros = new HashMap<>();
+
+        /**
+         * Handler receiving the spans of sampled traces, e.g. a {@link SpanBatchingHandler}
+         */
+        public TailSamplingSpanHandlerBuilder delegate(final SpanHandler delegate) {
+            this.delegate = delegate;
+            return this;
+        }
+
+        /**
+         * Upper bound of the estimated heap held by buffered spans
+         */
+        public TailSamplingSpanHandlerBuilder maxBufferedBytes(final long maxBufferedBytes) {
+            this.maxBufferedBytes = maxBufferedBytes;
+            return this;
+        }
+
+        /**
+         * Number of completed traces whose decision is kept for spans finishing after their local root
+         */
+        public TailSamplingSpanHandlerBuilder maxCompletedTraces(final int maxCompletedTraces) {
+            this.maxCompletedTraces = maxCompletedTraces;
+            return this;
+        }
+
+        /**
+         * Traces with a span of the method taking longer than the threshold are kept
+         */
+        public TailSamplingSpanHandlerBuilder latencyThreshold(final FunctionData functionData,
+                                                               final long threshold,
+                                                               final TimeUnit unit) {
+            this.thresholdsMicros.put(functionData, unit.toMicros(threshold));
+            return this;
+        }
+
+        /**
+         * Threshold for spans of methods without their own threshold. Without it, only failed traces and those
+         * exceeding a method threshold are kept.
+         */
+        public TailSamplingSpanHandlerBuilder defaultLatencyThreshold(final long threshold,
+                                                                      final TimeUnit unit) {
+            this.defaultThresholdMicros = unit.toMicros(threshold);
+            return this;
+        }
+
+        public TailSamplingSpanHandler build() {
+            Objects.requireNonNull(delegate, "Delegate span handler is required");
+            if (maxBufferedBytes <= 0) {
+                throw new IllegalArgumentException("Maximum buffered bytes must be positive");
+            }
+            if (maxCompletedTraces <= 0) {
+                throw new IllegalArgumentException("Maximum completed traces must be positive");
+            }
+            return new TailSamplingSpanHandler(this);
+        }
+    }
+}
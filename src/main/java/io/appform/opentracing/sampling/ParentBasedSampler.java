@@ -0,0 +1,29 @@
+package io.appform.opentracing.sampling;
+
+import io.appform.opentracing.FunctionData;
+import io.appform.opentracing.util.TracerUtil;
+
+/**
+ * Calls made inside an existing trace (an active span, or trace ids in MDC) are always sampled so that traces are
+ * not broken up, calls made inside a dropped trace (see {@link UnsampledTrace}) are always dropped. Calls that start
+ * a new trace are decided by the root sampler.
+ */
+public class ParentBasedSampler implements TracingSampler {
+    private final TracingSampler rootSampler;
+
+    public ParentBasedSampler(final TracingSampler rootSampler) {
+        this.rootSampler = rootSampler;
+    }
+
+    @Override
+    public boolean isSampled(FunctionData functionData) {
+        if (UnsampledTrace.isActive()) {
+            return false;
+        }
+        return hasParent() || rootSampler.isSampled(functionData);
+    }
+
+    private static boolean hasParent() {
+        return TracerUtil.getTracer().activeSpan() != null || TracerUtil.getMDCTraceId() != null;
+    }
+}
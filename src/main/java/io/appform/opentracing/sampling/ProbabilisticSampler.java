@@ -0,0 +1,28 @@
+package io.appform.opentracing.sampling;
+
+import com.google.common.base.Preconditions;
+import io.appform.opentracing.FunctionData;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Samples a fixed fraction of calls
+ */
+public class ProbabilisticSampler implements TracingSampler {
+    private final double probability;
+
+    public ProbabilisticSampler(final double probability) {
+        Preconditions.checkArgument(probability >= 0 && probability <= 1,
+                "Sampling probability must be between 0 and 1");
+        this.probability = probability;
+    }
+
+    @Override
+    public boolean isSampled(FunctionData functionData) {
+        return probability >= 1 || ThreadLocalRandom.current().nextDouble() < probability;
+    }
+
+    public double getProbability() {
+        return probability;
+    }
+}
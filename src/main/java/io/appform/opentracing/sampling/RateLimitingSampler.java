@@ -0,0 +1,64 @@
+package io.appform.opentracing.sampling;
+
+import com.google.common.base.Preconditions;
+import io.appform.opentracing.FunctionData;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Samples at most a fixed number of calls per second for every method, allowing short bursts.
+ * <p>
+ * Every method has its own token bucket, implemented as a generic cell rate algorithm over a single
+ * {@link AtomicLong} holding the theoretical arrival time of the next permit. A decision is one CAS, without locks.
+ */
+public class RateLimitingSampler implements TracingSampler {
+    private final long intervalNanos;
+    private final long burstNanos;
+    private final Map<FunctionData, AtomicLong> buckets = new ConcurrentHashMap<>();
+
+    /**
+     * @param permitsPerSecond Sustained sampled calls per second per method
+     * @param burst Number of calls that can be sampled back to back after a quiet period
+     */
+    public RateLimitingSampler(final double permitsPerSecond,
+                               final int burst) {
+        Preconditions.checkArgument(permitsPerSecond > 0, "Permits per second must be positive");
+        Preconditions.checkArgument(burst > 0, "Burst must be positive");
+        this.intervalNanos = Math.max(1L, (long) (TimeUnit.SECONDS.toNanos(1) / permitsPerSecond));
+        this.burstNanos = intervalNanos * burst;
+    }
+
+    public RateLimitingSampler(final double permitsPerSecond) {
+        this(permitsPerSecond, (int) Math.max(1, Math.ceil(permitsPerSecond)));
+    }
+
+    @Override
+    public boolean isSampled(FunctionData functionData) {
+        return tryAcquire(bucket(functionData), System.nanoTime());
+    }
+
+    boolean tryAcquire(final AtomicLong bucket,
+                       final long now) {
+        while (true) {
+            final long arrival = bucket.get();
+            final long next = Math.max(arrival, now - burstNanos) + intervalNanos;
+            if (next - now > 0) {
+                return false;
+            }
+            if (bucket.compareAndSet(arrival, next)) {
+                return true;
+            }
+        }
+    }
+
+    AtomicLong bucket(final FunctionData functionData) {
+        final AtomicLong bucket = buckets.get(functionData);
+        if (bucket != null) {
+            return bucket;
+        }
+        return buckets.computeIfAbsent(functionData, key -> new AtomicLong(System.nanoTime() - burstNanos));
+    }
+}
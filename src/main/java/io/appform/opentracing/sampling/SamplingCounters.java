@@ -0,0 +1,32 @@
+package io.appform.opentracing.sampling;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Number of sampled and dropped calls of a method
+ */
+public class SamplingCounters {
+    private final LongAdder sampled = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+
+    public void recordSampled() {
+        sampled.increment();
+    }
+
+    public void recordDropped() {
+        dropped.increment();
+    }
+
+    public long getSampled() {
+        return sampled.sum();
+    }
+
+    public long getDropped() {
+        return dropped.sum();
+    }
+
+    void reset() {
+        sampled.reset();
+        dropped.reset();
+    }
+}
@@ -0,0 +1,36 @@
+package io.appform.opentracing.sampling;
+
+import io.appform.opentracing.FunctionData;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per method sampling counters, populated by the tracing aspect when a {@link TracingSampler} is configured
+ */
+public class SamplingStatistics {
+    private static final Map<FunctionData, SamplingCounters> COUNTERS = new ConcurrentHashMap<>();
+
+    private SamplingStatistics() {
+    }
+
+    public static SamplingCounters countersFor(final FunctionData functionData) {
+        final SamplingCounters counters = COUNTERS.get(functionData);
+        if (counters != null) {
+            return counters;
+        }
+        return COUNTERS.computeIfAbsent(functionData, key -> new SamplingCounters());
+    }
+
+    /**
+     * @return Live, read only view of counters of all methods that have been called so far
+     */
+    public static Map<FunctionData, SamplingCounters> getCounters() {
+        return Collections.unmodifiableMap(COUNTERS);
+    }
+
+    public static void reset() {
+        COUNTERS.values().forEach(SamplingCounters::reset);
+    }
+}
@@ -0,0 +1,17 @@
+package io.appform.opentracing.sampling;
+
+import io.appform.opentracing.FunctionData;
+
+/**
+ * Head based sampling decision taken by the tracing aspect before any span work is done for a call.
+ * Implementations are called on every traced invocation and must be thread safe and allocation free.
+ */
+@FunctionalInterface
+public interface TracingSampler {
+
+    /**
+     * @param functionData Method being invoked
+     * @return true if a span should be created for the call
+     */
+    boolean isSampled(FunctionData functionData);
+}
@@ -0,0 +1,39 @@
+package io.appform.opentracing.sampling;
+
+/**
+ * Head sampling decision of a dropped trace. A dropped call leaves no active span behind, so the decision is kept on
+ * the calling thread for the duration of the call instead; traced calls nested in it are dropped with it rather than
+ * sampled again as roots of traces of their own.
+ */
+public final class UnsampledTrace {
+    private static final ThreadLocal<Boolean> UNSAMPLED = new ThreadLocal<>();
+
+    private UnsampledTrace() {
+    }
+
+    /**
+     * @return True while the current thread runs inside a call dropped by the sampler
+     */
+    public static boolean isActive() {
+        return UNSAMPLED.get() == Boolean.TRUE;
+    }
+
+    /**
+     * Marks the current thread as running a dropped call
+     *
+     * @return Previous state, to be passed to {@link #exit(boolean)} when the call returns
+     */
+    public static boolean enter() {
+        final boolean previous = isActive();
+        if (!previous) {
+            UNSAMPLED.set(Boolean.TRUE);
+        }
+        return previous;
+    }
+
+    public static void exit(final boolean previous) {
+        if (!previous) {
+            UNSAMPLED.remove();
+        }
+    }
+}
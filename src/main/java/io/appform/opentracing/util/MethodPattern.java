@@ -0,0 +1,60 @@
+package io.appform.opentracing.util;
+
+import com.google.common.base.Preconditions;
+import com.google.common.base.Strings;
+import io.appform.opentracing.FunctionData;
+
+import java.util.regex.Pattern;
+
+/**
+ * Pattern matched against {@code ClassName.methodName} of a traced method, where {@code *} matches any characters,
+ * e.g. {@code OrderService.*} for a whole class or {@code OrderService.checkout} for one method
+ */
+public final class MethodPattern {
+    private final String pattern;
+    private final Pattern regex;
+
+    private MethodPattern(final String pattern) {
+        this.pattern = pattern;
+        this.regex = compile(pattern);
+    }
+
+    public static MethodPattern of(final String pattern) {
+        Preconditions.checkArgument(!Strings.isNullOrEmpty(pattern), "Pattern must not be empty");
+        return new MethodPattern(pattern);
+    }
+
+    public static String nameOf(final FunctionData functionData) {
+        return functionData.getClassName() + "." + functionData.getMethodName();
+    }
+
+    public boolean matches(final FunctionData functionData) {
+        return matches(nameOf(functionData));
+    }
+
+    /**
+     * @param name {@code ClassName.methodName}, see {@link #nameOf(FunctionData)}
+     */
+    public boolean matches(final String name) {
+        return regex.matcher(name).matches();
+    }
+
+    public String getPattern() {
+        return pattern;
+    }
+
+    @Override
+    public String toString() {
+        return pattern;
+    }
+
+    private static Pattern compile(final String pattern) {
+        final StringBuilder regex = new StringBuilder();
+        int start = 0;
+        for (int index = pattern.indexOf('*'); index >= 0; index = pattern.indexOf('*', start)) {
+            regex.append(Pattern.quote(pattern.substring(start, index))).append(".*");
+            start = index + 1;
+        }
+        return Pattern.compile(regex.append(Pattern.quote(pattern.substring(start))).toString());
+    }
+}
@@ -1,10 +1,18 @@
 package io.appform.opentracing.util;
 
 import brave.Tracing;
+import brave.handler.SpanHandler;
+import brave.opentracing.BraveSpanContext;
 import brave.opentracing.BraveTracer;
+import brave.propagation.TraceContext;
+import com.google.common.base.Strings;
 import io.appform.opentracing.Constants;
 import io.appform.opentracing.FunctionData;
 import io.appform.opentracing.TracingHandler;
+import io.appform.opentracing.recorder.RecordingTracer;
+import io.appform.opentracing.recorder.SpanRecordSink;
+import io.appform.opentracing.reporting.SpanSink;
+import io.appform.opentracing.reporting.SpoolingSpanHandler;
 import io.opentracing.Span;
 import io.opentracing.SpanContext;
 import io.opentracing.Tracer;
@@ -13,11 +21,14 @@ import io.opentracing.propagation.TextMapAdapter;
 import io.opentracing.util.GlobalTracer;
 import org.slf4j.MDC;
 
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Objects;
 
 import static io.appform.opentracing.Constants.SPAN_ID;
+import static io.appform.opentracing.Constants.TRACE_CONTEXT;
 import static io.appform.opentracing.Constants.TRACE_ID;
 
 /**
@@ -26,6 +37,12 @@ import static io.appform.opentracing.Constants.TRACE_ID;
 
 public class TracerUtil {
 
+    private static final String X_B3_TRACE_ID_HEADER = Constants.X_B3_TRACE_ID.toLowerCase();
+    private static final String X_B3_SPAN_ID_HEADER = Constants.X_B3_SPAN_ID.toLowerCase();
+    private static final String X_B3_PARENT_SPAN_ID_HEADER = Constants.X_B3_PARENT_SPAN_ID.toLowerCase();
+    private static final ThreadLocal<ExtractedContext> EXTRACTED_CONTEXT = new ThreadLocal<>();
+    private static final ThreadLocal<HexIds> HEX_IDS = ThreadLocal.withInitial(HexIds::new);
+    private static final char TRACE_CONTEXT_SEPARATOR = '-';
 
     public static boolean isTracerEnabled() {
         return GlobalTracer.isRegistered();
@@ -38,28 +55,149 @@ public class TracerUtil {
         GlobalTracer.registerIfAbsent(BraveTracer.newBuilder(Tracing.newBuilder().build()).build());
     }
 
+    /**
+     * Registers a Brave tracer reporting finished spans to the given handler, for example a
+     * {@link io.appform.opentracing.reporting.SpanBatchingHandler}
+     */
+    public static void registerBraveTracer(SpanHandler spanHandler){
+        GlobalTracer.registerIfAbsent(BraveTracer.newBuilder(Tracing.newBuilder()
+                .addSpanHandler(spanHandler)
+                .build()).build());
+    }
+
+    /**
+     * Registers a Brave tracer that persists finished spans to a memory-mapped spool in the given directory and
+     * ships them to the sink in the background. Spans spooled by a previous run are shipped first.
+     * @return Handler to close on shutdown
+     */
+    public static SpoolingSpanHandler registerSpoolingBraveTracer(Path spoolDirectory, SpanSink sink) throws IOException {
+        final SpoolingSpanHandler spanHandler = SpoolingSpanHandler.builder()
+                .directory(spoolDirectory)
+                .sink(sink)
+                .build();
+        registerBraveTracer(spanHandler);
+        return spanHandler;
+    }
+
+    /**
+     * Registers a {@link RecordingTracer} writing binary span records to the given sink. If a global tracer is already
+     * registered, the new tracer is closed right away.
+     * @return Tracer to close on shutdown
+     */
+    public static RecordingTracer registerRecordingTracer(SpanRecordSink sink) {
+        final RecordingTracer tracer = RecordingTracer.builder()
+                .sink(sink)
+                .build();
+        if (!GlobalTracer.registerIfAbsent(tracer)) {
+            tracer.close();
+        }
+        return tracer;
+    }
+
     private static void populateMDCTracing(String traceId,String spanId){
-        MDC.put(TRACE_ID,traceId);
-        MDC.put(SPAN_ID,spanId);
+        putIfChanged(TRACE_ID,traceId);
+        putIfChanged(SPAN_ID,spanId);
+    }
+
+    /**
+     * Puts back the MDC tracing ids that were present before a traced call. Absent ids are removed.
+     */
+    public static void restoreMDCTracing(String traceId, String spanId){
+        if(traceId == null || spanId == null){
+            MDC.remove(TRACE_ID);
+            MDC.remove(SPAN_ID);
+            return;
+        }
+        populateMDCTracing(traceId, spanId);
+    }
+
+    /**
+     * Puts back the combined {@link Constants#TRACE_CONTEXT} MDC entry that was present before a traced call
+     */
+    public static void restoreMDCTraceContext(String traceContext){
+        if(traceContext == null){
+            MDC.remove(TRACE_CONTEXT);
+            return;
+        }
+        putIfChanged(TRACE_CONTEXT, traceContext);
     }
 
+    /**
+     * @return Trace id from MDC, taken from the combined {@link Constants#TRACE_CONTEXT} entry if only that is present
+     */
     public static String getMDCTraceId(){
-        return MDC.get(TRACE_ID);
+        final String traceId = MDC.get(TRACE_ID);
+        if (traceId != null) {
+            return traceId;
+        }
+        final String traceContext = MDC.get(TRACE_CONTEXT);
+        final int separator = traceContext == null ? -1 : traceContext.indexOf(TRACE_CONTEXT_SEPARATOR);
+        return separator < 0 ? null : traceContext.substring(0, separator);
     }
 
+    /**
+     * @return Span id from MDC, taken from the combined {@link Constants#TRACE_CONTEXT} entry if only that is present
+     */
     public static String getMDCSpanId(){
-        return MDC.get(SPAN_ID);
+        final String spanId = MDC.get(SPAN_ID);
+        if (spanId != null) {
+            return spanId;
+        }
+        final String traceContext = MDC.get(TRACE_CONTEXT);
+        final int separator = traceContext == null ? -1 : traceContext.indexOf(TRACE_CONTEXT_SEPARATOR);
+        return separator < 0 ? null : traceContext.substring(separator + 1);
+    }
+
+    public static String getMDCTraceContext(){
+        return MDC.get(TRACE_CONTEXT);
     }
 
     public static void destroyTracingForCurrentThread() {
         closeActiveSpan();
         MDC.remove(TRACE_ID);
         MDC.remove(SPAN_ID);
+        MDC.remove(TRACE_CONTEXT);
     }
 
     public static void populateMDCTracing(Span span) {
-        if(Objects.nonNull(span)) {
-            populateMDCTracing(span.context().toTraceId(),span.context().toSpanId());
+        populateMDCTracing(span, false);
+    }
+
+    /**
+     * Writes the ids of the span to MDC, skipping entries that already hold the same value. Hex ids of Brave spans
+     * are cached per platform thread by their numeric value, so nested spans of a trace reuse one trace id string.
+     *
+     * @param combinedKey Write a single {@link Constants#TRACE_CONTEXT} entry ({@code traceId-spanId}) instead of
+     *                    the separate trace and span id entries
+     */
+    public static void populateMDCTracing(Span span, boolean combinedKey) {
+        if(Objects.isNull(span)) {
+            return;
+        }
+        final SpanContext context = span.context();
+        final TraceContext braveContext = context instanceof BraveSpanContext
+                ? ((BraveSpanContext) context).unwrap()
+                : null;
+        final String traceId;
+        final String spanId;
+        if (braveContext != null && !VirtualThreads.isCurrentThreadVirtual()) {
+            final HexIds hexIds = HEX_IDS.get();
+            traceId = hexIds.traceId(braveContext);
+            spanId = hexIds.spanId(braveContext);
+        } else {
+            traceId = context.toTraceId();
+            spanId = context.toSpanId();
+        }
+        if (combinedKey) {
+            putIfChanged(TRACE_CONTEXT, traceId + TRACE_CONTEXT_SEPARATOR + spanId);
+        } else {
+            populateMDCTracing(traceId, spanId);
+        }
+    }
+
+    private static void putIfChanged(String key, String value) {
+        if (value == null || !value.equals(MDC.get(key))) {
+            MDC.put(key, value);
         }
     }
     private static void closeActiveSpan(){
@@ -92,21 +230,90 @@ public class TracerUtil {
         }
     }
 
+    /**
+     * Resolves the parent of a new span. The active span of the tracer is preferred; trace ids in MDC are only used
+     * when there is none. The context extracted from MDC is cached per platform thread until the MDC ids change.
+     */
     public static SpanContext buildSpanFromHeaders(Tracer tracer) {
-        if(isTracePresent()){
-            Map<String, String> headers = new HashMap<>();
-            headers.put(Constants.X_B3_TRACE_ID.toLowerCase(), TracerUtil.getMDCTraceId());
-            headers.put(Constants.X_B3_SPAN_ID.toLowerCase(), TracerUtil.getMDCSpanId());
-            headers.put(Constants.X_B3_PARENT_SPAN_ID.toLowerCase(), TracerUtil.getMDCSpanId());
-            return tracer.extract(Format.Builtin.TEXT_MAP, new TextMapAdapter(headers));
+        final Span activeSpan = tracer.activeSpan();
+        if (activeSpan != null) {
+            return activeSpan.context();
+        }
+        final String traceId = getMDCTraceId();
+        final String spanId = getMDCSpanId();
+        if (!isTracePresent(traceId, spanId)) {
+            return null;
         }
-        return null;
+        final boolean cacheable = !VirtualThreads.isCurrentThreadVirtual();
+        final ExtractedContext cached = cacheable ? EXTRACTED_CONTEXT.get() : null;
+        if (cached != null && cached.matches(tracer, traceId, spanId)) {
+            return cached.context;
+        }
+        final Map<String, String> headers = new HashMap<>(4);
+        headers.put(X_B3_TRACE_ID_HEADER, traceId);
+        headers.put(X_B3_SPAN_ID_HEADER, spanId);
+        headers.put(X_B3_PARENT_SPAN_ID_HEADER, spanId);
+        final SpanContext context = tracer.extract(Format.Builtin.TEXT_MAP, new TextMapAdapter(headers));
+        if (cacheable) {
+            EXTRACTED_CONTEXT.set(new ExtractedContext(tracer, traceId, spanId, context));
+        }
+        return context;
     }
 
     public static boolean isTracePresent() {
-        if(TracerUtil.isTracerEnabled() && TracerUtil.getMDCTraceId()!=null && !TracerUtil.getMDCTraceId().isEmpty() &&  TracerUtil.getMDCSpanId()!=null && !TracerUtil.getMDCSpanId().isEmpty()){
-            return true;
+        return isTracePresent(getMDCTraceId(), getMDCSpanId());
+    }
+
+    private static boolean isTracePresent(String traceId, String spanId) {
+        return !Strings.isNullOrEmpty(traceId) && !Strings.isNullOrEmpty(spanId) && isTracerEnabled();
+    }
+
+    /**
+     * Hex strings of the last Brave ids seen on a thread, reused while the numeric ids do not change
+     */
+    private static final class HexIds {
+        private long traceIdHigh;
+        private long traceId;
+        private String traceIdString;
+        private long spanId;
+        private String spanIdString;
+
+        private String traceId(TraceContext context) {
+            if (traceIdString == null || context.traceId() != traceId || context.traceIdHigh() != traceIdHigh) {
+                traceIdHigh = context.traceIdHigh();
+                traceId = context.traceId();
+                traceIdString = context.traceIdString();
+            }
+            return traceIdString;
+        }
+
+        private String spanId(TraceContext context) {
+            if (spanIdString == null || context.spanId() != spanId) {
+                spanId = context.spanId();
+                spanIdString = context.spanIdString();
+            }
+            return spanIdString;
+        }
+    }
+
+    /**
+     * Span context extracted from a pair of MDC ids, kept to avoid a header map and extract call per span
+     */
+    private static final class ExtractedContext {
+        private final Tracer tracer;
+        private final String traceId;
+        private final String spanId;
+        private final SpanContext context;
+
+        private ExtractedContext(Tracer tracer, String traceId, String spanId, SpanContext context) {
+            this.tracer = tracer;
+            this.traceId = traceId;
+            this.spanId = spanId;
+            this.context = context;
+        }
+
+        private boolean matches(Tracer tracer, String traceId, String spanId) {
+            return this.tracer == tracer && this.traceId.equals(traceId) && this.spanId.equals(spanId);
         }
-        return false;
     }
 }
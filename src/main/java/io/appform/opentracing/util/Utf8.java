@@ -0,0 +1,102 @@
+package io.appform.opentracing.util;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Allocation free UTF-8 sizing and encoding of strings into byte buffers using absolute puts. Strings are written as
+ * a 4 byte length (-1 for null) followed by the UTF-8 bytes. Unpaired surrogates are written as '?'.
+ */
+public final class Utf8 {
+
+    private Utf8() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    /**
+     * @return Bytes used by {@link #write} for the value, including the length prefix
+     */
+    public static int sizeOf(final String value) {
+        return value == null ? 4 : 4 + encodedLength(value);
+    }
+
+    public static int encodedLength(final String value) {
+        final int length = value.length();
+        int bytes = 0;
+        for (int i = 0; i < length; i++) {
+            final char c = value.charAt(i);
+            if (c < 0x80) {
+                bytes++;
+            } else if (c < 0x800) {
+                bytes += 2;
+            } else if (isSurrogatePair(value, i)) {
+                bytes += 4;
+                i++;
+            } else if (Character.isSurrogate(c)) {
+                bytes++;
+            } else {
+                bytes += 3;
+            }
+        }
+        return bytes;
+    }
+
+    /**
+     * @return Offset just after the written value
+     */
+    public static int write(final ByteBuffer buffer,
+                            int offset,
+                            final String value) {
+        if (value == null) {
+            buffer.putInt(offset, -1);
+            return offset + 4;
+        }
+        final int lengthOffset = offset;
+        offset += 4;
+        final int length = value.length();
+        for (int i = 0; i < length; i++) {
+            final char c = value.charAt(i);
+            if (c < 0x80) {
+                buffer.put(offset++, (byte) c);
+            } else if (c < 0x800) {
+                buffer.put(offset++, (byte) (0xc0 | (c >> 6)));
+                buffer.put(offset++, (byte) (0x80 | (c & 0x3f)));
+            } else if (isSurrogatePair(value, i)) {
+                final int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                buffer.put(offset++, (byte) (0xf0 | (codePoint >> 18)));
+                buffer.put(offset++, (byte) (0x80 | ((codePoint >> 12) & 0x3f)));
+                buffer.put(offset++, (byte) (0x80 | ((codePoint >> 6) & 0x3f)));
+                buffer.put(offset++, (byte) (0x80 | (codePoint & 0x3f)));
+            } else if (Character.isSurrogate(c)) {
+                buffer.put(offset++, (byte) '?');
+            } else {
+                buffer.put(offset++, (byte) (0xe0 | (c >> 12)));
+                buffer.put(offset++, (byte) (0x80 | ((c >> 6) & 0x3f)));
+                buffer.put(offset++, (byte) (0x80 | (c & 0x3f)));
+            }
+        }
+        buffer.putInt(lengthOffset, offset - lengthOffset - 4);
+        return offset;
+    }
+
+    /**
+     * Reads a value written by {@link #write}. Allocates the resulting string.
+     */
+    public static String read(final ByteBuffer buffer,
+                              final int offset) {
+        final int length = buffer.getInt(offset);
+        if (length < 0) {
+            return null;
+        }
+        final byte[] bytes = new byte[length];
+        buffer.get(offset + 4, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static boolean isSurrogatePair(final String value,
+                                           final int index) {
+        return Character.isHighSurrogate(value.charAt(index))
+                && index + 1 < value.length()
+                && Character.isLowSurrogate(value.charAt(index + 1));
+    }
+}
@@ -0,0 +1,40 @@
+package io.appform.opentracing.util;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+
+/**
+ * Detects JDK 21+ virtual threads while the library is still built for older JDKs. Per thread caches are not
+ * worth keeping for virtual threads as there can be millions of them, each used for a single task.
+ */
+public class VirtualThreads {
+    private static final MethodHandle IS_VIRTUAL = resolveIsVirtual();
+
+    private VirtualThreads() {
+    }
+
+    public static boolean isVirtual(final Thread thread) {
+        if (IS_VIRTUAL == null) {
+            return false;
+        }
+        try {
+            return (boolean) IS_VIRTUAL.invokeExact(thread);
+        } catch (Throwable t) {
+            return false;
+        }
+    }
+
+    public static boolean isCurrentThreadVirtual() {
+        return isVirtual(Thread.currentThread());
+    }
+
+    private static MethodHandle resolveIsVirtual() {
+        try {
+            return MethodHandles.publicLookup()
+                    .findVirtual(Thread.class, "isVirtual", MethodType.methodType(boolean.class));
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            return null;
+        }
+    }
+}
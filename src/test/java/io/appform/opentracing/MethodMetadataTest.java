@@ -0,0 +1,129 @@
+package io.appform.opentracing;
+
+import org.aspectj.lang.JoinPoint;
+import org.aspectj.runtime.reflect.Factory;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Modifier;
+
+/**
+ * Test cases related to MethodMetadata
+ */
+class MethodMetadataTest {
+
+    @Test
+    void testResolveWithDefaultNames() {
+        final MethodMetadata metadata = MethodMetadata.resolve(staticPart("parameterFunction",
+                new Class[]{String.class, int.class, String.class}));
+        Assertions.assertEquals("TestMethods", metadata.getFunctionData().getClassName());
+        Assertions.assertEquals("parameterFunction", metadata.getFunctionData().getMethodName());
+        Assertions.assertEquals("method:parameterFunction", metadata.getFunctionData().getOperationName());
+        Assertions.assertEquals(3, metadata.getParameterCount());
+        Assertions.assertArrayEquals(new int[]{0, 2}, metadata.getTracedParameterIndexes());
+    }
+
+    @Test
+    void testFunctionNamesAreInterned() {
+        final FunctionData functionData = MethodMetadata.resolve(staticPart("overloadedFunction", new Class[0]))
+                .getFunctionData();
+        Assertions.assertSame("OverloadedClassName", functionData.getClassName());
+        Assertions.assertSame("overloadedMethodName", functionData.getMethodName());
+        Assertions.assertSame("method:overloadedMethodName", functionData.getOperationName());
+    }
+
+    @Test
+    void testResolveWithOverriddenNames() {
+        final MethodMetadata metadata = MethodMetadata.resolve(staticPart("overloadedFunction", new Class[0]));
+        Assertions.assertEquals("OverloadedClassName", metadata.getFunctionData().getClassName());
+        Assertions.assertEquals("overloadedMethodName", metadata.getFunctionData().getMethodName());
+        Assertions.assertEquals("method:overloadedMethodName", metadata.getFunctionData().getOperationName());
+        Assertions.assertEquals(0, metadata.getTracedParameterIndexes().length);
+    }
+
+    @Test
+    void testResolveMethodsOfAnnotatedType() {
+        final MethodMetadata traced = MethodMetadata.resolve(staticPart(JoinPoint.METHOD_EXECUTION,
+                AnnotatedType.class, "open", new Class[]{String.class}));
+        Assertions.assertTrue(traced.isTraced());
+        Assertions.assertEquals("Annotated", traced.getFunctionData().getClassName());
+        Assertions.assertEquals("open", traced.getFunctionData().getMethodName());
+        Assertions.assertArrayEquals(new int[]{0}, traced.getTracedParameterIndexes());
+
+        final MethodMetadata overridden = MethodMetadata.resolve(staticPart(JoinPoint.METHOD_EXECUTION,
+                AnnotatedType.class, "close", new Class[0]));
+        Assertions.assertEquals("Annotated", overridden.getFunctionData().getClassName());
+        Assertions.assertEquals("shut", overridden.getFunctionData().getMethodName());
+
+        Assertions.assertSame(MethodMetadata.EXCLUDED, MethodMetadata.resolve(staticPart(JoinPoint.METHOD_EXECUTION,
+                AnnotatedType.class, "helper", new Class[0])));
+        Assertions.assertSame(MethodMetadata.EXCLUDED, MethodMetadata.resolve(staticPart(JoinPoint.METHOD_EXECUTION,
+                AnnotatedType.class, "toString", new Class[0])));
+        Assertions.assertFalse(MethodMetadata.EXCLUDED.isTraced());
+    }
+
+    @Test
+    void testResolveCallsOfUnannotatedMethods() {
+        final MethodMetadata call = MethodMetadata.resolve(staticPart(JoinPoint.METHOD_CALL,
+                StringBuilder.class, "append", new Class[]{String.class}));
+        Assertions.assertTrue(call.isTraced());
+        Assertions.assertEquals("StringBuilder", call.getFunctionData().getClassName());
+        Assertions.assertEquals("append", call.getFunctionData().getMethodName());
+        Assertions.assertEquals(1, call.getParameterCount());
+        Assertions.assertEquals(0, call.getTracedParameterIndexes().length);
+
+        Assertions.assertSame(MethodMetadata.EXCLUDED, MethodMetadata.resolve(staticPart(JoinPoint.METHOD_EXECUTION,
+                StringBuilder.class, "append", new Class[]{String.class})));
+    }
+
+    private JoinPoint.StaticPart staticPart(final String methodName,
+                                            final Class<?>[] parameterTypes) {
+        return staticPart(JoinPoint.METHOD_EXECUTION, TestMethods.class, methodName, parameterTypes);
+    }
+
+    private JoinPoint.StaticPart staticPart(final String kind,
+                                            final Class<?> declaringType,
+                                            final String methodName,
+                                            final Class<?>[] parameterTypes) {
+        final Factory factory = new Factory("MethodMetadataTest.java", declaringType);
+        return factory.makeSJP(kind,
+                factory.makeMethodSig(Modifier.PUBLIC, methodName, declaringType, parameterTypes,
+                        new String[parameterTypes.length], new Class[0], void.class),
+                1);
+    }
+
+    static class TestMethods {
+
+        @TracingAnnotation
+        public void parameterFunction(@TracingParameter String x, int y, @TracingParameter String z) {
+            //Empty as needed
+        }
+
+        @TracingAnnotation(method = "overloadedMethodName", className = "OverloadedClassName")
+        public void overloadedFunction() {
+            //Empty as needed
+        }
+    }
+
+    @TracingAnnotation(className = "Annotated")
+    static class AnnotatedType {
+
+        public void open(@TracingParameter String id) {
+            //Empty as needed
+        }
+
+        @TracingAnnotation(method = "shut")
+        public void close() {
+            //Empty as needed
+        }
+
+        private void helper() {
+            //Empty as needed
+        }
+
+        @Override
+        public String toString() {
+            return "AnnotatedType";
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package io.appform.opentracing;
+
+import org.aspectj.lang.JoinPoint;
+import org.aspectj.runtime.reflect.Factory;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Modifier;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Test cases related to ParameterCapture
+ */
+class ParameterCaptureTest {
+
+    private static final int WARMUP_CALLS = 20_000;
+    private static final int MEASURED_CALLS = 100_000;
+    // The result string of "tenant_a.checkout" is ~64 bytes; anything well above that means the pipeline allocates
+    private static final long MAX_BYTES_PER_CALL = 128;
+
+    private final MethodMetadata metadata = MethodMetadata.resolve(staticPart());
+    private final TracingOptions options = new TracingOptions.TracingOptionsBuilder().build();
+
+    @Test
+    void testCaptureValidValues() {
+        Assertions.assertEquals("tenant_a.checkout", ParameterCapture.capture(metadata,
+                new Object[]{"tenant_a", 1, "checkout"}, options));
+        Assertions.assertEquals("tenant_a.MILLISECONDS", ParameterCapture.capture(metadata,
+                new Object[]{" tenant_a\t", 1, TimeUnit.MILLISECONDS}, options));
+    }
+
+    @Test
+    void testCaptureSkipsInvalidValues() {
+        Assertions.assertEquals("checkout", ParameterCapture.capture(metadata,
+                new Object[]{"1tenant", 1, "checkout"}, options));
+        Assertions.assertEquals("tenant_a", ParameterCapture.capture(metadata,
+                new Object[]{"tenant_a", 1, "check-out"}, options));
+        Assertions.assertNull(ParameterCapture.capture(metadata, new Object[]{null, 1, new Object()}, options));
+        Assertions.assertNull(ParameterCapture.capture(metadata, new Object[]{"", 1, "  "}, options));
+    }
+
+    @Test
+    void testCaptureBuiltInConverters() {
+        Assertions.assertEquals("42.-7", ParameterCapture.capture(metadata, new Object[]{42, 1, -7L}, options));
+        Assertions.assertEquals("true.123e4567-e89b-12d3-a456-426614174000", ParameterCapture.capture(metadata,
+                new Object[]{true, 1, UUID.fromString("123e4567-e89b-12d3-a456-426614174000")}, options));
+    }
+
+    @Test
+    void testCaptureCustomConverter() {
+        final TracingOptions customOptions = new TracingOptions.TracingOptionsBuilder()
+                .parameterConverter(CharSequence.class, (value, output) -> {
+                    output.append(value.length());
+                    return true;
+                })
+                .parameterConverter(Integer.class, (TracingParameterConverter.OfInt) (value, output) -> value > 0)
+                .build();
+        Assertions.assertEquals("9", ParameterCapture.capture(metadata,
+                new Object[]{new StringBuilder("not_a_str"), 1, -1}, customOptions));
+        Assertions.assertEquals("tenant_a", ParameterCapture.capture(metadata,
+                new Object[]{"tenant_a", 1, 5}, customOptions));
+    }
+
+    @Test
+    void testCaptureTruncatesLongValues() {
+        final TracingOptions limitedOptions = new TracingOptions.TracingOptionsBuilder()
+                .maxParameterLength(4)
+                .parameterConverter(Long.class, TracingParameterConverters.truncating(TracingParameterConverters.LONG, 2))
+                .build();
+        Assertions.assertEquals("tena.12", ParameterCapture.capture(metadata,
+                new Object[]{"tenant_a", 1, 12345L}, limitedOptions));
+    }
+
+    @Test
+    void testCaptureWithZeroMaxLengthDropsValue() {
+        final TracingOptions limitedOptions = new TracingOptions.TracingOptionsBuilder()
+                .parameterConverter(String.class, TracingParameterConverters.truncating(
+                        (value, output) -> output.append(value) != null, 0))
+                .build();
+        Assertions.assertEquals("42", ParameterCapture.capture(metadata,
+                new Object[]{"tenant_a", 1, 42}, limitedOptions));
+        Assertions.assertEquals("42", ParameterCapture.capture(metadata,
+                new Object[]{42, 1, "checkout"}, limitedOptions));
+    }
+
+    @Test
+    void testNestedCaptureKeepsOuterValues() {
+        final TracingOptions nestingOptions = new TracingOptions.TracingOptionsBuilder()
+                .parameterConverter(Long.class, (value, output) -> {
+                    output.append(ParameterCapture.capture(metadata, new Object[]{"inner", 1, value}, options)
+                            .replace('.', '_'));
+                    return true;
+                })
+                .build();
+        Assertions.assertEquals("tenant_a.inner_7", ParameterCapture.capture(metadata,
+                new Object[]{"tenant_a", 1, 7L}, nestingOptions));
+    }
+
+    @Test
+    void testIsValidIdentifier() {
+        Assertions.assertTrue(ParameterCapture.isValidIdentifier("_a1", 0, 3));
+        Assertions.assertTrue(ParameterCapture.isValidIdentifier("Zz_9", 0, 4));
+        Assertions.assertTrue(ParameterCapture.isValidIdentifier(" ab ", 1, 3));
+        Assertions.assertFalse(ParameterCapture.isValidIdentifier("", 0, 0));
+        Assertions.assertFalse(ParameterCapture.isValidIdentifier("9a", 0, 2));
+        Assertions.assertFalse(ParameterCapture.isValidIdentifier("a b", 0, 3));
+        Assertions.assertFalse(ParameterCapture.isValidIdentifier("\u00e9", 0, 1));
+    }
+
+    @Test
+    void testCaptureAllocationRate() {
+        final java.lang.management.ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+        Assumptions.assumeTrue(threadMXBean instanceof com.sun.management.ThreadMXBean);
+        final com.sun.management.ThreadMXBean allocationBean = (com.sun.management.ThreadMXBean) threadMXBean;
+        Assumptions.assumeTrue(allocationBean.isThreadAllocatedMemorySupported()
+                && allocationBean.isThreadAllocatedMemoryEnabled());
+
+        final Object[] args = {"tenant_a", 1, "checkout"};
+        for (int i = 0; i < WARMUP_CALLS; i++) {
+            ParameterCapture.capture(metadata, args, options);
+        }
+        final long threadId = Thread.currentThread().getId();
+        final long before = allocationBean.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < MEASURED_CALLS; i++) {
+            ParameterCapture.capture(metadata, args, options);
+        }
+        final long bytesPerCall = (allocationBean.getThreadAllocatedBytes(threadId) - before) / MEASURED_CALLS;
+        Assertions.assertTrue(bytesPerCall <= MAX_BYTES_PER_CALL, "Allocated " + bytesPerCall + " bytes per call");
+    }
+
+    private static JoinPoint.StaticPart staticPart() {
+        final Factory factory = new Factory("ParameterCaptureTest.java", TestMethods.class);
+        return factory.makeSJP(JoinPoint.METHOD_EXECUTION,
+                factory.makeMethodSig(Modifier.PUBLIC, "parameterFunction", TestMethods.class,
+                        new Class[]{String.class, int.class, Object.class}, new String[3], new Class[0], void.class),
+                1);
+    }
+
+    static class TestMethods {
+
+        @TracingAnnotation
+        public void parameterFunction(@TracingParameter String tenant, int count, @TracingParameter Object operation) {
+            //Empty as needed
+        }
+    }
+}
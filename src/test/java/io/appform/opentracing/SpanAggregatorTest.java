@@ -0,0 +1,68 @@
+package io.appform.opentracing;
+
+import io.opentracing.mock.MockSpan;
+import io.opentracing.mock.MockTracer;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Test cases related to SpanAggregator
+ */
+class SpanAggregatorTest {
+
+    private final MockTracer mockTracer = new MockTracer();
+
+    @Test
+    void testSummaryEmittedWhenParentCloses() {
+        final MockSpan parent = mockTracer.buildSpan("parent").start();
+        final SpanAggregator aggregator = SpanAggregator.current();
+        aggregator.push(parent);
+        final FunctionData functionData = new FunctionData("Batch", "process");
+        final long startNanos = System.nanoTime();
+        aggregator.peek().record(functionData, startNanos, TimeUnit.MICROSECONDS.toNanos(10), false);
+        aggregator.peek().record(functionData, startNanos + 20_000, TimeUnit.MICROSECONDS.toNanos(30), true);
+        aggregator.peek().record(functionData, startNanos + 60_000, TimeUnit.MICROSECONDS.toNanos(20), false);
+        Assertions.assertTrue(mockTracer.finishedSpans().isEmpty());
+
+        aggregator.pop(mockTracer);
+        Assertions.assertNull(aggregator.peek());
+        final List<MockSpan> finishedSpans = mockTracer.finishedSpans();
+        Assertions.assertEquals(1, finishedSpans.size());
+        final MockSpan summary = finishedSpans.get(0);
+        Assertions.assertEquals("method:process", summary.operationName());
+        Assertions.assertEquals(parent.context().spanId(), summary.parentId());
+        final Map<String, Object> tags = summary.tags();
+        Assertions.assertEquals("Batch", tags.get(TracingConstants.CLASS_NAME_TAG));
+        Assertions.assertEquals(3L, tags.get(TracingConstants.AGGREGATE_COUNT_TAG));
+        Assertions.assertEquals(1L, tags.get(TracingConstants.AGGREGATE_FAILURES_TAG));
+        Assertions.assertEquals(10L, tags.get(TracingConstants.AGGREGATE_MIN_TAG));
+        Assertions.assertEquals(30L, tags.get(TracingConstants.AGGREGATE_MAX_TAG));
+        Assertions.assertEquals(60L, tags.get(TracingConstants.AGGREGATE_TOTAL_TAG));
+        Assertions.assertEquals(TracingConstants.STATUS_FAILURE, tags.get(TracingConstants.METHOD_STATUS_TAG));
+        Assertions.assertEquals(80L, summary.finishMicros() - summary.startMicros());
+    }
+
+    @Test
+    void testCallsAreAggregatedUnderInnermostParent() {
+        final MockSpan outer = mockTracer.buildSpan("outer").start();
+        final MockSpan inner = mockTracer.buildSpan("inner").start();
+        final FunctionData first = new FunctionData("Batch", "first");
+        final FunctionData second = new FunctionData("Batch", "second");
+        final SpanAggregator aggregator = SpanAggregator.current();
+        aggregator.push(outer);
+        aggregator.push(inner);
+        aggregator.peek().record(first, System.nanoTime(), 1000, false);
+        aggregator.peek().record(second, System.nanoTime(), 1000, false);
+        aggregator.pop(mockTracer);
+        Assertions.assertEquals(2, mockTracer.finishedSpans().size());
+        mockTracer.finishedSpans().forEach(span -> Assertions.assertEquals(inner.context().spanId(), span.parentId()));
+
+        aggregator.pop(mockTracer);
+        Assertions.assertEquals(2, mockTracer.finishedSpans().size());
+        Assertions.assertNull(aggregator.peek());
+    }
+}
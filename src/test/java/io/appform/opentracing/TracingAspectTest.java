@@ -1,6 +1,12 @@
 package io.appform.opentracing;
 
 import com.google.common.base.Stopwatch;
+import io.appform.opentracing.control.TracingControls;
+import io.appform.opentracing.metrics.MethodMetrics;
+import io.appform.opentracing.metrics.MethodMetricsRegistry;
+import io.appform.opentracing.metrics.MethodMetricsSnapshot;
+import io.appform.opentracing.sampling.SamplingCounters;
+import io.appform.opentracing.sampling.SamplingStatistics;
 import io.opentracing.mock.MockSpan;
 import io.opentracing.mock.MockTracer;
 import io.opentracing.util.GlobalTracer;
@@ -9,11 +15,15 @@ import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import reactor.core.publisher.ConnectableFlux;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
 import java.lang.reflect.Field;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
@@ -169,6 +179,273 @@ class TracingAspectTest {
                 "test3.test4", "SUCCESS");
     }
 
+    @Test
+    void testTracingSpanIsActiveDuringMethodCall() {
+        mockTracer.activateSpan(mockTracer.buildSpan("test").start());
+        final TestAnnotation testAnnotation = new TestAnnotation();
+        Assertions.assertEquals("method:activeSpanFunction", testAnnotation.activeSpanFunction());
+        Assertions.assertEquals("test", ((MockSpan) GlobalTracer.get().activeSpan()).operationName());
+
+        List<MockSpan> finishedSpans = mockTracer.finishedSpans();
+        Assertions.assertEquals(1, finishedSpans.size());
+        assertSpanMetaData(finishedSpans.get(0), "method:activeSpanFunction", "activeSpanFunction", "TestAnnotation",
+                null, "SUCCESS");
+    }
+
+    @Test
+    void testTracingSkippedForUnsampledCalls() {
+        mockTracer.activateSpan(mockTracer.buildSpan("test").start());
+        TracingManager.initialize(new TracingOptions.TracingOptionsBuilder()
+                .sampler(functionData -> !"noArgsFunction".equals(functionData.getMethodName()))
+                .build());
+        try {
+            final TestAnnotation testAnnotation = new TestAnnotation();
+            Assertions.assertDoesNotThrow(testAnnotation::noArgsFunction);
+            Assertions.assertDoesNotThrow(testAnnotation::noArgsFunction);
+            Assertions.assertEquals("method:activeSpanFunction", testAnnotation.activeSpanFunction());
+
+            List<MockSpan> finishedSpans = mockTracer.finishedSpans();
+            Assertions.assertEquals(1, finishedSpans.size());
+            Assertions.assertEquals("method:activeSpanFunction", finishedSpans.get(0).operationName());
+            SamplingCounters noArgsCounters = SamplingStatistics.countersFor(
+                    new FunctionData("TestAnnotation", "noArgsFunction"));
+            Assertions.assertTrue(noArgsCounters.getDropped() >= 2);
+            Assertions.assertTrue(SamplingStatistics.countersFor(
+                    new FunctionData("TestAnnotation", "activeSpanFunction")).getSampled() >= 1);
+        } finally {
+            TracingManager.initialize(null);
+        }
+    }
+
+    @Test
+    void testNestedCallsOfDroppedTraceAreDropped() {
+        TracingManager.initialize(new TracingOptions.TracingOptionsBuilder()
+                .sampler(functionData -> !"noArgsLoopFunction".equals(functionData.getMethodName()))
+                .build());
+        try {
+            final TestAnnotation testAnnotation = new TestAnnotation();
+            testAnnotation.noArgsLoopFunction(3);
+            Assertions.assertTrue(mockTracer.finishedSpans().isEmpty());
+
+            Assertions.assertDoesNotThrow(testAnnotation::noArgsFunction);
+            Assertions.assertEquals(1, mockTracer.finishedSpans().size());
+        } finally {
+            TracingManager.initialize(null);
+        }
+    }
+
+    @Test
+    void testTracingWithLazyMDC() {
+        mockTracer.activateSpan(mockTracer.buildSpan("test").start());
+        TracingManager.initialize(new TracingOptions.TracingOptionsBuilder().mdcMode(MDCMode.LAZY).build());
+        try {
+            final TestAnnotation testAnnotation = new TestAnnotation();
+            Assertions.assertEquals("method:activeSpanFunction", testAnnotation.activeSpanFunction());
+
+            List<MockSpan> finishedSpans = mockTracer.finishedSpans();
+            Assertions.assertEquals(1, finishedSpans.size());
+            assertSpanMetaData(finishedSpans.get(0), "method:activeSpanFunction", "activeSpanFunction",
+                    "TestAnnotation", null, "SUCCESS");
+            Assertions.assertEquals(((MockSpan) GlobalTracer.get().activeSpan()).context().spanId(),
+                    finishedSpans.get(0).parentId());
+        } finally {
+            TracingManager.initialize(null);
+        }
+    }
+
+    @Test
+    void testTracingFinishesSpanWhenCompletableFutureCompletes() {
+        mockTracer.activateSpan(mockTracer.buildSpan("test").start());
+        final TestAnnotation testAnnotation = new TestAnnotation();
+        final CompletableFuture<String> success = new CompletableFuture<>();
+        final CompletableFuture<String> failure = new CompletableFuture<>();
+        Assertions.assertSame(success, testAnnotation.asyncFunction(success));
+        Assertions.assertSame(failure, testAnnotation.asyncFunction(failure));
+        Assertions.assertTrue(mockTracer.finishedSpans().isEmpty());
+
+        success.complete("done");
+        failure.completeExceptionally(new RuntimeException("Test exception"));
+
+        List<MockSpan> finishedSpans = mockTracer.finishedSpans();
+        Assertions.assertEquals(2, finishedSpans.size());
+        assertSpanMetaData(finishedSpans.get(0), "method:asyncFunction", "asyncFunction", "TestAnnotation",
+                null, "SUCCESS");
+        assertSpanMetaData(finishedSpans.get(1), "method:asyncFunction", "asyncFunction", "TestAnnotation",
+                null, "FAILURE");
+    }
+
+    @Test
+    void testTracingFinishesSpanWhenMonoTerminates() {
+        mockTracer.activateSpan(mockTracer.buildSpan("test").start());
+        final TestAnnotation testAnnotation = new TestAnnotation();
+        final Mono<String> success = testAnnotation.monoFunction(Mono.just("done"));
+        final Mono<String> failure = testAnnotation.monoFunction(Mono.error(new RuntimeException("Test exception")));
+        Assertions.assertTrue(mockTracer.finishedSpans().isEmpty());
+
+        Assertions.assertEquals("done", success.block());
+        Assertions.assertThrows(RuntimeException.class, failure::block);
+
+        List<MockSpan> finishedSpans = mockTracer.finishedSpans();
+        Assertions.assertEquals(2, finishedSpans.size());
+        assertSpanMetaData(finishedSpans.get(0), "method:monoFunction", "monoFunction", "TestAnnotation",
+                null, "SUCCESS");
+        assertSpanMetaData(finishedSpans.get(1), "method:monoFunction", "monoFunction", "TestAnnotation",
+                null, "FAILURE");
+    }
+
+    @Test
+    void testMonoSpanFollowsSubscription() throws InterruptedException {
+        mockTracer.activateSpan(mockTracer.buildSpan("test").start());
+        final TestAnnotation testAnnotation = new TestAnnotation();
+        testAnnotation.monoFunction(Mono.just("discarded"));
+        final Mono<String> mono = testAnnotation.monoFunction(Mono.just("done"));
+        final long assembledMicros = TimeUnit.MILLISECONDS.toMicros(System.currentTimeMillis());
+        Assertions.assertTrue(mockTracer.finishedSpans().isEmpty());
+
+        Thread.sleep(5);
+        Assertions.assertEquals("done", mono.block());
+        Assertions.assertEquals("done", mono.block());
+
+        List<MockSpan> finishedSpans = mockTracer.finishedSpans();
+        Assertions.assertEquals(2, finishedSpans.size());
+        for (MockSpan span : finishedSpans) {
+            assertSpanMetaData(span, "method:monoFunction", "monoFunction", "TestAnnotation", null, "SUCCESS");
+            Assertions.assertTrue(span.startMicros() > assembledMicros);
+            Assertions.assertEquals(((MockSpan) GlobalTracer.get().activeSpan()).context().spanId(), span.parentId());
+        }
+        Assertions.assertNotEquals(finishedSpans.get(0).context().spanId(), finishedSpans.get(1).context().spanId());
+    }
+
+    @Test
+    void testPublisherSubtypeIsTracedSynchronously() {
+        final TestAnnotation testAnnotation = new TestAnnotation();
+        final ConnectableFlux<String> flux = testAnnotation.connectableFluxFunction();
+        Assertions.assertNotNull(flux);
+
+        List<MockSpan> finishedSpans = mockTracer.finishedSpans();
+        Assertions.assertEquals(1, finishedSpans.size());
+        assertSpanMetaData(finishedSpans.get(0), "method:connectableFluxFunction", "connectableFluxFunction",
+                "TestAnnotation", null, "SUCCESS");
+    }
+
+    @Test
+    void testMetricsModeRecordsMetricsWithoutSpans() {
+        mockTracer.activateSpan(mockTracer.buildSpan("test").start());
+        TracingManager.initialize(new TracingOptions.TracingOptionsBuilder().mode(TracingMode.METRICS).build());
+        try {
+            final MethodMetrics metrics = MethodMetricsRegistry.metricsFor(
+                    new FunctionData("TestAnnotation", "throwException"));
+            final long successBefore = metrics.snapshot().getSuccessCount();
+            final long failureBefore = metrics.snapshot().getFailureCount();
+            final TestAnnotation testAnnotation = new TestAnnotation();
+            Assertions.assertThrows(RuntimeException.class, testAnnotation::throwException);
+            Assertions.assertThrows(RuntimeException.class, testAnnotation::throwException);
+
+            Assertions.assertTrue(mockTracer.finishedSpans().isEmpty());
+            final MethodMetricsSnapshot snapshot = metrics.snapshot();
+            Assertions.assertEquals(successBefore, snapshot.getSuccessCount());
+            Assertions.assertEquals(failureBefore + 2, snapshot.getFailureCount());
+            Assertions.assertTrue(snapshot.getMaxNanos() > 0);
+        } finally {
+            TracingManager.initialize(null);
+        }
+    }
+
+    @Test
+    void testTracingSkippedForDisabledMethod() {
+        TracingManager.initialize(null);
+        final TestAnnotation testAnnotation = new TestAnnotation();
+        TracingControls.setEnabled("TestAnnotation.noArgsFunction", false);
+        try {
+            Assertions.assertDoesNotThrow(testAnnotation::noArgsFunction);
+            Assertions.assertTrue(mockTracer.finishedSpans().isEmpty());
+        } finally {
+            TracingControls.reset("TestAnnotation.noArgsFunction");
+        }
+        Assertions.assertDoesNotThrow(testAnnotation::noArgsFunction);
+        Assertions.assertEquals(1, mockTracer.finishedSpans().size());
+    }
+
+    @Test
+    void testParameterCaptureEnabledForSingleMethod() {
+        TracingManager.initialize(null);
+        final TestAnnotation testAnnotation = new TestAnnotation();
+        TracingControls.setParameterCapture("TestAnnotation.parameter*", true);
+        try {
+            Assertions.assertDoesNotThrow(() -> testAnnotation.parameterValidFunction("test1", "test2"));
+        } finally {
+            TracingControls.resetAll();
+        }
+        List<MockSpan> finishedSpans = mockTracer.finishedSpans();
+        Assertions.assertEquals(1, finishedSpans.size());
+        assertSpanMetaData(finishedSpans.get(0), "method:parameterValidFunction", "parameterValidFunction",
+                "TestAnnotation", "test1.test2", "SUCCESS");
+    }
+
+    @Test
+    void testTracingPublicMethodsOfAnnotatedType() {
+        TracingManager.initialize(null);
+        final AnnotatedType annotatedType = new AnnotatedType();
+        Assertions.assertEquals("AnnotatedType", annotatedType.toString());
+        Assertions.assertEquals(2, annotatedType.publicFunction());
+        List<MockSpan> finishedSpans = mockTracer.finishedSpans();
+        Assertions.assertEquals(1, finishedSpans.size());
+        assertSpanMetaData(finishedSpans.get(0), "method:publicFunction", "publicFunction", "TypeClassName", null,
+                "SUCCESS");
+    }
+
+    @Test
+    void testAggregatedCallsAreMergedIntoSummarySpan() {
+        TracingManager.initialize(null);
+        final TestAnnotation testAnnotation = new TestAnnotation();
+        Assertions.assertEquals(100, testAnnotation.loopFunction(100));
+        List<MockSpan> finishedSpans = mockTracer.finishedSpans();
+        Assertions.assertEquals(2, finishedSpans.size());
+        final MockSpan summary = finishedSpans.get(0);
+        final MockSpan parent = finishedSpans.get(1);
+        Assertions.assertEquals("method:aggregatedFunction", summary.operationName());
+        Assertions.assertEquals(parent.context().spanId(), summary.parentId());
+        Assertions.assertEquals(100L, summary.tags().get(TracingConstants.AGGREGATE_COUNT_TAG));
+        Assertions.assertEquals(0L, summary.tags().get(TracingConstants.AGGREGATE_FAILURES_TAG));
+
+        mockTracer.reset();
+        Assertions.assertEquals(1, testAnnotation.aggregatedFunction(0));
+        Assertions.assertEquals(1, mockTracer.finishedSpans().size());
+        Assertions.assertNull(mockTracer.finishedSpans().get(0).tags().get(TracingConstants.AGGREGATE_COUNT_TAG));
+    }
+
+    @Test
+    void testAggregatedCallsOfSampledOutParentAreDropped() {
+        TracingManager.initialize(new TracingOptions.TracingOptionsBuilder()
+                .sampler(functionData -> !"loopFunction".equals(functionData.getMethodName()))
+                .build());
+        try {
+            final TestAnnotation testAnnotation = new TestAnnotation();
+            Assertions.assertEquals(10, testAnnotation.outerLoopFunction(10));
+            List<MockSpan> finishedSpans = mockTracer.finishedSpans();
+            Assertions.assertEquals(1, finishedSpans.size());
+            Assertions.assertEquals("method:outerLoopFunction", finishedSpans.get(0).operationName());
+        } finally {
+            TracingManager.initialize(null);
+        }
+    }
+
+    @Test
+    void testAggregatedMethodsFromOptions() {
+        TracingManager.initialize(new TracingOptions.TracingOptionsBuilder()
+                .aggregatedMethods("TestAnnotation.noArgsFunction")
+                .build());
+        try {
+            final TestAnnotation testAnnotation = new TestAnnotation();
+            testAnnotation.noArgsLoopFunction(10);
+            List<MockSpan> finishedSpans = mockTracer.finishedSpans();
+            Assertions.assertEquals(2, finishedSpans.size());
+            Assertions.assertEquals(10L, finishedSpans.get(0).tags().get(TracingConstants.AGGREGATE_COUNT_TAG));
+        } finally {
+            TracingManager.initialize(null);
+        }
+    }
+
     @Test
     void testCachingMT() {
         final double avgTime = runMTTest();
@@ -248,9 +525,72 @@ class TracingAspectTest {
             //Empty as needed
         }
 
+        @TracingAnnotation()
+        private String activeSpanFunction() {
+            return ((MockSpan) GlobalTracer.get().activeSpan()).operationName();
+        }
+
+        @TracingAnnotation()
+        private CompletableFuture<String> asyncFunction(CompletableFuture<String> result) {
+            return result;
+        }
+
+        @TracingAnnotation()
+        private Mono<String> monoFunction(Mono<String> result) {
+            return result;
+        }
+
+        @TracingAnnotation()
+        private ConnectableFlux<String> connectableFluxFunction() {
+            return Flux.just("done").publish();
+        }
+
+        @TracingAnnotation()
+        private int loopFunction(int iterations) {
+            int total = 0;
+            for (int i = 0; i < iterations; i++) {
+                total += aggregatedFunction(i);
+            }
+            return total;
+        }
+
+        @TracingAnnotation()
+        private int outerLoopFunction(int iterations) {
+            return loopFunction(iterations);
+        }
+
+        @TracingAnnotation(aggregate = true)
+        private int aggregatedFunction(int i) {
+            return 1;
+        }
+
+        @TracingAnnotation()
+        private void noArgsLoopFunction(int iterations) {
+            for (int i = 0; i < iterations; i++) {
+                noArgsFunction();
+            }
+        }
+
         @TracingAnnotation()
         private void invalidArgsFunction(@TracingParameter MockTracer mockTracer) {
             System.out.println("Invalid args");
         }
     }
+
+    @TracingAnnotation(className = "TypeClassName")
+    private static class AnnotatedType {
+
+        public int publicFunction() {
+            return privateFunction() + 1;
+        }
+
+        private int privateFunction() {
+            return 1;
+        }
+
+        @Override
+        public String toString() {
+            return "AnnotatedType";
+        }
+    }
 }
@@ -0,0 +1,67 @@
+package io.appform.opentracing;
+
+import io.opentracing.Scope;
+import io.opentracing.mock.MockTracer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Test cases related to TracingErrors
+ */
+class TracingErrorsTest {
+
+    @AfterEach
+    void cleanup() {
+        TracingErrors.reset();
+    }
+
+    @Test
+    void testErrorsAreCountedPerOperationAndType() {
+        final Scope failingScope = () -> {
+            throw new IllegalStateException("queue full");
+        };
+        for (int i = 0; i < 10; i++) {
+            Assertions.assertDoesNotThrow(() -> TracingHandler.closeScope(failingScope));
+        }
+        Assertions.assertEquals(10, TracingErrors.getErrorCount());
+        final Map<String, Long> errorCounts = TracingErrors.getErrorCounts();
+        Assertions.assertEquals(1, errorCounts.size());
+        Assertions.assertEquals(10L, errorCounts.get("closing scope: java.lang.IllegalStateException"));
+        Assertions.assertFalse(TracingErrors.isTracingSuspended());
+    }
+
+    @Test
+    void testRepeatedFailuresSuspendTracing() {
+        final Scope failingScope = () -> {
+            throw new IllegalStateException("queue full");
+        };
+        for (int i = 0; i < TracingErrors.FAILURE_THRESHOLD; i++) {
+            TracingHandler.closeScope(failingScope);
+        }
+        Assertions.assertTrue(TracingErrors.isTracingSuspended());
+        Assertions.assertEquals(1, TracingErrors.getSuspensionCount());
+        Assertions.assertNull(TracingHandler.startSpan(new MockTracer(), new FunctionData("c", "m"), null));
+
+        TracingErrors.reset();
+        Assertions.assertFalse(TracingErrors.isTracingSuspended());
+        Assertions.assertNotNull(TracingHandler.startSpan(new MockTracer(), new FunctionData("c", "m"), null));
+    }
+
+    @Test
+    void testCircuitBreakerClosesAfterCooldown() throws InterruptedException {
+        final TracingErrors.CircuitBreaker circuitBreaker = new TracingErrors.CircuitBreaker(3,
+                TimeUnit.SECONDS.toNanos(10), TimeUnit.MILLISECONDS.toNanos(50));
+        circuitBreaker.recordFailure();
+        circuitBreaker.recordFailure();
+        Assertions.assertFalse(circuitBreaker.isOpen());
+        circuitBreaker.recordFailure();
+        Assertions.assertTrue(circuitBreaker.isOpen());
+        Assertions.assertEquals(1, circuitBreaker.getOpenCount());
+        Thread.sleep(100);
+        Assertions.assertFalse(circuitBreaker.isOpen());
+    }
+}
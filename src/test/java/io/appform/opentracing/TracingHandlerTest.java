@@ -7,6 +7,7 @@ import io.opentracing.mock.MockSpan;
 import io.opentracing.mock.MockTracer;
 import io.opentracing.noop.NoopScopeManager;
 import io.opentracing.noop.NoopSpan;
+import io.opentracing.tag.Tags;
 import io.opentracing.util.GlobalTracer;
 import io.opentracing.util.ThreadLocalScope;
 import java.util.Map;
@@ -83,6 +84,26 @@ class TracingHandlerTest {
         Assertions.assertEquals("FAILURE", tags.get(TracingConstants.METHOD_STATUS_TAG));
     }
 
+    @Test
+    void testAddErrorTagsFromThrowable() {
+        MockSpan span = mockTracer.buildSpan("test").start();
+        StringBuilder message = new StringBuilder();
+        for (int i = 0; i < 300; i++) {
+            message.append('x');
+        }
+        TracingHandler.addErrorTagToSpan(span, new IllegalStateException(message.toString()));
+        Map<String, Object> tags = span.tags();
+        Assertions.assertEquals("FAILURE", tags.get(TracingConstants.METHOD_STATUS_TAG));
+        Assertions.assertEquals(true, tags.get(Tags.ERROR.getKey()));
+        Assertions.assertEquals(IllegalStateException.class.getName(), tags.get(TracingConstants.ERROR_KIND_TAG));
+        Assertions.assertEquals(TracingConstants.MAX_ERROR_MESSAGE_LENGTH,
+                ((String) tags.get(TracingConstants.ERROR_MESSAGE_TAG)).length());
+
+        MockSpan withoutMessage = mockTracer.buildSpan("test").start();
+        TracingHandler.addErrorTagToSpan(withoutMessage, new NullPointerException());
+        Assertions.assertFalse(withoutMessage.tags().containsKey(TracingConstants.ERROR_MESSAGE_TAG));
+    }
+
     @Test
     void testCloseSpanAndScope() {
         Assertions.assertDoesNotThrow(() -> TracingHandler.closeSpanAndScope(null, null));
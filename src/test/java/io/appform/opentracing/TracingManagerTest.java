@@ -3,10 +3,13 @@ package io.appform.opentracing;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 
+import java.util.concurrent.atomic.AtomicBoolean;
+
 /**
  * Tracing Manager Test
  */
 class TracingManagerTest {
+    private static final AtomicBoolean UNWOVEN_TARGET_INITIALISED = new AtomicBoolean();
 
     @Test
     void testGetTracingOptions() {
@@ -21,4 +24,136 @@ class TracingManagerTest {
         Assertions.assertNotNull(result);
         Assertions.assertTrue(result.isParameterCaptureEnabled());
     }
+
+    @Test
+    void testReload() {
+        final TracingParameterConverter<StringBuilder> converter = (value, output) -> {
+            output.append(value);
+            return true;
+        };
+        TracingManager.initialize(new TracingOptions.TracingOptionsBuilder()
+                .parameterCaptureEnabled(true)
+                .parameterConverter(StringBuilder.class, converter)
+                .mdcMode(MDCMode.LAZY)
+                .build());
+
+        final TracingOptions reloaded = TracingManager.reload(options -> options.toBuilder()
+                .parameterCaptureEnabled(false)
+                .build());
+        Assertions.assertSame(reloaded, TracingManager.getTracingOptions());
+        Assertions.assertFalse(TracingManager.getActiveOptions().isParameterCaptureEnabled());
+        Assertions.assertFalse(reloaded.isParameterCaptureEnabled());
+        Assertions.assertEquals(MDCMode.LAZY, reloaded.getMdcMode());
+        Assertions.assertFalse(reloaded.isEagerMDC());
+        Assertions.assertSame(converter, reloaded.getParameterConverters().converterFor(StringBuilder.class));
+        TracingManager.initialize(null);
+    }
+
+    @Test
+    @SuppressWarnings("deprecation")
+    void testDeprecatedSettersReplaceActiveOptions() {
+        final TracingOptions options = new TracingOptions();
+        TracingManager.initialize(options);
+        final TracingOptions initial = TracingManager.getActiveOptions();
+        Assertions.assertNotSame(options, initial);
+        Assertions.assertFalse(initial.isParameterCaptureEnabled());
+
+        options.setParameterCaptureEnabled(true);
+        options.setDisableCacheOptimisation(true);
+        final TracingOptions active = TracingManager.getActiveOptions();
+        Assertions.assertSame(options, TracingManager.getTracingOptions());
+        Assertions.assertFalse(initial.isParameterCaptureEnabled());
+        Assertions.assertTrue(active.isParameterCaptureEnabled());
+        Assertions.assertFalse(active.isCacheEnabled());
+        Assertions.assertThrows(UnsupportedOperationException.class, () -> active.setParameterCaptureEnabled(false));
+        TracingManager.initialize(null);
+    }
+
+    @Test
+    @SuppressWarnings("deprecation")
+    void testDeprecatedSettersOfBuiltOptions() {
+        final TracingOptions options = new TracingOptions.TracingOptionsBuilder()
+                .mdcMode(MDCMode.LAZY)
+                .build();
+        TracingManager.initialize(options);
+        final TracingOptions initial = TracingManager.getActiveOptions();
+        Assertions.assertNotSame(options, initial);
+
+        options.setParameterCaptureEnabled(true);
+        final TracingOptions active = TracingManager.getActiveOptions();
+        Assertions.assertTrue(options.isParameterCaptureEnabled());
+        Assertions.assertFalse(initial.isParameterCaptureEnabled());
+        Assertions.assertTrue(active.isParameterCaptureEnabled());
+        Assertions.assertEquals(MDCMode.LAZY, active.getMdcMode());
+
+        final TracingOptions reloaded = TracingManager.reload(current -> {
+            Assertions.assertSame(options, current);
+            return current.toBuilder().parameterCaptureEnabled(false).build();
+        });
+        reloaded.setDisableCacheOptimisation(true);
+        Assertions.assertFalse(TracingManager.getActiveOptions().isCacheEnabled());
+        options.setParameterCaptureEnabled(true);
+        Assertions.assertFalse(TracingManager.getActiveOptions().isParameterCaptureEnabled());
+        Assertions.assertSame(reloaded, TracingManager.getTracingOptions());
+        TracingManager.initialize(null);
+    }
+
+    @Test
+    void testDefaultsWhenNotInitialized() {
+        TracingManager.initialize(null);
+        final TracingOptions options = TracingManager.getActiveOptions();
+        Assertions.assertNotNull(options);
+        Assertions.assertFalse(options.isParameterCaptureEnabled());
+        Assertions.assertTrue(options.isCacheEnabled());
+        Assertions.assertTrue(options.isEagerMDC());
+        Assertions.assertTrue(options.recordsSpans());
+        Assertions.assertFalse(options.recordsMetrics());
+
+        final TracingOptions reloaded = TracingManager.reload(current -> current.toBuilder()
+                .mode(TracingMode.METRICS)
+                .build());
+        Assertions.assertFalse(reloaded.recordsSpans());
+        Assertions.assertTrue(reloaded.recordsMetrics());
+        TracingManager.initialize(null);
+    }
+
+    @Test
+    void testWarmUpClasses() {
+        final WarmUpReport report = TracingManager.warmUp(WarmUpTarget.class);
+        Assertions.assertEquals(1, report.getClassCount());
+        Assertions.assertEquals(0, report.getFailedClassCount());
+        Assertions.assertEquals(2, report.getJoinPointCount());
+        Assertions.assertNotNull(report.getDuration());
+    }
+
+    @Test
+    void testWarmUpPackages() {
+        final WarmUpReport report = TracingManager.warmUp(TracingManagerTest.class.getPackage().getName());
+        Assertions.assertTrue(report.getClassCount() > 1);
+        Assertions.assertTrue(report.getJoinPointCount() >= 2);
+        Assertions.assertFalse(UNWOVEN_TARGET_INITIALISED.get());
+    }
+
+    static class WarmUpTarget {
+
+        @TracingAnnotation
+        public String traced(@TracingParameter String value) {
+            return value;
+        }
+
+        @TracingAnnotation(className = "WarmUp", method = "tracedAgain")
+        public String tracedAgain() {
+            return "";
+        }
+
+        public String untraced() {
+            return "";
+        }
+    }
+
+    static class UnwovenWarmUpTarget {
+        static {
+            UNWOVEN_TARGET_INITIALISED.set(true);
+        }
+    }
 }
@@ -0,0 +1,66 @@
+package io.appform.opentracing;
+
+import org.aspectj.lang.JoinPoint;
+import org.aspectj.runtime.reflect.Factory;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Modifier;
+
+/**
+ * Test cases related to TracingMetadataRegistry
+ */
+class TracingMetadataRegistryTest {
+
+    @Test
+    void testRegisteredMetadataIsUsed() {
+        final TracingMetadataRegistry registry = new TracingMetadataRegistry();
+        registry.register(TestMethods.class.getName(), "parameterFunction",
+                new String[]{"java.lang.String", "[I", "[Ljava.lang.String;"},
+                "GeneratedClassName", "generatedMethodName", new int[]{2});
+        Assertions.assertEquals(1, registry.size());
+
+        final MethodMetadata metadata = MethodMetadata.resolve(staticPart("parameterFunction",
+                new Class[]{String.class, int[].class, String[].class}), registry);
+        Assertions.assertEquals("GeneratedClassName", metadata.getFunctionData().getClassName());
+        Assertions.assertEquals("generatedMethodName", metadata.getFunctionData().getMethodName());
+        Assertions.assertEquals(3, metadata.getParameterCount());
+        Assertions.assertArrayEquals(new int[]{2}, metadata.getTracedParameterIndexes());
+        Assertions.assertEquals(AsyncReturnType.NONE, metadata.getAsyncReturnType());
+    }
+
+    @Test
+    void testMissingMetadataFallsBackToReflection() {
+        final TracingMetadataRegistry registry = new TracingMetadataRegistry();
+        registry.register(TestMethods.class.getName(), "parameterFunction", new String[0],
+                "GeneratedClassName", "generatedMethodName", new int[0]);
+
+        final MethodMetadata metadata = MethodMetadata.resolve(staticPart("parameterFunction",
+                new Class[]{String.class, int[].class, String[].class}), registry);
+        Assertions.assertEquals("TestMethods", metadata.getFunctionData().getClassName());
+        Assertions.assertEquals("parameterFunction", metadata.getFunctionData().getMethodName());
+        Assertions.assertArrayEquals(new int[]{0}, metadata.getTracedParameterIndexes());
+    }
+
+    @Test
+    void testLoadWithoutProviders() {
+        Assertions.assertEquals(0, TracingMetadataRegistry.load().size());
+    }
+
+    private JoinPoint.StaticPart staticPart(final String methodName,
+                                            final Class<?>[] parameterTypes) {
+        final Factory factory = new Factory("TracingMetadataRegistryTest.java", TestMethods.class);
+        return factory.makeSJP(JoinPoint.METHOD_EXECUTION,
+                factory.makeMethodSig(Modifier.PUBLIC, methodName, TestMethods.class, parameterTypes,
+                        new String[parameterTypes.length], new Class[0], void.class),
+                1);
+    }
+
+    static class TestMethods {
+
+        @TracingAnnotation
+        public void parameterFunction(@TracingParameter String x, int[] y, String[] z) {
+            //Empty as needed
+        }
+    }
+}
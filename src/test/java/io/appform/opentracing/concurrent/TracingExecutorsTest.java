@@ -0,0 +1,101 @@
+package io.appform.opentracing.concurrent;
+
+import io.appform.opentracing.sampling.UnsampledTrace;
+import io.opentracing.Scope;
+import io.opentracing.Span;
+import io.opentracing.mock.MockTracer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Test cases related to TracingExecutors
+ */
+class TracingExecutorsTest {
+
+    private final MockTracer mockTracer = new MockTracer();
+    private final ExecutorService executorService = Executors.newSingleThreadExecutor();
+    private final ScheduledExecutorService scheduledExecutorService = Executors.newSingleThreadScheduledExecutor();
+
+    @AfterEach
+    void cleanup() {
+        executorService.shutdownNow();
+        scheduledExecutorService.shutdownNow();
+    }
+
+    @Test
+    void testExecutorServicePropagatesActiveSpan() throws Exception {
+        final ExecutorService wrapped = TracingExecutors.wrap(executorService, mockTracer);
+        final Span parent = mockTracer.buildSpan("parent").start();
+        final Callable<Span> activeSpan = mockTracer::activeSpan;
+        try (Scope ignored = mockTracer.activateSpan(parent)) {
+            Assertions.assertSame(parent, wrapped.submit(activeSpan).get());
+            final List<Future<Span>> futures = wrapped.invokeAll(Arrays.asList(activeSpan, activeSpan));
+            for (Future<Span> future : futures) {
+                Assertions.assertSame(parent, future.get());
+            }
+        }
+        Assertions.assertNull(wrapped.submit(activeSpan).get());
+    }
+
+    @Test
+    void testExecutorServicePropagatesDroppedTrace() throws Exception {
+        final ExecutorService wrapped = TracingExecutors.wrap(executorService, mockTracer);
+        final Callable<Boolean> unsampled = UnsampledTrace::isActive;
+        final boolean previous = UnsampledTrace.enter();
+        try {
+            Assertions.assertTrue(wrapped.submit(unsampled).get());
+        } finally {
+            UnsampledTrace.exit(previous);
+        }
+        Assertions.assertFalse(wrapped.submit(unsampled).get());
+        Assertions.assertFalse(executorService.submit(unsampled).get());
+    }
+
+    @Test
+    void testWorkerScopeIsRestored() throws Exception {
+        final ExecutorService wrapped = TracingExecutors.wrap(executorService, mockTracer);
+        final Span workerSpan = mockTracer.buildSpan("worker").start();
+        executorService.submit(() -> mockTracer.activateSpan(workerSpan)).get();
+        final Span parent = mockTracer.buildSpan("parent").start();
+        try (Scope ignored = mockTracer.activateSpan(parent)) {
+            Assertions.assertSame(parent, wrapped.submit(mockTracer::activeSpan).get());
+        }
+        Assertions.assertSame(workerSpan, executorService.submit(mockTracer::activeSpan).get());
+    }
+
+    @Test
+    void testScheduledExecutorServicePropagatesActiveSpan() throws Exception {
+        final ScheduledExecutorService wrapped = TracingExecutors.wrap(scheduledExecutorService, mockTracer);
+        final Span parent = mockTracer.buildSpan("parent").start();
+        try (Scope ignored = mockTracer.activateSpan(parent)) {
+            Assertions.assertSame(parent, wrapped.schedule(mockTracer::activeSpan, 1, TimeUnit.MILLISECONDS).get());
+        }
+    }
+
+    @Test
+    void testCompletableFuturePropagatesActiveSpan() throws Exception {
+        final Span parent = mockTracer.buildSpan("parent").start();
+        try (Scope ignored = mockTracer.activateSpan(parent)) {
+            final CompletableFuture<Span> future = CompletableFuture.supplyAsync(
+                    TracingExecutors.wrap((Supplier<Span>) mockTracer::activeSpan, mockTracer), executorService);
+            Assertions.assertSame(parent, future.get());
+            final CompletableFuture<Span> chained = CompletableFuture.completedFuture(null)
+                    .thenApplyAsync(ignore -> mockTracer.activeSpan(),
+                            TracingExecutors.wrap((Executor) executorService, mockTracer));
+            Assertions.assertSame(parent, chained.get());
+        }
+    }
+}
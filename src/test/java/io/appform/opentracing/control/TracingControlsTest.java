@@ -0,0 +1,80 @@
+package io.appform.opentracing.control;
+
+import io.appform.opentracing.FunctionData;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+
+/**
+ * Test cases related to TracingControls
+ */
+class TracingControlsTest {
+
+    @AfterEach
+    void cleanup() {
+        TracingControls.resetAll();
+    }
+
+    @Test
+    void testRulesArePushedToExistingControls() {
+        final MethodTracingControl checkout = TracingControls.controlFor(new FunctionData("OrderService", "checkout"));
+        final MethodTracingControl cancel = TracingControls.controlFor(new FunctionData("OrderService", "cancel"));
+        Assertions.assertSame(MethodTracingState.DEFAULT, checkout.getState());
+
+        TracingControls.setEnabled("OrderService.*", false);
+        Assertions.assertFalse(checkout.getState().isEnabled());
+        Assertions.assertFalse(cancel.getState().isEnabled());
+
+        TracingControls.setEnabled("OrderService.checkout", true);
+        Assertions.assertTrue(checkout.getState().isEnabled());
+        Assertions.assertFalse(cancel.getState().isEnabled());
+
+        TracingControls.reset("OrderService.*");
+        Assertions.assertTrue(cancel.getState().isEnabled());
+        Assertions.assertSame(checkout, TracingControls.controlFor(new FunctionData("OrderService", "checkout")));
+    }
+
+    @Test
+    void testNewControlsFollowExistingRules() {
+        TracingControls.setSamplingRate("PaymentService.*", 0.0);
+        TracingControls.setParameterCapture("PaymentService.pay", true);
+
+        final MethodTracingState state = TracingControls.controlFor(new FunctionData("PaymentService", "pay"))
+                .getState();
+        Assertions.assertTrue(state.isEnabled());
+        Assertions.assertEquals(0.0, state.getSamplingRate());
+        Assertions.assertFalse(state.getSampler().isSampled(new FunctionData("PaymentService", "pay")));
+        Assertions.assertTrue(state.isParameterCaptureEnabled(false));
+        Assertions.assertFalse(TracingControls.controlFor(new FunctionData("PaymentService", "refund"))
+                .getState()
+                .isParameterCaptureEnabled(false));
+    }
+
+    @Test
+    void testInvalidSamplingRateKeepsRule() {
+        TracingControls.setSamplingRate("Service.call", 0.5);
+        Assertions.assertThrows(IllegalArgumentException.class, () -> TracingControls.setSamplingRate("Service.call", 2));
+        Assertions.assertEquals(0.5, TracingControls.getRules().get("Service.call").getSamplingRate());
+    }
+
+    @Test
+    void testMBean() throws Exception {
+        final MethodTracingControl control = TracingControls.controlFor(new FunctionData("Inventory", "reserve"));
+        TracingControls.registerMBean();
+        TracingControls.registerMBean();
+
+        final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        final ObjectName name = new ObjectName(TracingControls.MBEAN_NAME);
+        server.invoke(name, "disable", new Object[]{"Inventory.*"}, new String[]{String.class.getName()});
+        Assertions.assertFalse(control.getState().isEnabled());
+        Assertions.assertEquals(1, ((String[]) server.getAttribute(name, "Rules")).length);
+        Assertions.assertEquals(1, ((String[]) server.getAttribute(name, "OverriddenMethods")).length);
+
+        server.invoke(name, "resetAll", new Object[0], new String[0]);
+        Assertions.assertTrue(control.getState().isEnabled());
+    }
+}
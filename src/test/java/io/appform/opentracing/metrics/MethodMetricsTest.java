@@ -0,0 +1,65 @@
+package io.appform.opentracing.metrics;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Test cases related to MethodMetrics and LatencyHistogram
+ */
+class MethodMetricsTest {
+
+    @Test
+    void testBucketBoundsCoverValues() {
+        final long[] values = {0, 1, 15, 16, 17, 31, 32, 33, 1000, 123_456, 999_999_999L, TimeUnit.MINUTES.toNanos(10)};
+        for (long value : values) {
+            final int index = LatencyHistogram.bucketIndex(value);
+            Assertions.assertTrue(LatencyHistogram.bucketUpperBound(index) >= value);
+            Assertions.assertTrue(index == 0 || LatencyHistogram.bucketUpperBound(index - 1) < value);
+            Assertions.assertTrue(LatencyHistogram.bucketUpperBound(index) - value <= Math.max(1, value / 16));
+        }
+        Assertions.assertEquals(LatencyHistogram.BUCKET_COUNT - 1, LatencyHistogram.bucketIndex(Long.MAX_VALUE));
+        Assertions.assertEquals(0, LatencyHistogram.bucketIndex(-5));
+    }
+
+    @Test
+    void testSnapshot() {
+        final MethodMetrics metrics = new MethodMetrics();
+        IntStream.rangeClosed(1, 100).forEach(i -> metrics.recordSuccess(i * 1000L));
+        metrics.recordFailure(1_000_000L);
+
+        final MethodMetricsSnapshot snapshot = metrics.snapshot();
+        Assertions.assertEquals(100, snapshot.getSuccessCount());
+        Assertions.assertEquals(1, snapshot.getFailureCount());
+        Assertions.assertEquals(101, snapshot.getCount());
+        Assertions.assertEquals(1_000_000L, snapshot.getMaxNanos());
+        Assertions.assertEquals(6_050_000L, snapshot.getTotalNanos());
+        Assertions.assertEquals(50_000, snapshot.getPercentileNanos(50), 50_000 / 16.0);
+        Assertions.assertEquals(99_000, snapshot.getPercentileNanos(98), 99_000 / 16.0);
+        Assertions.assertEquals(1_000_000L, snapshot.getPercentileNanos(100));
+
+        metrics.reset();
+        Assertions.assertEquals(0, metrics.snapshot().getCount());
+        Assertions.assertEquals(0, metrics.snapshot().getPercentileNanos(99));
+    }
+
+    @Test
+    void testConcurrentRecording() throws InterruptedException {
+        final MethodMetrics metrics = new MethodMetrics();
+        final ExecutorService executorService = Executors.newFixedThreadPool(8);
+        IntStream.range(0, 8).forEach(i -> executorService.submit(() -> {
+            for (int j = 0; j < 10_000; j++) {
+                metrics.recordSuccess(j);
+            }
+        }));
+        executorService.shutdown();
+        Assertions.assertTrue(executorService.awaitTermination(10, TimeUnit.SECONDS));
+        final MethodMetricsSnapshot snapshot = metrics.snapshot();
+        Assertions.assertEquals(80_000, snapshot.getSuccessCount());
+        Assertions.assertEquals(9_999, snapshot.getMaxNanos());
+    }
+}
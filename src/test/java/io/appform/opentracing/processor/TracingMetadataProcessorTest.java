@@ -0,0 +1,182 @@
+package io.appform.opentracing.processor;
+
+import io.appform.opentracing.TracingAnnotation;
+import io.appform.opentracing.TracingMetadataProvider;
+import io.appform.opentracing.TracingMetadataRegistry;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.tools.JavaCompiler;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+import java.io.File;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Test cases related to TracingMetadataProcessor
+ */
+class TracingMetadataProcessorTest {
+
+    private static final String SOURCE = String.join("\n",
+            "package sample;",
+            "import io.appform.opentracing.TracingAnnotation;",
+            "import io.appform.opentracing.TracingParameter;",
+            "import java.util.List;",
+            "public class Service {",
+            "    @TracingAnnotation",
+            "    public void call(@TracingParameter String id, int count, List<String> names, long[][] ids) {",
+            "    }",
+            "    public void untraced() {",
+            "    }",
+            "    public static class Nested {",
+            "        @TracingAnnotation(className = \"Custom\", method = \"custom\")",
+            "        public <T extends Number> void generic(T value, @TracingParameter Object... values) {",
+            "        }",
+            "    }",
+            "    public Runnable local() {",
+            "        return new Runnable() {",
+            "            @TracingAnnotation",
+            "            public void run() {",
+            "            }",
+            "        };",
+            "    }",
+            "}");
+
+    private static final String TYPE_SOURCE = String.join("\n",
+            "package sample;",
+            "import io.appform.opentracing.TracingAnnotation;",
+            "@TracingAnnotation(className = \"Api\")",
+            "public interface Api {",
+            "    default String name(String prefix) {",
+            "        return prefix;",
+            "    }",
+            "    void send();",
+            "    @TracingAnnotation(method = \"closed\")",
+            "    default void close() {",
+            "    }",
+            "    String toString();",
+            "}",
+            "@TracingAnnotation",
+            "class Client {",
+            "    public static void create() {",
+            "    }",
+            "    void internal() {",
+            "    }",
+            "    @TracingAnnotation(aggregate = true)",
+            "    public void batch() {",
+            "    }",
+            "    @Override",
+            "    public String toString() {",
+            "        return \"\";",
+            "    }",
+            "    public boolean equals(Client other) {",
+            "        return true;",
+            "    }",
+            "}",
+            "@TracingAnnotation",
+            "@interface Marker {",
+            "    String value() default \"\";",
+            "}");
+
+    @Test
+    void testGeneratesProvider(@TempDir Path directory) throws Exception {
+        final Path output = compile(directory, "sample/Service.java", SOURCE);
+
+        Assertions.assertEquals(List.of("sample.Service_TracingMetadata"), Files.readAllLines(
+                output.resolve("META-INF/services/" + TracingMetadataProvider.class.getName())));
+        final String generated = new String(Files.readAllBytes(output.resolve("sample/Service_TracingMetadata.java")),
+                StandardCharsets.UTF_8);
+        Assertions.assertTrue(generated.contains("registry.register(\"sample.Service\", \"call\", "
+                + "new String[]{\"java.lang.String\", \"int\", \"java.util.List\", \"[[J\"}, "
+                + "\"Service\", \"call\", new int[]{0});"), generated);
+        Assertions.assertTrue(generated.contains("registry.register(\"sample.Service$Nested\", \"generic\", "
+                + "new String[]{\"java.lang.Number\", \"[Ljava.lang.Object;\"}, "
+                + "\"Custom\", \"custom\", new int[]{1});"), generated);
+
+        final Thread thread = Thread.currentThread();
+        final ClassLoader contextClassLoader = thread.getContextClassLoader();
+        try (URLClassLoader classLoader = new URLClassLoader(new URL[]{output.toUri().toURL()},
+                getClass().getClassLoader())) {
+            thread.setContextClassLoader(classLoader);
+            Assertions.assertEquals(2, TracingMetadataRegistry.load().size());
+        } finally {
+            thread.setContextClassLoader(contextClassLoader);
+        }
+    }
+
+    @Test
+    void testGeneratesProviderForAnnotatedTypes(@TempDir Path directory) throws Exception {
+        final Path output = compile(directory, "sample/Api.java", TYPE_SOURCE);
+
+        Assertions.assertEquals(List.of("sample.Api_TracingMetadata", "sample.Client_TracingMetadata"),
+                Files.readAllLines(output.resolve("META-INF/services/" + TracingMetadataProvider.class.getName())));
+        final String api = new String(Files.readAllBytes(output.resolve("sample/Api_TracingMetadata.java")),
+                StandardCharsets.UTF_8);
+        Assertions.assertTrue(api.contains("registry.register(\"sample.Api\", \"name\", "
+                + "new String[]{\"java.lang.String\"}, \"Api\", \"name\", new int[]{});"), api);
+        Assertions.assertTrue(api.contains("registry.register(\"sample.Api\", \"close\", "
+                + "new String[]{}, \"Api\", \"closed\", new int[]{});"), api);
+        Assertions.assertFalse(api.contains("\"send\""), api);
+        Assertions.assertFalse(api.contains("\"toString\""), api);
+        final String client = new String(Files.readAllBytes(output.resolve("sample/Client_TracingMetadata.java")),
+                StandardCharsets.UTF_8);
+        Assertions.assertTrue(client.contains("\"create\""), client);
+        Assertions.assertTrue(client.contains("\"equals\""), client);
+        Assertions.assertTrue(client.contains("registry.register(\"sample.Client\", \"batch\", "
+                + "new String[]{}, \"Client\", \"batch\", new int[]{}, true);"), client);
+        Assertions.assertFalse(client.contains("\"internal\""), client);
+        Assertions.assertFalse(client.contains("\"toString\""), client);
+        Assertions.assertFalse(Files.exists(output.resolve("sample/Marker_TracingMetadata.java")));
+    }
+
+    @Test
+    void testIncrementalCompilationKeepsRegisteredProviders(@TempDir Path directory) throws Exception {
+        final Path output = directory.resolve("classes");
+        compile(directory, output, "sample/Service.java", SOURCE);
+        compile(directory, output, "sample/Api.java", TYPE_SOURCE);
+        compile(directory, output, "sample/Service.java", SOURCE);
+
+        Assertions.assertEquals(List.of("sample.Service_TracingMetadata", "sample.Api_TracingMetadata",
+                "sample.Client_TracingMetadata"),
+                Files.readAllLines(output.resolve("META-INF/services/" + TracingMetadataProvider.class.getName())));
+    }
+
+    private static Path compile(final Path directory,
+                                final String fileName,
+                                final String content) throws Exception {
+        return compile(directory, directory.resolve("classes"), fileName, content);
+    }
+
+    private static Path compile(final Path directory,
+                                final Path output,
+                                final String fileName,
+                                final String content) throws Exception {
+        final Path source = directory.resolve(fileName);
+        Files.createDirectories(source.getParent());
+        Files.write(source, content.getBytes(StandardCharsets.UTF_8));
+        Files.createDirectories(output);
+
+        final JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        try (StandardJavaFileManager fileManager = compiler.getStandardFileManager(null, null, StandardCharsets.UTF_8)) {
+            final JavaCompiler.CompilationTask task = compiler.getTask(null, fileManager, null,
+                    List.of("-classpath", classPath(), "-d", output.toString(), "-s", output.toString()),
+                    null, fileManager.getJavaFileObjects(source.toFile()));
+            task.setProcessors(Collections.singletonList(new TracingMetadataProcessor()));
+            Assertions.assertTrue(task.call());
+        }
+        return output;
+    }
+
+    private static String classPath() throws Exception {
+        return Paths.get(TracingAnnotation.class.getProtectionDomain().getCodeSource().getLocation().toURI())
+                + File.pathSeparator + System.getProperty("java.class.path");
+    }
+}
@@ -0,0 +1,199 @@
+package io.appform.opentracing.recorder;
+
+import io.appform.opentracing.FunctionData;
+import io.appform.opentracing.TracingConstants;
+import io.appform.opentracing.TracingHandler;
+import io.opentracing.Scope;
+import io.opentracing.Span;
+import io.opentracing.SpanContext;
+import io.opentracing.propagation.Format;
+import io.opentracing.propagation.TextMapAdapter;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Test cases related to RecordingTracer
+ */
+class RecordingTracerTest {
+    private static final int WARMUP_CALLS = 50_000;
+    private static final int MEASURED_CALLS = 100_000;
+
+    private final List<SpanRecordData> records = Collections.synchronizedList(new ArrayList<>());
+    private final RecordingTracer tracer = RecordingTracer.builder()
+            .sink((buffer, offset, length) -> records.add(SpanRecordData.decode(buffer, offset)))
+            .build();
+    private final FunctionData functionData = new FunctionData("TestClass", "testMethod");
+
+    @AfterEach
+    void cleanup() {
+        tracer.close();
+    }
+
+    @Test
+    void testSpansAreRecordedWithParent() throws Exception {
+        final Span parent = TracingHandler.startSpan(tracer, functionData, "tenant_a");
+        try (Scope ignored = tracer.activateSpan(parent)) {
+            final Span child = TracingHandler.startSpan(tracer, functionData, null);
+            child.setTag(TracingConstants.METHOD_STATUS_TAG, TracingConstants.STATUS_SUCCESS);
+            child.setTag("custom", 42);
+            child.finish();
+        }
+        parent.setTag(TracingConstants.METHOD_STATUS_TAG, TracingConstants.STATUS_FAILURE);
+        parent.finish();
+        awaitRecords(2);
+
+        final SpanRecordData child = records.get(0);
+        final SpanRecordData root = records.get(1);
+        Assertions.assertEquals(root.getTraceId(), child.getTraceId());
+        Assertions.assertEquals(root.getSpanId(), child.getParentId());
+        Assertions.assertEquals(0, root.getParentId());
+        Assertions.assertEquals("method:testMethod", root.getOperationName());
+        Assertions.assertEquals("TestClass", root.getClassName());
+        Assertions.assertEquals("testMethod", root.getMethodName());
+        Assertions.assertEquals("tenant_a", root.getParameterString());
+        Assertions.assertEquals(TracingConstants.STATUS_FAILURE, root.getStatus());
+        Assertions.assertEquals(TracingConstants.STATUS_SUCCESS, child.getStatus());
+        Assertions.assertEquals("42", child.getTags().get("custom"));
+        Assertions.assertTrue(root.getDurationNanos() >= child.getDurationNanos());
+        Assertions.assertNull(tracer.activeSpan());
+    }
+
+    @Test
+    void testChildStartedAfterParentFinished() throws Exception {
+        final Span parent = TracingHandler.startSpan(tracer, functionData, null);
+        final SpanContext parentContext = parent.context();
+        parent.finish();
+
+        final Thread worker = new Thread(() -> {
+            try (Scope ignored = tracer.activateSpan(parent)) {
+                TracingHandler.startSpan(tracer, functionData, null).finish();
+            }
+        });
+        worker.start();
+        worker.join();
+        tracer.buildSpan("child").asChildOf(parentContext).start().finish();
+        awaitRecords(3);
+
+        final SpanRecordData root = records.get(0);
+        Assertions.assertEquals(0, root.getParentId());
+        for (SpanRecordData child : records.subList(1, 3)) {
+            Assertions.assertEquals(root.getTraceId(), child.getTraceId());
+            Assertions.assertEquals(root.getSpanId(), child.getParentId());
+        }
+    }
+
+    @Test
+    void testHandedOffSpanSurvivesRecordReuse() throws Exception {
+        final RecordingTracer smallPoolTracer = RecordingTracer.builder()
+                .sink((buffer, offset, length) -> records.add(SpanRecordData.decode(buffer, offset)))
+                .poolSize(2)
+                .build();
+        try {
+            final Span parent = TracingHandler.startSpan(smallPoolTracer, functionData, null);
+            final Span handedOff;
+            final SpanContext parentContext;
+            try (Scope ignored = smallPoolTracer.activateSpan(parent)) {
+                handedOff = smallPoolTracer.activeSpan();
+                parentContext = parent.context();
+            }
+            parent.finish();
+            for (int i = 0; i < 4; i++) {
+                smallPoolTracer.buildSpan("unrelated").start().finish();
+            }
+            handedOff.setTag("late", "tag");
+            handedOff.finish();
+
+            final Thread worker = new Thread(() -> {
+                try (Scope ignored = smallPoolTracer.activateSpan(handedOff)) {
+                    TracingHandler.startSpan(smallPoolTracer, functionData, null).finish();
+                }
+            });
+            worker.start();
+            worker.join();
+            awaitRecords(6);
+
+            final SpanRecordData root = records.get(0);
+            final SpanRecordData child = records.get(5);
+            Assertions.assertEquals(root.getTraceId(), child.getTraceId());
+            Assertions.assertEquals(root.getSpanId(), child.getParentId());
+            Assertions.assertEquals(RecordingTracer.toHex(root.getSpanId()), parentContext.toSpanId());
+            Assertions.assertTrue(records.stream().noneMatch(record -> record.getTags().containsKey("late")));
+        } finally {
+            smallPoolTracer.close();
+        }
+    }
+
+    @Test
+    void testDiscardedRecordIsSkipped() {
+        final SpanRecordRingBuffer ring = new SpanRecordRingBuffer(1024);
+        final int discarded = ring.claim(20);
+        final int published = ring.claim(8);
+        ring.buffer().putLong(published, 42L);
+        ring.publish(published, 8);
+        ring.discard(discarded, 20);
+
+        final List<Long> values = new ArrayList<>();
+        Assertions.assertEquals(1, ring.read((buffer, offset, length) -> values.add(buffer.getLong(offset)), 10));
+        Assertions.assertEquals(Collections.singletonList(42L), values);
+        Assertions.assertEquals(0, ring.size());
+    }
+
+    @Test
+    void testInjectAndExtract() {
+        final Span span = tracer.buildSpan("remote").start();
+        final Map<String, String> headers = new HashMap<>();
+        tracer.inject(span.context(), Format.Builtin.HTTP_HEADERS, new TextMapAdapter(headers));
+        final SpanContext extracted = tracer.extract(Format.Builtin.HTTP_HEADERS, new TextMapAdapter(headers));
+        Assertions.assertEquals(span.context().toTraceId(), extracted.toTraceId());
+
+        final Span child = tracer.buildSpan("child").asChildOf(extracted).start();
+        Assertions.assertEquals(span.context().toTraceId(), child.context().toTraceId());
+        Assertions.assertNull(tracer.extract(Format.Builtin.HTTP_HEADERS, new TextMapAdapter(new HashMap<>())));
+    }
+
+    @Test
+    void testTracedCallDoesNotAllocate() {
+        final java.lang.management.ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+        Assumptions.assumeTrue(threadMXBean instanceof com.sun.management.ThreadMXBean);
+        final com.sun.management.ThreadMXBean allocationBean = (com.sun.management.ThreadMXBean) threadMXBean;
+        Assumptions.assumeTrue(allocationBean.isThreadAllocatedMemorySupported()
+                && allocationBean.isThreadAllocatedMemoryEnabled());
+
+        for (int i = 0; i < WARMUP_CALLS; i++) {
+            tracedCall();
+        }
+        final long threadId = Thread.currentThread().getId();
+        final long before = allocationBean.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < MEASURED_CALLS; i++) {
+            tracedCall();
+        }
+        final long bytesPerCall = (allocationBean.getThreadAllocatedBytes(threadId) - before) / MEASURED_CALLS;
+        Assertions.assertEquals(0, bytesPerCall, "Allocated " + bytesPerCall + " bytes per call");
+    }
+
+    private void tracedCall() {
+        final Span span = TracingHandler.startSpan(tracer, functionData, null);
+        final Scope scope = tracer.activateSpan(span);
+        span.setTag(TracingConstants.METHOD_STATUS_TAG, TracingConstants.STATUS_SUCCESS);
+        scope.close();
+        span.finish();
+    }
+
+    private void awaitRecords(final int count) throws InterruptedException {
+        final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (records.size() < count && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+        Assertions.assertEquals(count, records.size());
+    }
+}
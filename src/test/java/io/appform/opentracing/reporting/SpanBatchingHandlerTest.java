@@ -0,0 +1,205 @@
+package io.appform.opentracing.reporting;
+
+import brave.Span;
+import brave.Tracing;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Test cases related to the ring buffer and span batching handler
+ */
+class SpanBatchingHandlerTest {
+
+    @Test
+    void testRingBufferIsBoundedAndOrdered() {
+        final MpscRingBuffer<Integer> buffer = new MpscRingBuffer<>(3);
+        Assertions.assertEquals(4, buffer.capacity());
+        for (int i = 0; i < 4; i++) {
+            Assertions.assertTrue(buffer.offer(i));
+        }
+        Assertions.assertFalse(buffer.offer(4));
+        Assertions.assertEquals(0, buffer.poll());
+        Assertions.assertTrue(buffer.offer(4));
+
+        final List<Integer> drained = new ArrayList<>();
+        Assertions.assertEquals(4, buffer.drainTo(drained, 10));
+        Assertions.assertEquals(List.of(1, 2, 3, 4), drained);
+        Assertions.assertNull(buffer.poll());
+    }
+
+    @Test
+    void testRingBufferConcurrentProducers() throws Exception {
+        final MpscRingBuffer<Integer> buffer = new MpscRingBuffer<>(1 << 16);
+        final int producers = 8;
+        final int perProducer = 5_000;
+        final ExecutorService executorService = Executors.newFixedThreadPool(producers);
+        final CountDownLatch done = new CountDownLatch(producers);
+        for (int p = 0; p < producers; p++) {
+            executorService.execute(() -> {
+                for (int i = 0; i < perProducer; i++) {
+                    buffer.offer(i);
+                }
+                done.countDown();
+            });
+        }
+        Assertions.assertTrue(done.await(10, TimeUnit.SECONDS));
+        executorService.shutdown();
+        Assertions.assertEquals(producers * perProducer, buffer.drainTo(new ArrayList<>(), Integer.MAX_VALUE));
+    }
+
+    @Test
+    void testSpansAreReportedInBatches() {
+        final RecordingSink sink = new RecordingSink();
+        final SpanBatchingHandler handler = SpanBatchingHandler.builder()
+                .sink(sink)
+                .maxBatchSize(10)
+                .flushInterval(10, TimeUnit.MILLISECONDS)
+                .build();
+        try (Tracing tracing = Tracing.newBuilder().addSpanHandler(handler).build()) {
+            for (int i = 0; i < 25; i++) {
+                final Span span = tracing.tracer().nextSpan().name("method:test" + i).start();
+                span.finish();
+            }
+        }
+        handler.close();
+
+        Assertions.assertEquals(25, handler.getAcceptedSpans());
+        Assertions.assertEquals(25, handler.getReportedSpans());
+        Assertions.assertEquals(0, handler.getDroppedSpans());
+        Assertions.assertEquals(25, sink.spanCount.get());
+        Assertions.assertTrue(sink.batches.size() >= 3);
+        Assertions.assertTrue(sink.batches.get(0).startsWith("[{"));
+        Assertions.assertTrue(sink.batches.stream().anyMatch(batch -> batch.contains("\"name\":\"method:test0\"")));
+        Assertions.assertTrue(sink.closed);
+    }
+
+    @Test
+    void testFullBatchIsReportedBeforeFlushInterval() throws Exception {
+        final RecordingSink sink = new RecordingSink();
+        final SpanBatchingHandler handler = SpanBatchingHandler.builder()
+                .sink(sink)
+                .maxBatchSize(10)
+                .flushInterval(1, TimeUnit.HOURS)
+                .build();
+        try (Tracing tracing = Tracing.newBuilder().addSpanHandler(handler).build()) {
+            for (int i = 0; i < 10; i++) {
+                tracing.tracer().nextSpan().name("method:full").start().finish();
+            }
+            final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (sink.spanCount.get() < 10 && System.nanoTime() < deadline) {
+                Thread.sleep(1);
+            }
+        }
+        Assertions.assertEquals(10, sink.spanCount.get());
+        Assertions.assertEquals(1, sink.batches.size());
+        handler.close();
+    }
+
+    @Test
+    void testSpansAreDroppedWhenBufferIsFull() throws Exception {
+        final CountDownLatch release = new CountDownLatch(1);
+        final RecordingSink sink = new RecordingSink() {
+            @Override
+            public void write(byte[] encodedSpans, int spanCount) {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                super.write(encodedSpans, spanCount);
+            }
+        };
+        final SpanBatchingHandler handler = SpanBatchingHandler.builder()
+                .sink(sink)
+                .queueCapacity(4)
+                .maxBatchSize(1)
+                .build();
+        try (Tracing tracing = Tracing.newBuilder().addSpanHandler(handler).build()) {
+            for (int i = 0; i < 100; i++) {
+                tracing.tracer().nextSpan().name("dropped").start().finish();
+            }
+        }
+        release.countDown();
+        handler.close();
+
+        Assertions.assertTrue(handler.getDroppedSpans() > 0);
+        Assertions.assertEquals(100, handler.getAcceptedSpans() + handler.getDroppedSpans());
+        Assertions.assertEquals(handler.getAcceptedSpans(), handler.getReportedSpans());
+    }
+
+    @Test
+    void testSpansAcceptedWhileClosingAreReported() throws Exception {
+        final RecordingSink sink = new RecordingSink();
+        final SpanBatchingHandler handler = SpanBatchingHandler.builder()
+                .sink(sink)
+                .queueCapacity(1 << 16)
+                .flushInterval(1, TimeUnit.MILLISECONDS)
+                .build();
+        final int producers = 4;
+        final ExecutorService executorService = Executors.newFixedThreadPool(producers);
+        final CountDownLatch started = new CountDownLatch(producers);
+        try (Tracing tracing = Tracing.newBuilder().addSpanHandler(handler).build()) {
+            for (int p = 0; p < producers; p++) {
+                executorService.execute(() -> {
+                    started.countDown();
+                    for (int i = 0; i < 10_000; i++) {
+                        tracing.tracer().nextSpan().name("closing").start().finish();
+                    }
+                });
+            }
+            Assertions.assertTrue(started.await(10, TimeUnit.SECONDS));
+            handler.close();
+            executorService.shutdown();
+            Assertions.assertTrue(executorService.awaitTermination(10, TimeUnit.SECONDS));
+        }
+
+        Assertions.assertEquals(handler.getAcceptedSpans(), handler.getReportedSpans());
+        Assertions.assertEquals(handler.getAcceptedSpans(), sink.spanCount.get());
+        Assertions.assertEquals(0, handler.getQueueDepth());
+    }
+
+    @Test
+    void testSinkFailuresAreCounted() {
+        final SpanBatchingHandler handler = SpanBatchingHandler.builder()
+                .sink((encodedSpans, spanCount) -> {
+                    throw new IOException("Collector down");
+                })
+                .flushInterval(1, TimeUnit.MILLISECONDS)
+                .build();
+        try (Tracing tracing = Tracing.newBuilder().addSpanHandler(handler).build()) {
+            tracing.tracer().nextSpan().name("failing").start().finish();
+        }
+        handler.close();
+
+        Assertions.assertEquals(1, handler.getFailedSpans());
+        Assertions.assertEquals(0, handler.getReportedSpans());
+    }
+
+    private static class RecordingSink implements SpanSink {
+        private final List<String> batches = Collections.synchronizedList(new ArrayList<>());
+        private final AtomicInteger spanCount = new AtomicInteger();
+        private volatile boolean closed;
+
+        @Override
+        public void write(byte[] encodedSpans, int spanCount) {
+            batches.add(new String(encodedSpans, StandardCharsets.UTF_8));
+            this.spanCount.addAndGet(spanCount);
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+    }
+}
@@ -0,0 +1,227 @@
+package io.appform.opentracing.reporting;
+
+import brave.Span;
+import brave.Tracing;
+import brave.handler.MutableSpan;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Test cases related to the memory-mapped span spool
+ */
+class SpanSpoolTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testSpanRoundTrip() throws IOException {
+        try (SpanSpool spool = SpanSpool.open(directory, 4096, 4)) {
+            final MutableSpan span = span(1);
+            span.kind(Span.Kind.SERVER);
+            span.localServiceName("service");
+            span.error(new IllegalStateException("failed"));
+            span.name("method:caf\u00e9\ud83d\ude00");
+            Assertions.assertTrue(spool.append(span));
+
+            final MutableSpan decoded = spool.poll();
+            Assertions.assertNotNull(decoded);
+            Assertions.assertEquals(span.traceId(), decoded.traceId());
+            Assertions.assertEquals(span.id(), decoded.id());
+            Assertions.assertEquals("method:caf\u00e9\ud83d\ude00", decoded.name());
+            Assertions.assertEquals(Span.Kind.SERVER, decoded.kind());
+            Assertions.assertEquals("service", decoded.localServiceName());
+            Assertions.assertEquals(10L, decoded.startTimestamp());
+            Assertions.assertEquals(20L, decoded.finishTimestamp());
+            Assertions.assertEquals("Foo", decoded.tag("class"));
+            Assertions.assertEquals("failed", decoded.tag("error"));
+            Assertions.assertEquals("checkpoint", decoded.annotationValueAt(0));
+            Assertions.assertNull(spool.poll());
+        }
+    }
+
+    @Test
+    void testReadingResumesFromCommittedOffset() throws IOException {
+        try (SpanSpool spool = SpanSpool.open(directory, 4096, 100)) {
+            for (int i = 0; i < 200; i++) {
+                Assertions.assertTrue(spool.append(span(i)));
+            }
+            Assertions.assertTrue(spool.getSegmentCount() > 1);
+            for (int i = 0; i < 50; i++) {
+                Assertions.assertEquals("method:test" + i, spool.poll().name());
+            }
+            spool.commit();
+            spool.poll();
+        }
+
+        try (SpanSpool spool = SpanSpool.open(directory, 4096, 100)) {
+            for (int i = 50; i < 200; i++) {
+                Assertions.assertEquals("method:test" + i, spool.poll().name());
+            }
+            Assertions.assertNull(spool.poll());
+            spool.commit();
+            Assertions.assertEquals(1, spool.getSegmentCount());
+        }
+    }
+
+    @Test
+    void testConcurrentAppends() throws Exception {
+        final int producers = 8;
+        final int perProducer = 2_000;
+        try (SpanSpool spool = SpanSpool.open(directory, 1 << 16, 1000)) {
+            final ExecutorService executorService = Executors.newFixedThreadPool(producers);
+            final CountDownLatch done = new CountDownLatch(producers);
+            final AtomicBoolean failed = new AtomicBoolean();
+            for (int p = 0; p < producers; p++) {
+                executorService.execute(() -> {
+                    for (int i = 0; i < perProducer; i++) {
+                        if (!spool.append(span(i))) {
+                            failed.set(true);
+                        }
+                    }
+                    done.countDown();
+                });
+            }
+            Assertions.assertTrue(done.await(30, TimeUnit.SECONDS));
+            executorService.shutdown();
+            Assertions.assertFalse(failed.get());
+
+            int read = 0;
+            while (spool.poll() != null) {
+                read++;
+            }
+            Assertions.assertEquals(producers * perProducer, read);
+        }
+    }
+
+    @Test
+    void testReaderSkipsSpanThatFailedToEncode() throws IOException {
+        try (SpanSpool spool = SpanSpool.open(directory, 4096, 4)) {
+            final MutableSpan failing = span(1);
+            failing.error(new FailingMessageException());
+            Assertions.assertFalse(spool.append(failing));
+            Assertions.assertTrue(spool.append(span(2)));
+
+            final MutableSpan decoded = spool.poll();
+            Assertions.assertNotNull(decoded);
+            Assertions.assertEquals("method:test2", decoded.name());
+            Assertions.assertNull(spool.poll());
+        }
+    }
+
+    @Test
+    void testAppendsAreRejectedWhenSpoolIsFull() throws IOException {
+        try (SpanSpool spool = SpanSpool.open(directory, 2048, 2)) {
+            int accepted = 0;
+            for (int i = 0; i < 100; i++) {
+                if (spool.append(span(i))) {
+                    accepted++;
+                }
+            }
+            Assertions.assertTrue(accepted > 0);
+            Assertions.assertTrue(accepted < 100);
+            Assertions.assertEquals(2, spool.getSegmentCount());
+        }
+    }
+
+    @Test
+    void testHandlerShipsSpooledSpansAfterSinkRecovers() throws Exception {
+        final AtomicBoolean sinkDown = new AtomicBoolean(true);
+        final List<String> batches = Collections.synchronizedList(new ArrayList<>());
+        final SpanSink sink = (encodedSpans, spanCount) -> {
+            if (sinkDown.get()) {
+                throw new IOException("Collector down");
+            }
+            batches.add(new String(encodedSpans, StandardCharsets.UTF_8));
+        };
+        final SpoolingSpanHandler handler = SpoolingSpanHandler.builder()
+                .directory(directory)
+                .sink(sink)
+                .segmentSize(4096)
+                .flushInterval(5, TimeUnit.MILLISECONDS)
+                .build();
+        try (Tracing tracing = Tracing.newBuilder().addSpanHandler(handler).build()) {
+            for (int i = 0; i < 20; i++) {
+                tracing.tracer().nextSpan().name("method:spooled" + i).start().finish();
+            }
+        }
+        final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (handler.getFailedBatches() == 0 && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        sinkDown.set(false);
+        while (handler.getShippedSpans() < 20 && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        handler.close();
+
+        Assertions.assertEquals(20, handler.getSpooledSpans());
+        Assertions.assertEquals(20, handler.getShippedSpans());
+        Assertions.assertTrue(handler.getFailedBatches() > 0);
+        Assertions.assertTrue(batches.stream().anyMatch(batch -> batch.contains("\"name\":\"method:spooled0\"")));
+    }
+
+    @Test
+    void testHandlerShipsFullBatchBeforeFlushInterval() throws Exception {
+        final List<String> batches = Collections.synchronizedList(new ArrayList<>());
+        final SpoolingSpanHandler handler = SpoolingSpanHandler.builder()
+                .directory(directory)
+                .sink((encodedSpans, spanCount) -> batches.add(new String(encodedSpans, StandardCharsets.UTF_8)))
+                .segmentSize(4096)
+                .maxBatchSize(10)
+                .flushInterval(1, TimeUnit.HOURS)
+                .build();
+        try (Tracing tracing = Tracing.newBuilder().addSpanHandler(handler).build()) {
+            for (int i = 0; i < 10; i++) {
+                tracing.tracer().nextSpan().name("method:full").start().finish();
+            }
+        }
+        final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (handler.getShippedSpans() < 10 && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+        Assertions.assertEquals(10, handler.getShippedSpans());
+        Assertions.assertEquals(1, batches.size());
+        handler.close();
+    }
+
+    private static MutableSpan span(final int index) {
+        final MutableSpan span = new MutableSpan();
+        span.traceId("0000000000000001");
+        span.id(String.format("%016x", index + 1));
+        span.name("method:test" + index);
+        span.startTimestamp(10);
+        span.finishTimestamp(20);
+        span.tag("class", "Foo");
+        span.annotate(15, "checkpoint");
+        return span;
+    }
+
+    /**
+     * Sized with its message, then fails while the span is encoded
+     */
+    private static class FailingMessageException extends RuntimeException {
+        private final AtomicBoolean sized = new AtomicBoolean();
+
+        @Override
+        public String getMessage() {
+            if (sized.compareAndSet(false, true)) {
+                return "failed";
+            }
+            throw new IllegalStateException("Changed while encoding");
+        }
+    }
+}
@@ -0,0 +1,180 @@
+package io.appform.opentracing.reporting;
+
+import brave.Span;
+import brave.Tracing;
+import brave.handler.MutableSpan;
+import brave.handler.SpanHandler;
+import brave.propagation.TraceContext;
+import io.appform.opentracing.FunctionData;
+import io.appform.opentracing.TracingConstants;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Test cases related to tail based sampling of traces
+ */
+class TailSamplingSpanHandlerTest {
+
+    @Test
+    void testFastTraceIsDropped() {
+        final CollectingHandler delegate = new CollectingHandler();
+        final TailSamplingSpanHandler handler = TailSamplingSpanHandler.builder()
+                .delegate(delegate)
+                .defaultLatencyThreshold(100, TimeUnit.MILLISECONDS)
+                .build();
+        try (Tracing tracing = Tracing.newBuilder().addSpanHandler(handler).build()) {
+            trace(tracing, 1_000, TracingConstants.STATUS_SUCCESS);
+        }
+
+        Assertions.assertTrue(delegate.spans.isEmpty());
+        Assertions.assertEquals(0, handler.getKeptTraces());
+        Assertions.assertEquals(1, handler.getDroppedTraces());
+        Assertions.assertEquals(3, handler.getDroppedSpans());
+        Assertions.assertEquals(0, handler.getBufferedTraces());
+        Assertions.assertEquals(0, handler.getBufferedSpans());
+        Assertions.assertEquals(0, handler.getBufferedBytes());
+    }
+
+    @Test
+    void testFailedChildKeepsWholeTrace() {
+        final CollectingHandler delegate = new CollectingHandler();
+        final TailSamplingSpanHandler handler = TailSamplingSpanHandler.builder()
+                .delegate(delegate)
+                .build();
+        try (Tracing tracing = Tracing.newBuilder().addSpanHandler(handler).build()) {
+            trace(tracing, 1_000, TracingConstants.STATUS_FAILURE);
+            trace(tracing, 1_000, TracingConstants.STATUS_SUCCESS);
+        }
+
+        Assertions.assertEquals(3, delegate.spans.size());
+        Assertions.assertEquals("method:root", delegate.spans.get(2).name());
+        Assertions.assertEquals(1, handler.getKeptTraces());
+        Assertions.assertEquals(3, handler.getExportedSpans());
+        Assertions.assertEquals(1, handler.getDroppedTraces());
+        Assertions.assertEquals(0, handler.getBufferedSpans());
+    }
+
+    @Test
+    void testMethodLatencyThreshold() {
+        final CollectingHandler delegate = new CollectingHandler();
+        final TailSamplingSpanHandler handler = TailSamplingSpanHandler.builder()
+                .delegate(delegate)
+                .latencyThreshold(new FunctionData("Repository", "load"), 5, TimeUnit.MILLISECONDS)
+                .defaultLatencyThreshold(1, TimeUnit.SECONDS)
+                .build();
+        try (Tracing tracing = Tracing.newBuilder().addSpanHandler(handler).build()) {
+            trace(tracing, 4_000, TracingConstants.STATUS_SUCCESS);
+            trace(tracing, 6_000, TracingConstants.STATUS_SUCCESS);
+        }
+
+        Assertions.assertEquals(1, handler.getKeptTraces());
+        Assertions.assertEquals(1, handler.getDroppedTraces());
+        Assertions.assertEquals(3, delegate.spans.size());
+    }
+
+    @Test
+    void testLeastRecentlyUpdatedTracesAreEvicted() {
+        final CollectingHandler delegate = new CollectingHandler();
+        final TailSamplingSpanHandler handler = TailSamplingSpanHandler.builder()
+                .delegate(delegate)
+                .maxBufferedBytes(4 * TailSamplingSpanHandler.SPAN_OVERHEAD_BYTES)
+                .build();
+        try (Tracing tracing = Tracing.newBuilder().addSpanHandler(handler).build()) {
+            final List<Span> roots = new ArrayList<>();
+            for (int i = 0; i < 10; i++) {
+                final Span root = tracing.tracer().newTrace().name("method:root").start();
+                tracing.tracer().newChild(root.context()).name("method:child").start().finish();
+                roots.add(root);
+            }
+            Assertions.assertTrue(handler.getBufferedBytes() <= 4 * TailSamplingSpanHandler.SPAN_OVERHEAD_BYTES);
+            Assertions.assertTrue(handler.getEvictedTraces() > 0);
+            Assertions.assertEquals(10, handler.getEvictedTraces() + handler.getBufferedTraces());
+            Assertions.assertEquals(handler.getEvictedTraces(), handler.getEvictedSpans());
+
+            final Span latest = roots.get(9);
+            latest.tag(TracingConstants.METHOD_STATUS_TAG, TracingConstants.STATUS_FAILURE);
+            latest.finish();
+        }
+
+        Assertions.assertEquals(1, handler.getKeptTraces());
+        Assertions.assertEquals(2, delegate.spans.size());
+    }
+
+    @Test
+    void testSpanFinishingAfterLocalRootFollowsTraceDecision() {
+        final CollectingHandler delegate = new CollectingHandler();
+        final CollectingHandler next = new CollectingHandler();
+        final TailSamplingSpanHandler handler = TailSamplingSpanHandler.builder()
+                .delegate(delegate)
+                .build();
+        try (Tracing tracing = Tracing.newBuilder().addSpanHandler(handler).addSpanHandler(next).build()) {
+            final Span keptRoot = tracing.tracer().newTrace().name("method:root").start();
+            final Span keptLate = tracing.tracer().newChild(keptRoot.context()).name("method:late").start();
+            keptRoot.tag(TracingConstants.METHOD_STATUS_TAG, TracingConstants.STATUS_FAILURE);
+            keptRoot.finish();
+            keptLate.finish();
+
+            final Span droppedRoot = tracing.tracer().newTrace().name("method:root").start();
+            final Span droppedLate = tracing.tracer().newChild(droppedRoot.context()).name("method:late").start();
+            droppedRoot.finish();
+            droppedLate.finish();
+        }
+
+        Assertions.assertEquals(2, delegate.spans.size());
+        Assertions.assertEquals("method:root", delegate.spans.get(0).name());
+        Assertions.assertEquals("method:late", delegate.spans.get(1).name());
+        Assertions.assertTrue(next.spans.isEmpty());
+        Assertions.assertEquals(1, handler.getKeptTraces());
+        Assertions.assertEquals(2, handler.getExportedSpans());
+        Assertions.assertEquals(1, handler.getDroppedTraces());
+        Assertions.assertEquals(2, handler.getDroppedSpans());
+        Assertions.assertEquals(2, handler.getLateSpans());
+        Assertions.assertEquals(0, handler.getBufferedTraces());
+        Assertions.assertEquals(0, handler.getEvictedTraces());
+    }
+
+    @Test
+    void testBuilderValidation() {
+        Assertions.assertThrows(NullPointerException.class, () -> TailSamplingSpanHandler.builder().build());
+        Assertions.assertThrows(IllegalArgumentException.class, () -> TailSamplingSpanHandler.builder()
+                .delegate(new CollectingHandler())
+                .maxBufferedBytes(0)
+                .build());
+        Assertions.assertThrows(IllegalArgumentException.class, () -> TailSamplingSpanHandler.builder()
+                .delegate(new CollectingHandler())
+                .maxCompletedTraces(0)
+                .build());
+    }
+
+    /**
+     * Root span with two children, the second of which calls {@code Repository.load} for {@code durationMicros}
+     */
+    private static void trace(final Tracing tracing,
+                              final long durationMicros,
+                              final String status) {
+        final long start = TimeUnit.MILLISECONDS.toMicros(System.currentTimeMillis());
+        final Span root = tracing.tracer().newTrace().name("method:root").start(start);
+        tracing.tracer().newChild(root.context()).name("method:validate").start(start).finish(start + 10);
+        final Span load = tracing.tracer().newChild(root.context()).name("method:load").start(start + 10);
+        load.tag(TracingConstants.CLASS_NAME_TAG, "Repository");
+        load.tag(TracingConstants.METHOD_NAME_TAG, "load");
+        load.tag(TracingConstants.METHOD_STATUS_TAG, status);
+        load.finish(start + 10 + durationMicros);
+        root.finish(start + 20 + durationMicros);
+    }
+
+    private static class CollectingHandler extends SpanHandler {
+        private final List<MutableSpan> spans = Collections.synchronizedList(new ArrayList<>());
+
+        @Override
+        public boolean end(TraceContext context, MutableSpan span, Cause cause) {
+            spans.add(span);
+            return true;
+        }
+    }
+}
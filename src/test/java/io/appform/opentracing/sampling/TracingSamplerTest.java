@@ -0,0 +1,126 @@
+package io.appform.opentracing.sampling;
+
+import io.appform.opentracing.FunctionData;
+import io.opentracing.Scope;
+import io.opentracing.Span;
+import io.opentracing.Tracer;
+import io.opentracing.mock.MockTracer;
+import io.opentracing.util.GlobalTracer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.MDC;
+
+import java.lang.reflect.Field;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+
+/**
+ * Test cases related to the bundled samplers
+ */
+class TracingSamplerTest {
+
+    private static final FunctionData FUNCTION_DATA = new FunctionData("TestClass", "testMethod");
+
+    private final MockTracer mockTracer = new MockTracer();
+    private Tracer previousTracer;
+    private Map<String, String> previousMDC;
+
+    /**
+     * Parent based sampling reads the global tracer and MDC, isolate them from spans left behind by other tests
+     */
+    @BeforeEach
+    void setup() throws Exception {
+        previousTracer = swapGlobalTracer(mockTracer);
+        previousMDC = MDC.getCopyOfContextMap();
+        MDC.clear();
+    }
+
+    @AfterEach
+    void cleanup() throws Exception {
+        swapGlobalTracer(previousTracer);
+        MDC.clear();
+        if (previousMDC != null) {
+            MDC.setContextMap(previousMDC);
+        }
+    }
+
+    @Test
+    void testProbabilisticSampler() {
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new ProbabilisticSampler(1.5));
+        final ProbabilisticSampler always = new ProbabilisticSampler(1);
+        final ProbabilisticSampler never = new ProbabilisticSampler(0);
+        Assertions.assertTrue(IntStream.range(0, 1000).allMatch(i -> always.isSampled(FUNCTION_DATA)));
+        Assertions.assertTrue(IntStream.range(0, 1000).noneMatch(i -> never.isSampled(FUNCTION_DATA)));
+    }
+
+    @Test
+    void testRateLimitingSamplerBurstAndRefill() {
+        final RateLimitingSampler sampler = new RateLimitingSampler(10, 2);
+        final long interval = TimeUnit.MILLISECONDS.toNanos(100);
+        final long start = 1_000_000_000L;
+        final AtomicLong bucket = new AtomicLong(start - 2 * interval);
+
+        Assertions.assertTrue(sampler.tryAcquire(bucket, start));
+        Assertions.assertTrue(sampler.tryAcquire(bucket, start));
+        Assertions.assertFalse(sampler.tryAcquire(bucket, start));
+        Assertions.assertFalse(sampler.tryAcquire(bucket, start + interval / 2));
+        Assertions.assertTrue(sampler.tryAcquire(bucket, start + interval));
+        Assertions.assertFalse(sampler.tryAcquire(bucket, start + interval));
+
+        Assertions.assertTrue(sampler.tryAcquire(bucket, start + 10 * interval));
+        Assertions.assertTrue(sampler.tryAcquire(bucket, start + 10 * interval));
+        Assertions.assertFalse(sampler.tryAcquire(bucket, start + 10 * interval));
+    }
+
+    @Test
+    void testRateLimitingSamplerIsPerMethod() {
+        final RateLimitingSampler sampler = new RateLimitingSampler(1, 1);
+        Assertions.assertTrue(sampler.isSampled(FUNCTION_DATA));
+        Assertions.assertFalse(sampler.isSampled(FUNCTION_DATA));
+        Assertions.assertTrue(sampler.isSampled(new FunctionData("TestClass", "otherMethod")));
+        Assertions.assertSame(sampler.bucket(FUNCTION_DATA), sampler.bucket(new FunctionData("TestClass", "testMethod")));
+    }
+
+    @Test
+    void testParentBasedSamplerWithoutParent() {
+        Assertions.assertFalse(new ParentBasedSampler(new ProbabilisticSampler(0)).isSampled(FUNCTION_DATA));
+        Assertions.assertTrue(new ParentBasedSampler(new ProbabilisticSampler(1)).isSampled(FUNCTION_DATA));
+    }
+
+    @Test
+    void testParentBasedSamplerWithParent() {
+        final ParentBasedSampler sampler = new ParentBasedSampler(new ProbabilisticSampler(0));
+        final Span parent = mockTracer.buildSpan("parent").start();
+        try (Scope ignored = mockTracer.activateSpan(parent)) {
+            Assertions.assertTrue(sampler.isSampled(FUNCTION_DATA));
+        } finally {
+            parent.finish();
+        }
+        Assertions.assertFalse(sampler.isSampled(FUNCTION_DATA));
+    }
+
+    @Test
+    void testParentBasedSamplerInsideDroppedTrace() {
+        final ParentBasedSampler sampler = new ParentBasedSampler(new ProbabilisticSampler(1));
+        final boolean previous = UnsampledTrace.enter();
+        try {
+            Assertions.assertTrue(UnsampledTrace.isActive());
+            Assertions.assertFalse(sampler.isSampled(FUNCTION_DATA));
+        } finally {
+            UnsampledTrace.exit(previous);
+        }
+        Assertions.assertFalse(UnsampledTrace.isActive());
+    }
+
+    private static Tracer swapGlobalTracer(final Tracer tracer) throws Exception {
+        final Field tracerField = GlobalTracer.class.getDeclaredField("tracer");
+        tracerField.setAccessible(true);
+        final Tracer previous = (Tracer) tracerField.get(null);
+        tracerField.set(null, tracer);
+        return previous;
+    }
+}
@@ -0,0 +1,85 @@
+package io.appform.opentracing.util;
+
+import brave.Tracing;
+import brave.opentracing.BraveTracer;
+import io.appform.opentracing.Constants;
+import io.opentracing.Scope;
+import io.opentracing.Span;
+import io.opentracing.mock.MockTracer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.slf4j.MDC;
+import org.slf4j.helpers.BasicMDCAdapter;
+import org.slf4j.spi.MDCAdapter;
+
+import java.lang.reflect.Field;
+
+/**
+ * Test cases related to TracerUtil
+ */
+class TracerUtilTest {
+
+    @BeforeAll
+    static void beforeAll() throws NoSuchFieldException, IllegalAccessException {
+        /* No slf4j binding in tests, replace the no-op MDC adapter with a map based one */
+        final Field adapterField = MDC.class.getDeclaredField("mdcAdapter");
+        adapterField.setAccessible(true);
+        if (!(adapterField.get(null) instanceof BasicMDCAdapter)) {
+            adapterField.set(null, (MDCAdapter) new BasicMDCAdapter());
+        }
+    }
+
+    @AfterEach
+    void cleanup() {
+        MDC.clear();
+    }
+
+    @Test
+    void testBuildSpanFromHeadersPrefersActiveSpan() {
+        final MockTracer tracer = new MockTracer();
+        final Span parent = tracer.buildSpan("parent").start();
+        try (Scope ignored = tracer.activateSpan(parent)) {
+            Assertions.assertSame(parent.context(), TracerUtil.buildSpanFromHeaders(tracer));
+        }
+        Assertions.assertNull(tracer.activeSpan());
+    }
+
+    @Test
+    void testPopulateMDCTracingReusesTraceIdOfNestedSpans() {
+        final BraveTracer tracer = BraveTracer.create(Tracing.newBuilder().build());
+        final Span parent = tracer.buildSpan("parent").start();
+        final Span child = tracer.buildSpan("child").asChildOf(parent).start();
+
+        TracerUtil.populateMDCTracing(parent);
+        final String traceId = MDC.get(Constants.TRACE_ID);
+        Assertions.assertEquals(parent.context().toTraceId(), traceId);
+        Assertions.assertEquals(parent.context().toSpanId(), MDC.get(Constants.SPAN_ID));
+
+        TracerUtil.populateMDCTracing(child);
+        Assertions.assertSame(traceId, MDC.get(Constants.TRACE_ID));
+        Assertions.assertEquals(child.context().toSpanId(), MDC.get(Constants.SPAN_ID));
+
+        TracerUtil.restoreMDCTracing(null, null);
+        Assertions.assertNull(TracerUtil.getMDCTraceId());
+        Assertions.assertNull(TracerUtil.getMDCSpanId());
+    }
+
+    @Test
+    void testPopulateMDCTracingWithCombinedKey() {
+        final MockTracer tracer = new MockTracer();
+        final Span span = tracer.buildSpan("span").start();
+
+        TracerUtil.populateMDCTracing(span, true);
+        Assertions.assertNull(MDC.get(Constants.TRACE_ID));
+        Assertions.assertEquals(span.context().toTraceId() + "-" + span.context().toSpanId(),
+                TracerUtil.getMDCTraceContext());
+        Assertions.assertEquals(span.context().toTraceId(), TracerUtil.getMDCTraceId());
+        Assertions.assertEquals(span.context().toSpanId(), TracerUtil.getMDCSpanId());
+
+        TracerUtil.restoreMDCTraceContext(null);
+        Assertions.assertNull(TracerUtil.getMDCTraceContext());
+        Assertions.assertNull(TracerUtil.getMDCTraceId());
+    }
+}